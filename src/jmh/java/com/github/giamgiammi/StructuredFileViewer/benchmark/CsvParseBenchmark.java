@@ -0,0 +1,100 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvDataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvEngine;
+import com.github.giamgiammi.StructuredFileViewer.model.csv.CsvSettings;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parse throughput of {@link com.github.giamgiammi.StructuredFileViewer.core.csv.CsvDataModel}
+ * with every engine. The {@link ParseCounters} report the bytes and the records parsed per second.
+ *
+ * The standard engine reads the file as a stream, like the application does; the other engines access the file
+ * directly. The mapped engine only indexes the records, so the benchmark also reads the last value of each of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CsvParseBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"NARROW", "WIDE"})
+    public SyntheticData.Width width;
+
+    @Param({"false", "true"})
+    public boolean quoted;
+
+    @Param({"ASCII", "UTF8"})
+    public SyntheticData.Text text;
+
+    @Param({"STANDARD", "MAPPED", "PARALLEL", "NATIVE"})
+    public CsvEngine engine;
+
+    private Path file;
+    private long size;
+    private DataModel<CsvSettings, TableLikeData> model;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("csv-benchmark", ".csv");
+        size = new SyntheticData(rows, width, text, 42).writeCsv(file, StandardCharsets.UTF_8, quoted);
+        val factory = new CsvDataModelFactory();
+        model = factory.create(factory.getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .engine(engine)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object parse(ParseCounters counters) throws IOException {
+        final TableLikeData data;
+        if (model.canParseFile()) {
+            data = model.parse(file, null);
+        } else {
+            try (val stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+                data = model.parse(stream);
+            }
+        }
+        try (data) {
+            val records = data.getRecords();
+            Object last = null;
+            if (data.hasLazyRecords()) {
+                val column = data.getColumnNames().size() - 1;
+                for (val record : records) last = record.get(column);
+            }
+            counters.parsed(size, records.size());
+            return last != null ? last : records;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.filters.ParallelFilter;
+import com.github.giamgiammi.StructuredFileViewer.filters.TableFilter;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of filtering a table with each operator of the query language.
+ *
+ * The filter is parsed once per trial; {@link #compile()} measures the parsing on its own.
+ * Columnar tables build their column indexes on the first filtering and keep them, like in the application,
+ * so their equality filters are answered from the index after the warmup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FilterBenchmark {
+    private static final ParallelFilter.Monitor MONITOR = new ParallelFilter.Monitor() {
+        @Override
+        public void progress(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * A query for each operator, on the columns generated by {@link SyntheticData}:
+     * c1 and c4 contain a word, c2 and c5 two words and c3 a number
+     */
+    public enum Operator {
+        EQUALS("c1 = 'alpha'"),
+        NOT_EQUALS("c1 <> 'alpha'"),
+        EQUALS_NULL("c1 = NULL"),
+        GREATER("c3 > '50000'"),
+        GREATER_EQUALS("c3 >= '50000'"),
+        LESS("c3 < '50000'"),
+        LESS_EQUALS("c3 <= '50000'"),
+        LIKE("c2 LIKE 'kilo'"),
+        ILIKE("c2 ILIKE 'KILO'"),
+        REGEX("c2 REGEX '^k.*o$'"),
+        COLUMNS("c1 = c4"),
+        AND("c1 = 'alpha' AND c2 LIKE 'echo'"),
+        OR("c1 = 'alpha' OR c4 = 'bravo'"),
+        NOT("NOT c1 = 'alpha'");
+
+        private final String query;
+
+        Operator(String query) {
+            this.query = query;
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param
+    public Operator operator;
+
+    @Param({"SIMPLE", "COLUMNAR"})
+    public TableModel model;
+
+    private TableLikeData data;
+    private List<TableLikeData.Record> records;
+    private TableFilter filter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        val generator = new SyntheticData(rows, SyntheticData.Width.NARROW, SyntheticData.Text.ASCII, 42);
+        data = model.create(generator.header(), generator.records());
+        records = data.getRecords();
+        filter = TableFilter.parse(operator.query, data);
+    }
+
+    @Benchmark
+    public TableFilter compile() {
+        return TableFilter.parse(operator.query, data);
+    }
+
+    @Benchmark
+    public List<TableLikeData.Record> sequential() {
+        return filter.filter(records);
+    }
+
+    @Benchmark
+    public int[] parallel() throws InterruptedException {
+        return ParallelFilter.filter(filter, records, MONITOR);
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.core.fixed.FixedWidthDataModel;
+import com.github.giamgiammi.StructuredFileViewer.core.fixed.FixedWidthEngine;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parse throughput of {@link FixedWidthDataModel} with every engine.
+ * The {@link ParseCounters} report the bytes and the records parsed per second.
+ *
+ * The mapped and parallel engines need records without new lines and a single-byte charset:
+ * with the other combinations they fall back to the standard engine, like in the application.
+ * The mapped engine parses nothing upfront, so the benchmark also reads the last value of each record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FixedWidthParseBenchmark {
+    private static final int COLUMN_LENGTH = 12;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"NARROW", "WIDE"})
+    public SyntheticData.Width width;
+
+    @Param({"ISO-8859-1", "UTF-8"})
+    public String charset;
+
+    @Param({"true", "false"})
+    public boolean newLine;
+
+    @Param({"STANDARD", "MAPPED", "PARALLEL"})
+    public FixedWidthEngine engine;
+
+    private Path file;
+    private long size;
+    private FixedWidthDataModel model;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        val charset = Charset.forName(this.charset);
+        val text = charset.newEncoder().maxBytesPerChar() > 1 ? SyntheticData.Text.UTF8 : SyntheticData.Text.ASCII;
+        val data = new SyntheticData(rows, width, text, 42);
+        file = Files.createTempFile("fixed-benchmark", ".txt");
+        size = data.writeFixedWidth(file, charset, COLUMN_LENGTH, newLine);
+        model = new FixedWidthDataModel(new FixedWidthSettings(data.fixedWidthColumns(COLUMN_LENGTH), newLine, charset, engine));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object parse(ParseCounters counters) throws IOException {
+        final TableLikeData data;
+        if (model.canParseFile()) {
+            data = model.parse(file, null);
+        } else {
+            try (val stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+                data = model.parse(stream);
+            }
+        }
+        try (data) {
+            val records = data.getRecords();
+            Object last = null;
+            if (data.hasLazyRecords()) {
+                val column = data.getColumnNames().size() - 1;
+                for (val record : records) last = record.get(column);
+            }
+            counters.parsed(size, records.size());
+            return last != null ? last : records;
+        }
+    }
+}
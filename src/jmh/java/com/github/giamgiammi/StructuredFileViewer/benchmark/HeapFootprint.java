@@ -0,0 +1,92 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvDataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvEngine;
+import lombok.val;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Prints the heap retained by each table model, in bytes per row.
+ *
+ * JMH only reports the memory allocated while running (with {@code -prof gc}), not the memory kept afterwards,
+ * so the retained heap is measured here as the difference of the used heap, after a full GC,
+ * before and after creating the table. The result is approximate: run with a fixed heap ({@code -Xms} = {@code -Xmx})
+ * and with enough rows to make the noise negligible.
+ *
+ * Arguments: the numbers of rows to test (default 1000000).
+ */
+public final class HeapFootprint {
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        val rowCounts = args.length == 0 ? new int[]{1_000_000} : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%-10s %-6s %-6s %-20s %14s%n", "rows", "width", "text", "model", "bytes/row");
+        for (val rows : rowCounts) {
+            for (val width : SyntheticData.Width.values()) {
+                for (val text : SyntheticData.Text.values()) {
+                    val generator = new SyntheticData(rows, width, text, 42);
+                    for (val model : TableModel.values()) {
+                        print(rows, width, text, model.name(), () -> model.create(generator.header(), generator.records()));
+                    }
+
+                    val file = Files.createTempFile("heap-footprint", ".csv");
+                    try {
+                        generator.writeCsv(file, StandardCharsets.UTF_8, false);
+                        for (val engine : CsvEngine.values()) {
+                            print(rows, width, text, "CSV " + engine, () -> parse(file, engine));
+                        }
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private static TableLikeData parse(Path file, CsvEngine engine) {
+        val factory = new CsvDataModelFactory();
+        val model = factory.create(factory.getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .engine(engine)
+                .build());
+        try {
+            if (model.canParseFile()) return model.parse(file, null);
+            try (val stream = Files.newInputStream(file)) {
+                return model.parse(stream);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void print(int rows, SyntheticData.Width width, SyntheticData.Text text, String model,
+                              Supplier<TableLikeData> create) {
+        val before = usedHeap();
+        try (val data = create.get()) {
+            val after = usedHeap();
+            System.out.printf("%-10d %-6s %-6s %-20s %14.1f%n", rows, width, text, model, (double) (after - before) / rows);
+            // keep the data reachable until it has been measured
+            if (data.getRecords().size() != rows) throw new IllegalStateException("Unexpected size of " + data);
+        }
+    }
+
+    private static long usedHeap() {
+        val memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // a few collections, since a single one might not free everything
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the bytes and the records parsed by a benchmark, so that JMH reports them as rates
+ * (bytes/s and records/s) next to the rate of the parses.
+ *
+ * Thread safety:
+ * - Each benchmark thread has its own instance.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ParseCounters {
+    public long bytes;
+    public long records;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+        records = 0;
+    }
+
+    void parsed(long bytes, int records) {
+        this.bytes += bytes;
+        this.records += records;
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Generates deterministic synthetic tables for the benchmarks.
+ *
+ * Values are made of a few words picked from a small dictionary, so that they repeat like in real extracts
+ * (and equality filters have something to match), plus a row-dependent number that keeps them distinct enough
+ * for range comparisons. The same seed always produces the same table.
+ *
+ * Thread safety:
+ * - Instances are immutable; each generation uses its own {@link Random}.
+ */
+public final class SyntheticData {
+    /**
+     * The number of columns of a table
+     */
+    public enum Width {
+        NARROW(5),
+        WIDE(50);
+
+        private final int columns;
+
+        Width(int columns) {
+            this.columns = columns;
+        }
+
+        public int columns() {
+            return columns;
+        }
+    }
+
+    /**
+     * The characters used in the values
+     */
+    public enum Text {
+        /**
+         * Only ASCII letters and digits
+         */
+        ASCII,
+        /**
+         * Mostly ASCII, with some accented Latin letters and CJK characters that need multi-byte sequences in UTF-8
+         */
+        UTF8
+    }
+
+    private static final String[] ASCII_WORDS = {
+            "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel", "india", "juliet",
+            "kilo", "lima", "mike", "november", "oscar", "papa", "quebec", "romeo", "sierra", "tango"
+    };
+    private static final String[] UTF8_WORDS = {
+            "citt\u00e0", "perch\u00e9", "caff\u00e8", "na\u00efve", "\u00fcber", "se\u00f1or",
+            "\u4e2d\u6587", "\u6570\u636e", "\u00e9t\u00e9", "gr\u00fc\u00df"
+    };
+
+    private final int rows;
+    private final int columns;
+    private final Text text;
+    private final long seed;
+
+    /**
+     * @param rows the number of records, excluding the header
+     * @param width the number of columns
+     * @param text the characters used in the values
+     * @param seed the seed of the generator
+     */
+    public SyntheticData(int rows, @NonNull Width width, @NonNull Text text, long seed) {
+        this.rows = rows;
+        this.columns = width.columns();
+        this.text = text;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the names of the columns: {@code c1}, {@code c2}, ...
+     */
+    public List<String> header() {
+        return IntStream.rangeClosed(1, columns).mapToObj(i -> "c" + i).toList();
+    }
+
+    /**
+     * Generates the records in memory
+     *
+     * @return the values of each record
+     */
+    public List<String[]> records() {
+        val random = new Random(seed);
+        val records = new ArrayList<String[]>(rows);
+        for (int row = 0; row < rows; row++) records.add(record(random, row));
+        return records;
+    }
+
+    /**
+     * Writes the table as a CSV file with a header record, separating records with "\r\n"
+     *
+     * @param file the file to write
+     * @param charset the charset of the file
+     * @param quoted true to quote every value; some values then also contain delimiters, quotes and new lines
+     * @return the size of the file, in bytes
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public long writeCsv(@NonNull Path file, @NonNull Charset charset, boolean quoted) throws IOException {
+        val random = new Random(seed);
+        try (val writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), charset), 1 << 16)) {
+            writeCsvRecord(writer, header().toArray(String[]::new), quoted);
+            for (int row = 0; row < rows; row++) {
+                val record = record(random, row);
+                if (quoted && row % 10 == 0) record[0] = record[0] + ", \"quoted\"\nvalue";
+                writeCsvRecord(writer, record, quoted);
+            }
+        }
+        return Files.size(file);
+    }
+
+    private static void writeCsvRecord(BufferedWriter writer, String[] values, boolean quoted) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            if (quoted) {
+                writer.write('"');
+                writer.write(values[i].replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(values[i]);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Returns the columns used by {@link #writeFixedWidth(Path, Charset, int, boolean)}
+     *
+     * @param length the length of every column
+     * @return the columns, all trimmed
+     */
+    public List<FixedWidthColumn> fixedWidthColumns(int length) {
+        return header().stream().map(name -> new FixedWidthColumn(name, length, true)).toList();
+    }
+
+    /**
+     * Writes the table as a fixed-width file, with the columns returned by {@link #fixedWidthColumns(int)}.
+     * Values are padded with spaces or truncated to the length of the column.
+     *
+     * @param file the file to write
+     * @param charset the charset of the file
+     * @param length the length of every column
+     * @param newLine true to terminate every record with "\n"
+     * @return the size of the file, in bytes
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public long writeFixedWidth(@NonNull Path file, @NonNull Charset charset, int length, boolean newLine) throws IOException {
+        val random = new Random(seed);
+        val padding = " ".repeat(length);
+        try (val writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), charset), 1 << 16)) {
+            for (int row = 0; row < rows; row++) {
+                for (val value : record(random, row)) {
+                    if (value.length() >= length) {
+                        writer.write(value, 0, length);
+                    } else {
+                        writer.write(value);
+                        writer.write(padding, 0, length - value.length());
+                    }
+                }
+                if (newLine) writer.write('\n');
+            }
+        }
+        return Files.size(file);
+    }
+
+    private String[] record(Random random, int row) {
+        val record = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            val word = text == Text.UTF8 && random.nextInt(4) == 0
+                    ? UTF8_WORDS[random.nextInt(UTF8_WORDS.length)]
+                    : ASCII_WORDS[random.nextInt(ASCII_WORDS.length)];
+            record[i] = switch (i % 3) {
+                case 0 -> word;
+                case 1 -> word + " " + ASCII_WORDS[random.nextInt(ASCII_WORDS.length)];
+                default -> Integer.toString((row * 31 + i) % 100_000);
+            };
+        }
+        return record;
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.List;
+
+/**
+ * The in-memory table models compared by the benchmarks
+ */
+public enum TableModel {
+    SIMPLE {
+        @Override
+        public TableLikeData create(@NonNull List<String> header, @NonNull List<String[]> records) {
+            return new SimpleTableData(header, records);
+        }
+    },
+    COLUMNAR {
+        @Override
+        public TableLikeData create(@NonNull List<String> header, @NonNull List<String[]> records) {
+            val data = new ColumnarTableData(header);
+            for (val record : records) data.append(record);
+            return data;
+        }
+    };
+
+    /**
+     * Creates a table holding the given records
+     *
+     * @param header the names of the columns
+     * @param records the values of the records
+     * @return the table
+     */
+    public abstract TableLikeData create(@NonNull List<String> header, @NonNull List<String[]> records);
+}
@@ -0,0 +1,92 @@
+package com.github.giamgiammi.StructuredFileViewer.benchmark;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the in-memory table models: building them from parsed values, reading every value in order
+ * (like a filter does) and reading random cells (like the table view does while scrolling).
+ *
+ * The heap retained by each model is measured by {@link HeapFootprint}, since JMH only reports allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+public class TableModelBenchmark {
+    private static final int RANDOM_READS = 100_000;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"NARROW", "WIDE"})
+    public SyntheticData.Width width;
+
+    @Param({"SIMPLE", "COLUMNAR"})
+    public TableModel model;
+
+    private List<String> header;
+    private List<String[]> values;
+    private TableLikeData data;
+    private int[] randomRows;
+    private int[] randomColumns;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        val generator = new SyntheticData(rows, width, SyntheticData.Text.ASCII, 42);
+        header = generator.header();
+        values = generator.records();
+        data = model.create(header, values);
+
+        val random = new Random(7);
+        randomRows = random.ints(RANDOM_READS, 0, rows).toArray();
+        randomColumns = random.ints(RANDOM_READS, 0, header.size()).toArray();
+    }
+
+    @Benchmark
+    public TableLikeData build() {
+        return model.create(header, values);
+    }
+
+    @Benchmark
+    public long scan() {
+        long length = 0;
+        val columns = header.size();
+        for (val record : data.getRecords()) {
+            for (int i = 0; i < columns; i++) {
+                val value = record.get(i);
+                if (value != null) length += value.toString().length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long randomAccess() {
+        long length = 0;
+        val records = data.getRecords();
+        for (int i = 0; i < RANDOM_READS; i++) {
+            val value = records.get(randomRows[i]).get(randomColumns[i]);
+            if (value != null) length += value.toString().length();
+        }
+        return length;
+    }
+}
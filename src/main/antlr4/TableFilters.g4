@@ -60,7 +60,7 @@ notExpr
 //  - a parenthesized sub-expression
 //  - or a simple comparison
 primary
-    : '(' expr ')'
+    : '(' orExpr ')'
     | comparison
     ;
 
@@ -0,0 +1,184 @@
+package com.github.giamgiammi.StructuredFileViewer.aggregation;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import lombok.val;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashSet;
+
+/**
+ * Computes the value of an {@link Aggregation} for one group, one value at a time.
+ * Groups are split among threads, so the partial results of the same group are combined with {@link #merge(Accumulator)}.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe; each one is used by one thread at a time.
+ */
+abstract sealed class Accumulator {
+    /**
+     * Creates an empty accumulator
+     *
+     * @param aggregate the function to compute
+     * @param type the type of the column, used to compare its values
+     */
+    static Accumulator of(Aggregate aggregate, ColumnType type) {
+        return switch (aggregate) {
+            case COUNT -> new Count();
+            case DISTINCT_COUNT -> new DistinctCount();
+            case SUM -> new Sum(false);
+            case AVG -> new Sum(true);
+            case MIN -> new Extreme(type, -1);
+            case MAX -> new Extreme(type, 1);
+        };
+    }
+
+    /**
+     * Adds the value of a record of the group
+     *
+     * @param value the value, might be null
+     */
+    abstract void add(String value);
+
+    /**
+     * Adds the values added to another accumulator of the same function
+     */
+    abstract void merge(Accumulator other);
+
+    /**
+     * @return the computed value, or null if there is none (e.g. the sum of a group without numbers)
+     */
+    abstract String result();
+
+    private static final class Count extends Accumulator {
+        private long count;
+
+        @Override
+        void add(String value) {
+            count++;
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            count += ((Count) other).count;
+        }
+
+        @Override
+        String result() {
+            return Long.toString(count);
+        }
+    }
+
+    private static final class DistinctCount extends Accumulator {
+        private final HashSet<String> values = new HashSet<>();
+
+        @Override
+        void add(String value) {
+            if (value != null) values.add(value);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            values.addAll(((DistinctCount) other).values);
+        }
+
+        @Override
+        String result() {
+            return Integer.toString(values.size());
+        }
+    }
+
+    /**
+     * Sums the numbers exactly: integers are summed as longs while they fit, the other numbers as {@link BigDecimal}.
+     * Numbers with an exponent beyond {@value #MAX_SCALE} (e.g. 1E999999999) are ignored like values that are not numbers,
+     * since their exact sum would take as many digits.
+     */
+    private static final class Sum extends Accumulator {
+        private static final int MAX_SCALE = 10_000;
+
+        private final boolean average;
+        private long integers;
+        private BigDecimal decimals = BigDecimal.ZERO;
+        private long count;
+
+        private Sum(boolean average) {
+            this.average = average;
+        }
+
+        @Override
+        void add(String value) {
+            if (value == null) return;
+            val type = ColumnType.of(value);
+            if (type == ColumnType.INTEGER || type == ColumnType.LONG) {
+                addInteger(Long.parseLong(value));
+            } else {
+                val number = (BigDecimal) ColumnType.DECIMAL.key(value);
+                if (number == null || Math.abs(number.scale()) > MAX_SCALE) return;
+                decimals = decimals.add(number);
+            }
+            count++;
+        }
+
+        private void addInteger(long value) {
+            try {
+                integers = Math.addExact(integers, value);
+            } catch (ArithmeticException e) {
+                decimals = decimals.add(BigDecimal.valueOf(value));
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            val sum = (Sum) other;
+            addInteger(sum.integers);
+            decimals = decimals.add(sum.decimals);
+            count += sum.count;
+        }
+
+        @Override
+        String result() {
+            if (count == 0) return null;
+            val total = decimals.add(BigDecimal.valueOf(integers));
+            if (!average) return total.toPlainString();
+            return total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * Keeps the lowest or the highest value, converting each value to its type only once
+     */
+    private static final class Extreme extends Accumulator {
+        private final ColumnType type;
+        private final int sign;
+        private String value;
+        private Comparable<?> key;
+
+        private Extreme(ColumnType type, int sign) {
+            this.type = type;
+            this.sign = sign;
+        }
+
+        @Override
+        void add(String value) {
+            if (value == null) return;
+            add(value, type == ColumnType.STRING ? null : type.key(value));
+        }
+
+        private void add(String value, Comparable<?> key) {
+            if (this.value == null || ColumnType.compareKeys(key, value, this.key, this.value) * sign > 0) {
+                this.value = value;
+                this.key = key;
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            val extreme = (Extreme) other;
+            if (extreme.value != null) add(extreme.value, extreme.key);
+        }
+
+        @Override
+        String result() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.giamgiammi.StructuredFileViewer.aggregation;
+
+/**
+ * Enumeration of the values that can be computed for each group of records
+ */
+public enum Aggregate {
+    /**
+     * The number of records of the group; the column is ignored
+     */
+    COUNT("count"),
+    /**
+     * The number of distinct values of the column, excluding missing values
+     */
+    DISTINCT_COUNT("count_distinct"),
+    /**
+     * The sum of the numeric values of the column; other values are ignored
+     */
+    SUM("sum"),
+    /**
+     * The lowest value of the column, in the order of its type
+     */
+    MIN("min"),
+    /**
+     * The highest value of the column, in the order of its type
+     */
+    MAX("max"),
+    /**
+     * The average of the numeric values of the column; other values are ignored
+     */
+    AVG("avg");
+
+    private final String function;
+
+    Aggregate(String function) {
+        this.function = function;
+    }
+
+    /**
+     * @return the name of the function, used in the name of the result column (e.g. {@code sum(amount)})
+     */
+    public String function() {
+        return function;
+    }
+}
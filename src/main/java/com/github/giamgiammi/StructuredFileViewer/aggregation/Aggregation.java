@@ -0,0 +1,12 @@
+package com.github.giamgiammi.StructuredFileViewer.aggregation;
+
+import lombok.NonNull;
+
+/**
+ * A value to compute for each group of records
+ *
+ * @param aggregate the function to compute
+ * @param column the index of the column the function is applied to; ignored for {@link Aggregate#COUNT}
+ */
+public record Aggregation(@NonNull Aggregate aggregate, int column) {
+}
@@ -0,0 +1,181 @@
+package com.github.giamgiammi.StructuredFileViewer.aggregation;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Groups the records of a table by the values of some columns and computes some {@link Aggregation}s for each group.
+ *
+ * The aggregation is a parallel partitioned hash aggregation: the records are split in slices aggregated
+ * concurrently, each slice keeping its groups in a few hash maps chosen by the hash of the group.
+ * The maps of the same partition are then merged concurrently, so no lock is needed and each group
+ * is merged by a single thread. Only the groups are kept in memory, not the records.
+ *
+ * The result has a record for each group, sorted by the values of the grouping columns in the order
+ * of their type, with the values of the grouping columns followed by the computed values.
+ *
+ * Thread safety:
+ * - The class is immutable; {@link #aggregate(int[], BooleanSupplier)} can run concurrently.
+ */
+@Slf4j
+public final class GroupBy {
+    /**
+     * Number of partitions of the groups of each slice
+     */
+    private static final int PARTITIONS = 64;
+    /**
+     * Minimum number of records of a slice, so that small tables are aggregated by a single thread
+     */
+    private static final int MIN_SLICE_SIZE = 1 << 15;
+
+    private final TableLikeData data;
+    private final int[] keys;
+    private final List<Aggregation> aggregations;
+
+    /**
+     * @param data the data whose records are grouped
+     * @param keys the indexes of the columns to group by; empty to aggregate all the records in a single group
+     * @param aggregations the values to compute for each group
+     */
+    public GroupBy(@NonNull TableLikeData data, @NonNull List<Integer> keys, @NonNull List<Aggregation> aggregations) {
+        if (keys.isEmpty() && aggregations.isEmpty()) throw new IllegalArgumentException("Nothing to group by or aggregate");
+        this.data = data;
+        this.keys = keys.stream().mapToInt(Integer::intValue).toArray();
+        this.aggregations = List.copyOf(aggregations);
+    }
+
+    /**
+     * Returns the names of the columns of the result: the names of the grouping columns,
+     * followed by the name of each function with its column (e.g. {@code sum(amount)})
+     */
+    public List<String> columnNames() {
+        val names = data.getColumnNames();
+        val result = new ArrayList<String>();
+        for (val key : keys) result.add(columnName(names, key));
+        for (val aggregation : aggregations) {
+            val column = aggregation.aggregate() == Aggregate.COUNT ? "*" : columnName(names, aggregation.column());
+            result.add(aggregation.aggregate().function() + "(" + column + ")");
+        }
+        return result;
+    }
+
+    private static String columnName(List<String> names, int column) {
+        return column < names.size() && !names.get(column).isEmpty() ? names.get(column) : "$" + (column + 1);
+    }
+
+    /**
+     * Groups some records and computes the aggregations
+     *
+     * @param rows the indexes of the records to group; null for all the records
+     * @param cancelled tells if the aggregation should stop as soon as possible
+     * @return the groups, one record each
+     * @throws CancellationException if the aggregation was cancelled before the end
+     */
+    public SimpleTableData aggregate(int[] rows, @NonNull BooleanSupplier cancelled) {
+        val records = data.getRecords();
+        val count = rows == null ? records.size() : rows.length;
+        val types = aggregations.stream()
+                .map(a -> a.aggregate() == Aggregate.MIN || a.aggregate() == Aggregate.MAX ? data.columnType(a.column()) : ColumnType.STRING)
+                .toArray(ColumnType[]::new);
+
+        val slices = Math.clamp(count / MIN_SLICE_SIZE, 1, ForkJoinPool.getCommonPoolParallelism() * 4);
+        log.info("Grouping {} records in {} slices: keys={}, aggregations={}", count, slices, Arrays.toString(keys), aggregations);
+        val partials = IntStream.range(0, slices).parallel().mapToObj(slice -> {
+            @SuppressWarnings("unchecked")
+            val partitions = (Map<Object, Accumulator[]>[]) new Map[PARTITIONS];
+            for (int p = 0; p < PARTITIONS; p++) partitions[p] = new HashMap<>();
+            val to = (int) ((long) count * (slice + 1) / slices);
+            for (int i = (int) ((long) count * slice / slices); i < to; i++) {
+                if ((i & 0xfff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+                val record = records.get(rows == null ? i : rows[i]);
+                val key = key(record);
+                val accumulators = partitions[partition(key)].computeIfAbsent(key, k -> newAccumulators(types));
+                for (int a = 0; a < accumulators.length; a++) {
+                    accumulators[a].add(value(record, aggregations.get(a).column()));
+                }
+            }
+            return partitions;
+        }).toList();
+
+        // each partition is merged by one thread, in the order of the slices
+        List<Map.Entry<Object, Accumulator[]>> groups = IntStream.range(0, PARTITIONS).parallel().mapToObj(p -> {
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+            val merged = partials.getFirst()[p];
+            for (int slice = 1; slice < partials.size(); slice++) {
+                partials.get(slice)[p].forEach((key, accumulators) -> merged.merge(key, accumulators, (a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i].merge(b[i]);
+                    return a;
+                }));
+            }
+            return merged;
+        }).flatMap(map -> map.entrySet().stream()).toList();
+
+        if (keys.length == 0 && groups.isEmpty()) {
+            // a single total, even without records
+            groups = List.of(Map.<Object, Accumulator[]>entry(List.of(), newAccumulators(types)));
+        }
+        val keyTypes = Arrays.stream(keys).mapToObj(data::columnType).toArray(ColumnType[]::new);
+        val result = new ArrayList<String[]>(groups.size());
+        for (val group : groups) {
+            val values = new String[keys.length + aggregations.size()];
+            for (int i = 0; i < keys.length; i++) values[i] = keyValue(group.getKey(), i);
+            val accumulators = group.getValue();
+            for (int i = 0; i < accumulators.length; i++) values[keys.length + i] = accumulators[i].result();
+            result.add(values);
+        }
+        result.sort((a, b) -> {
+            for (int i = 0; i < keyTypes.length; i++) {
+                val c = keyTypes[i].compare(a[i], b[i]);
+                if (c != 0) return c;
+            }
+            return 0;
+        });
+        log.info("Found {} groups", result.size());
+        return new SimpleTableData(columnNames(), result);
+    }
+
+    /**
+     * Returns the group of a record: the value of the only grouping column, or the list of the values
+     * of the grouping columns
+     */
+    private Object key(TableLikeData.Record record) {
+        if (keys.length == 1) return value(record, keys[0]);
+        val values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) values[i] = value(record, keys[i]);
+        return Arrays.asList(values);
+    }
+
+    private String keyValue(Object key, int index) {
+        return keys.length == 1 ? (String) key : ((List<?>) key).get(index) instanceof String s ? s : null;
+    }
+
+    private static int partition(Object key) {
+        val hash = Objects.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (PARTITIONS - 1);
+    }
+
+    private Accumulator[] newAccumulators(ColumnType[] types) {
+        val accumulators = new Accumulator[aggregations.size()];
+        for (int i = 0; i < accumulators.length; i++) accumulators[i] = Accumulator.of(aggregations.get(i).aggregate(), types[i]);
+        return accumulators;
+    }
+
+    private static String value(TableLikeData.Record record, int column) {
+        return column < 0 ? null : Objects.toString(record.get(column), null);
+    }
+}
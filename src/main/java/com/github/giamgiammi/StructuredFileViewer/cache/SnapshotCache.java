@@ -0,0 +1,237 @@
+package com.github.giamgiammi.StructuredFileViewer.cache;
+
+import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.utils.AppProperty;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * On-disk cache of the parsed content of files, as {@link SnapshotTableData} snapshots under
+ * {@link AppProperty#TMP_DIR}, so that reopening a big file maps its snapshot instead of parsing it again.
+ *
+ * A snapshot is named after the file path and the settings of the model used to parse it,
+ * followed by the size and last modified time of the file. A changed file never matches its old snapshots,
+ * which are deleted when found or when the new snapshot is written. The {@link Key} of a snapshot is taken
+ * before the file is parsed, so that a file changed while parsing (e.g. a log being appended to) never gets
+ * a snapshot missing its changes.
+ *
+ * The total size of the snapshots is kept under {@link AppProperty#SNAPSHOT_CACHE_SIZE} megabytes
+ * (default {@value #DEFAULT_SIZE_MB}, 0 disables the cache) by deleting the least recently used ones;
+ * the last modified time of a snapshot is updated every time it is opened.
+ *
+ * Thread safety:
+ * - The class is thread-safe; snapshots are written one at a time.
+ */
+@Slf4j
+public final class SnapshotCache {
+    private static final long DEFAULT_SIZE_MB = 4096;
+    private static final String EXTENSION = ".snapshot";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final SnapshotCache INSTANCE = new SnapshotCache(
+            Path.of(System.getProperty(AppProperty.TMP_DIR, System.getProperty("java.io.tmpdir"))).resolve("snapshots"),
+            Long.getLong(AppProperty.SNAPSHOT_CACHE_SIZE, DEFAULT_SIZE_MB) * 1024 * 1024
+    );
+
+    private final Path folder;
+    private final long maxSize;
+    private final Object writeLock = new Object();
+
+    /**
+     * @param folder the folder of the snapshots, created when needed
+     * @param maxSize the maximum total size of the snapshots in bytes; 0 disables the cache
+     */
+    SnapshotCache(@NonNull Path folder, long maxSize) {
+        this.folder = folder;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the cache of the application
+     */
+    public static SnapshotCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true unless the cache was disabled
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Opens the snapshot of a file parsed with a model, if any
+     *
+     * @param file the parsed file
+     * @param model the model parsing the file
+     * @return the data of the snapshot, or null if there is none or it cannot be opened
+     */
+    public TableLikeData load(@NonNull Path file, @NonNull DataModel<?, ?> model) {
+        if (!isEnabled()) return null;
+        try {
+            val key = computeKey(file, model);
+            deleteOthers(key);
+            val snapshot = folder.resolve(key.name());
+            if (!Files.isRegularFile(snapshot)) return null;
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+            val data = SnapshotTableData.open(snapshot);
+            log.info("Opened snapshot {} of file {}", snapshot, file);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to open snapshot of file {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the key of the snapshot of a file parsed with a model, to be taken before parsing the file
+     * and given to {@link #store(Path, DataModel, Key, TableLikeData)}
+     *
+     * @param file the file to parse
+     * @param model the model parsing the file
+     * @return the key, or null if it cannot be computed (e.g. the file does not exist)
+     */
+    public Key key(@NonNull Path file, @NonNull DataModel<?, ?> model) {
+        try {
+            return computeKey(file, model);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to compute snapshot key of file {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot of a file parsed with a model, then deletes the least recently used snapshots
+     * exceeding the size of the cache. Data {@link TableLikeData#isFileBacked() backed by a file} is not stored,
+     * since it is not parsed when opened. The snapshot is discarded if the file changed since the key was taken.
+     *
+     * @param file the parsed file
+     * @param model the model that parsed the file
+     * @param key the key taken before parsing the file, see {@link #key(Path, DataModel)}; null to store nothing
+     * @param data the parsed data; it must not change while writing
+     */
+    public void store(@NonNull Path file, @NonNull DataModel<?, ?> model, Key key, @NonNull TableLikeData data) {
+        if (!isEnabled() || key == null || data.isFileBacked()) return;
+        synchronized (writeLock) {
+            Path tmp = null;
+            try {
+                // the file changed while parsing, the data might not match it
+                if (!key.equals(computeKey(file, model))) {
+                    log.info("File {} changed while parsing, snapshot not stored", file);
+                    return;
+                }
+                Files.createDirectories(folder);
+                deleteOthers(key);
+                tmp = Files.createTempFile(folder, "write", ".tmp");
+                SnapshotTableData.write(data, tmp, () -> false);
+                // the file changed while writing, the next parse will find it changed anyway
+                if (!key.equals(computeKey(file, model))) return;
+                Files.move(tmp, folder.resolve(key.name()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                tmp = null;
+                log.info("Stored snapshot {} of file {}", key.name(), file);
+                evict();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to store snapshot of file {}", file, e);
+            } finally {
+                if (tmp != null) deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used snapshots until their total size fits the cache
+     */
+    private void evict() throws IOException {
+        record Entry(Path path, long size, FileTime used) {}
+        final List<Entry> entries;
+        try (val files = Files.list(folder)) {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).map(p -> {
+                try {
+                    return new Entry(p, Files.size(p), Files.getLastModifiedTime(p));
+                } catch (IOException e) {
+                    return null;
+                }
+            }).filter(Objects::nonNull).sorted(Comparator.comparing(Entry::used)).toList();
+        }
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        for (val entry : entries) {
+            // the most recent snapshot is kept even if bigger than the cache
+            if (total <= maxSize || entry == entries.getLast()) break;
+            log.info("Evicting snapshot {}", entry.path());
+            deleteQuietly(entry.path());
+            total -= entry.size();
+        }
+    }
+
+    /**
+     * Deletes the snapshots of the same file and settings with a different version of the file
+     */
+    private void deleteOthers(Key key) throws IOException {
+        if (!Files.isDirectory(folder)) return;
+        try (val files = Files.list(folder)) {
+            files.filter(p -> {
+                val name = p.getFileName().toString();
+                return name.startsWith(key.source()) && !name.equals(key.name());
+            }).forEach(p -> {
+                log.info("Deleting outdated snapshot {}", p);
+                deleteQuietly(p);
+            });
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // an opened snapshot cannot be deleted on some systems, it will be retried later
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    /**
+     * Returns the key of the snapshot of a file parsed with a model
+     */
+    private static Key computeKey(Path file, DataModel<?, ?> model) throws IOException {
+        val path = file.toAbsolutePath().normalize().toString();
+        val settings = model.getFactoryClass().getName() + MAPPER.writeValueAsString(model.getSettings());
+        val version = Files.size(file) + "-" + Files.getLastModifiedTime(file).toMillis();
+        return new Key(sha256(path + "\n" + settings), sha256(version).substring(0, 16));
+    }
+
+    private static String sha256(String value) {
+        try {
+            val digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The key of a snapshot
+     *
+     * @param source the hash of the file path and the model settings
+     * @param version the hash of the size and last modified time of the file
+     */
+    public record Key(String source, String version) {
+        String name() {
+            return source + "-" + version + EXTENSION;
+        }
+    }
+}
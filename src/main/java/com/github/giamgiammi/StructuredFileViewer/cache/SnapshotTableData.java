@@ -0,0 +1,428 @@
+package com.github.giamgiammi.StructuredFileViewer.cache;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link TableLikeData} backed by a snapshot file mapped in memory.
+ *
+ * A snapshot stores the values of a table column by column, in UTF-8, so that opening it only reads
+ * a small header: the values are decoded from the mapped file when accessed.
+ * Columns with few distinct values are stored as a dictionary and a 16-bit code for each record,
+ * the other ones as the end offset of each value followed by the bytes of the values.
+ *
+ * Layout (big endian):
+ * <pre>
+ * int magic, int version, int rows, int columns
+ * for each column: int name length, name bytes
+ * for each column: byte kind, byte type ordinal, long position of the column data
+ * PLAIN column: int or long end offsets, one per record (~end for missing values), value bytes
+ * DICTIONARY column: int entries, int end offsets of the entries, entry bytes, char code per record (0xFFFF if missing)
+ * </pre>
+ *
+ * Thread safety:
+ * - The class is thread-safe. The mapping is released by {@link #close()}, after which the data must not be accessed.
+ */
+@Slf4j
+public final class SnapshotTableData implements TableLikeData {
+    private static final int MAGIC = 0x53465653; // SFVS
+    private static final int VERSION = 1;
+
+    private static final byte PLAIN_INT = 0;
+    private static final byte PLAIN_LONG = 1;
+    private static final byte DICTIONARY = 2;
+
+    /**
+     * Maximum number of entries of a dictionary column, one code being reserved for missing values
+     */
+    private static final int MAX_DICTIONARY_SIZE = 0xFFFF;
+    private static final char MISSING_CODE = 0xFFFF;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int size;
+    private final List<String> columnNames;
+    private final Column[] columns;
+
+    private SnapshotTableData(Arena arena, MemorySegment segment) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < 16 || segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IOException("Not a snapshot or unsupported version");
+        }
+        this.size = segment.get(INT, 8);
+        val count = segment.get(INT, 12);
+
+        long position = 16;
+        val names = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            val length = segment.get(INT, position);
+            names.add(string(position + 4, length));
+            position += 4 + length;
+        }
+        this.columnNames = List.copyOf(names);
+
+        this.columns = new Column[count];
+        for (int i = 0; i < count; i++) {
+            val kind = segment.get(ValueLayout.JAVA_BYTE, position);
+            val type = ColumnType.values()[segment.get(ValueLayout.JAVA_BYTE, position + 1)];
+            val start = segment.get(LONG, position + 2);
+            columns[i] = kind == DICTIONARY ? dictionaryColumn(type, start) : new PlainColumn(type, kind == PLAIN_LONG, start);
+            position += 10;
+        }
+    }
+
+    /**
+     * Maps a snapshot file in memory
+     *
+     * @param file the snapshot file
+     * @return the data backed by the mapped file
+     * @throws IOException if an I/O error occurs while mapping the file or the file is not a valid snapshot
+     */
+    public static SnapshotTableData open(@NonNull Path file) throws IOException {
+        val arena = Arena.ofShared();
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new SnapshotTableData(arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a snapshot of a table
+     *
+     * @param data the data to write; its records must not change while writing
+     * @param file the file to write, replaced if existing
+     * @param cancelled tells if the writing should stop as soon as possible
+     * @throws IOException if an I/O error occurs while writing
+     * @throws CancellationException if the writing was cancelled before the end
+     */
+    public static void write(@NonNull TableLikeData data, @NonNull Path file, @NonNull BooleanSupplier cancelled) throws IOException {
+        val records = data.getRecords();
+        val rows = records.size();
+        val names = data.getColumnNames();
+        try (val channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // the positions of the columns are known at the end, they are written directly to the channel
+            val counter = new CountingStream(Channels.newOutputStream(channel));
+            val out = new DataOutputStream(new BufferedOutputStream(counter, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(names.size());
+            for (val name : names) {
+                val bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            val table = counter.count;
+            out.write(new byte[10 * names.size()]);
+
+            val positions = ByteBuffer.allocate(10 * names.size());
+            for (int column = 0; column < names.size(); column++) {
+                out.flush();
+                val start = counter.count;
+                val kind = writeColumn(out, records, column, cancelled);
+                positions.put(kind).put((byte) data.columnType(column).ordinal()).putLong(start);
+            }
+            out.flush();
+            positions.flip();
+            channel.write(positions, table);
+        }
+    }
+
+    /**
+     * Writes the values of a column, as a dictionary if they are few
+     *
+     * @return the kind of the column
+     */
+    private static byte writeColumn(DataOutputStream out, List<Record> records, int column, BooleanSupplier cancelled) throws IOException {
+        // first pass: the dictionary, while small enough, and the size of the values
+        val rows = records.size();
+        var dictionary = new HashMap<String, Integer>();
+        long bytes = 0;
+        for (int i = 0; i < rows; i++) {
+            if ((i & 0xffff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+            val value = value(records, i, column);
+            if (value == null) continue;
+            bytes += utf8Length(value);
+            if (dictionary != null && !dictionary.containsKey(value)) {
+                if (dictionary.size() == MAX_DICTIONARY_SIZE) dictionary = null;
+                else dictionary.put(value, dictionary.size());
+            }
+        }
+
+        if (dictionary != null && dictionary.size() * 8L < rows) {
+            val entries = new String[dictionary.size()];
+            dictionary.forEach((value, code) -> entries[code] = value);
+            out.writeInt(entries.length);
+            int end = 0;
+            for (val entry : entries) {
+                end += utf8Length(entry);
+                out.writeInt(end);
+            }
+            for (val entry : entries) out.write(entry.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < rows; i++) {
+                val value = value(records, i, column);
+                out.writeChar(value == null ? MISSING_CODE : dictionary.get(value));
+            }
+            return DICTIONARY;
+        }
+
+        // ints are enough for the offsets of columns up to 2 GB
+        val wide = bytes > Integer.MAX_VALUE;
+        long end = 0;
+        for (int i = 0; i < rows; i++) {
+            if ((i & 0xffff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+            val value = value(records, i, column);
+            if (value != null) end += utf8Length(value);
+            val encoded = value == null ? ~end : end;
+            if (wide) out.writeLong(encoded);
+            else out.writeInt((int) encoded);
+        }
+        for (int i = 0; i < rows; i++) {
+            if ((i & 0xffff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+            val value = value(records, i, column);
+            if (value != null) out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return wide ? PLAIN_LONG : PLAIN_INT;
+    }
+
+    private static String value(List<Record> records, int row, int column) {
+        return Objects.toString(records.get(row).get(column), null);
+    }
+
+    /**
+     * Returns the length of a string encoded in UTF-8, where unpaired surrogates are replaced by a single byte
+     */
+    static long utf8Length(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            val c = value.charAt(i);
+            if (c < 0x80) length++;
+            else if (c < 0x800) length += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) length++;
+            else length += 3;
+        }
+        return length;
+    }
+
+    private Column dictionaryColumn(ColumnType type, long start) {
+        val count = segment.get(INT, start);
+        val entries = new String[count];
+        val bytes = start + 4 + 4L * count;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            val end = segment.get(INT, start + 4 + 4L * i);
+            entries[i] = string(bytes + previous, end - previous);
+            previous = end;
+        }
+        return new DictionaryColumn(type, entries, bytes + previous);
+    }
+
+    private String string(long position, long length) {
+        return new String(segment.asSlice(position, length).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public @NonNull List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public @NonNull List<Record> getRecords() {
+        return new RecordsView();
+    }
+
+    @Override
+    public boolean hasLazyRecords() {
+        return true;
+    }
+
+    @Override
+    public boolean isFileBacked() {
+        return true;
+    }
+
+    @Override
+    public ColumnType columnType(int column) {
+        return column < columns.length ? columns[column].type() : ColumnType.STRING;
+    }
+
+    @Override
+    public void close() {
+        log.info("Releasing mapped snapshot of {}", this);
+        arena.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{columnNames=%s, size=%d}", getClass().getSimpleName(), columnNames, size);
+    }
+
+    private sealed interface Column {
+        ColumnType type();
+
+        String get(int row);
+    }
+
+    private final class DictionaryColumn implements Column {
+        private final ColumnType type;
+        private final String[] entries;
+        private final long codes;
+
+        private DictionaryColumn(ColumnType type, String[] entries, long codes) {
+            this.type = type;
+            this.entries = entries;
+            this.codes = codes;
+        }
+
+        @Override
+        public ColumnType type() {
+            return type;
+        }
+
+        @Override
+        public String get(int row) {
+            val code = segment.get(CHAR, codes + 2L * row);
+            return code == MISSING_CODE ? null : entries[code];
+        }
+    }
+
+    private final class PlainColumn implements Column {
+        private final ColumnType type;
+        private final boolean wide;
+        private final long ends;
+        private final long bytes;
+
+        private PlainColumn(ColumnType type, boolean wide, long ends) {
+            this.type = type;
+            this.wide = wide;
+            this.ends = ends;
+            this.bytes = ends + (long) size * (wide ? 8 : 4);
+        }
+
+        @Override
+        public ColumnType type() {
+            return type;
+        }
+
+        private long end(int row) {
+            return wide ? segment.get(LONG, ends + 8L * row) : segment.get(INT, ends + 4L * row);
+        }
+
+        @Override
+        public String get(int row) {
+            val end = end(row);
+            if (end < 0) return null;
+            val previous = row == 0 ? 0 : end(row - 1);
+            val start = previous < 0 ? ~previous : previous;
+            return string(bytes + start, end - start);
+        }
+    }
+
+    private final class RecordsView extends AbstractList<Record> implements RandomAccess {
+        @Override
+        public Record get(int index) {
+            Objects.checkIndex(index, size);
+            return new SnapshotRecord(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class SnapshotRecord implements Record {
+        private final int row;
+
+        private SnapshotRecord(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int column) {
+            if (column < 0 || column >= columns.length) return null;
+            return columns[column].get(row);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SnapshotRecord other && other.row == row && other.owner() == owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(row);
+        }
+
+        private SnapshotTableData owner() {
+            return SnapshotTableData.this;
+        }
+
+        @Override
+        public String toString() {
+            return "SnapshotRecord{row=%d}".formatted(row);
+        }
+    }
+
+    /**
+     * Counts the bytes written, to know the position of each column
+     */
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        private CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
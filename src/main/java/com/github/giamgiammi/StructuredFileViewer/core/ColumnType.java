@@ -0,0 +1,285 @@
+package com.github.giamgiammi.StructuredFileViewer.core;
+
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.val;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Enumeration of the types that can be inferred for the values of a column.
+ *
+ * The type of a column is the narrowest type matching all its values, ignoring missing values.
+ * Values match a type only in their canonical form (e.g. "5" is an {@link #INTEGER}, "05" and "+5" are strings),
+ * so that a value converted to its type and back is the same text.
+ *
+ * Values of a column are ordered by {@link #compare(String, String)}: missing values first, then the values
+ * of the type by their typed value (e.g. numerically), then the other values as strings.
+ * For {@link #STRING} columns this is the same order of {@link TextUtils#safeCompare(String, String)}.
+ */
+public enum ColumnType {
+    /**
+     * "true" or "false", in any case
+     */
+    BOOLEAN,
+    /**
+     * Integer numbers fitting in an {@code int}
+     */
+    INTEGER,
+    /**
+     * Integer numbers fitting in a {@code long}
+     */
+    LONG,
+    /**
+     * Decimal numbers with a dot and at least one decimal digit, or integer numbers, up to 18 digits
+     */
+    DECIMAL,
+    /**
+     * Dates in ISO format, e.g. 2026-01-31
+     */
+    DATE,
+    /**
+     * Date and time in ISO format, with a 'T' or a space between them and optionally the milliseconds,
+     * e.g. 2026-01-31T23:59:59 or 2026-01-31 23:59:59.999
+     */
+    TIMESTAMP,
+    /**
+     * Any value
+     */
+    STRING;
+
+    /**
+     * The formats of {@link #TIMESTAMP} values
+     */
+    public static final List<DateTimeFormatter> TIMESTAMP_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss"),
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS"),
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSS")
+    );
+
+    /**
+     * Maximum number of digits of a {@link #DECIMAL}, so that its digits fit in a {@code long}
+     */
+    public static final int MAX_DECIMAL_DIGITS = 18;
+
+    /**
+     * Returns the narrowest type matching a value
+     *
+     * @param value the value
+     * @return the type, or null if the value is null
+     */
+    public static ColumnType of(String value) {
+        if (value == null) return null;
+        val length = value.length();
+        if (length == 0) return STRING;
+        val first = value.charAt(0);
+        if (first == 't' || first == 'T' || first == 'f' || first == 'F') {
+            return value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false") ? BOOLEAN : STRING;
+        }
+        if (first != '-' && (first < '0' || first > '9')) return STRING;
+        if (isCanonicalNumber(value)) {
+            if (value.indexOf('.') >= 0) return DECIMAL;
+            val digits = first == '-' ? length - 1 : length;
+            if (digits <= 9) return INTEGER;
+            if (digits > 19) return STRING;
+            try {
+                val number = Long.parseLong(value);
+                return number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE ? INTEGER : LONG;
+            } catch (NumberFormatException e) {
+                return STRING;
+            }
+        }
+        if (length == 10) return parseDate(value) != null ? DATE : STRING;
+        return timestampFormat(value) >= 0 ? TIMESTAMP : STRING;
+    }
+
+    /**
+     * Returns the narrowest type matching the values of both types
+     *
+     * @param other the other type; null if unknown
+     * @return the type matching both
+     */
+    public ColumnType widen(ColumnType other) {
+        if (other == null || other == this) return this;
+        if (isNumeric() && other.isNumeric()) {
+            if (this == DECIMAL || other == DECIMAL) return DECIMAL;
+            return LONG;
+        }
+        return STRING;
+    }
+
+    /**
+     * @return true for {@link #INTEGER}, {@link #LONG} and {@link #DECIMAL}
+     */
+    public boolean isNumeric() {
+        return this == INTEGER || this == LONG || this == DECIMAL;
+    }
+
+    /**
+     * Converts a value to its typed value, to be compared with the typed values of the same type.
+     * Unlike the inference, any format accepted by the parsers is converted (e.g. "05" for numbers),
+     * and dates are converted to timestamps at the start of the day.
+     *
+     * @param value the value
+     * @return a {@link BigDecimal} for numeric types, a {@link Boolean}, a {@link LocalDate}, a {@link LocalDateTime},
+     *         or null if the value is null, cannot be converted or the type is {@link #STRING}
+     */
+    public Comparable<?> key(String value) {
+        if (value == null) return null;
+        try {
+            return switch (this) {
+                case BOOLEAN -> value.equalsIgnoreCase("true") ? Boolean.TRUE : value.equalsIgnoreCase("false") ? Boolean.FALSE : null;
+                case INTEGER, LONG, DECIMAL -> new BigDecimal(value.strip());
+                case DATE -> LocalDate.parse(value.strip());
+                case TIMESTAMP -> {
+                    val stripped = value.strip();
+                    val timestamp = parseTimestamp(stripped);
+                    yield timestamp != null ? timestamp : LocalDate.parse(stripped).atStartOfDay();
+                }
+                case STRING -> null;
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compares two values of a column of this type
+     *
+     * @param a the first value, might be null
+     * @param b the second value, might be null
+     * @return a negative integer, zero, or a positive integer as the first value is less than, equal to,
+     *         or greater than the second
+     */
+    public int compare(String a, String b) {
+        if (this == STRING || a == null || b == null) return TextUtils.safeCompare(a, b);
+        return compareKeys(key(a), a, key(b), b);
+    }
+
+    /**
+     * Compares two values of a column of this type, given their typed values
+     *
+     * @param keyA the typed value of the first value, as returned by {@link #key(String)}
+     * @param a the first value, might be null
+     * @param keyB the typed value of the second value, as returned by {@link #key(String)}
+     * @param b the second value, might be null
+     * @return the same result of {@link #compare(String, String)}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareKeys(Comparable keyA, String a, Comparable keyB, String b) {
+        if (a == null || b == null) return TextUtils.safeCompare(a, b);
+        if (keyA != null && keyB != null) return keyA.compareTo(keyB);
+        if (keyA != null) return -1;
+        if (keyB != null) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * Returns a function comparing values of a column of this type with the given value,
+     * converting the given value only once
+     *
+     * @param value the value to compare with, might be null
+     * @return a function returning the same result of {@code compare(v, value)} for a value {@code v}
+     */
+    public ToIntFunction<String> compareWith(String value) {
+        if (this == STRING || value == null) return v -> TextUtils.safeCompare(v, value);
+        val key = key(value);
+        return v -> v == null ? -1 : compareKeys(key(v), v, key, value);
+    }
+
+    /**
+     * Returns a comparator of the values of a column of this type
+     *
+     * @return the comparator, following {@link #compare(String, String)}
+     */
+    public Comparator<String> comparator() {
+        return this::compare;
+    }
+
+    /**
+     * Returns the index in {@link #TIMESTAMP_FORMATS} of the format of a timestamp in canonical form
+     *
+     * @param value the value
+     * @return the index of the format, or -1 if the value is not a timestamp
+     */
+    public static int timestampFormat(String value) {
+        if (parseTimestamp(value) == null) return -1;
+        return (value.length() == 23 ? 2 : 0) + (value.charAt(10) == ' ' ? 1 : 0);
+    }
+
+    /**
+     * Parses a timestamp in canonical form, in one of the {@link #TIMESTAMP_FORMATS}
+     *
+     * @return the timestamp, or null if the value is not a timestamp in canonical form
+     */
+    public static LocalDateTime parseTimestamp(String value) {
+        val length = value.length();
+        if (length != 19 && length != 23) return null;
+        val separator = value.charAt(10);
+        if ((separator != 'T' && separator != ' ') || value.charAt(13) != ':' || value.charAt(16) != ':') return null;
+        if (length == 23 && value.charAt(19) != '.') return null;
+        val date = parseDate(value.substring(0, 10));
+        val hour = digits(value, 11, 13);
+        val minute = digits(value, 14, 16);
+        val second = digits(value, 17, 19);
+        val millis = length == 23 ? digits(value, 20, 23) : 0;
+        if (date == null || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0) return null;
+        return date.atTime(hour, minute, second, millis * 1_000_000);
+    }
+
+    /**
+     * Parses a date in canonical ISO format
+     *
+     * @return the date, or null if the value is not a date in canonical form
+     */
+    public static LocalDate parseDate(String value) {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') return null;
+        val year = digits(value, 0, 4);
+        val month = digits(value, 5, 7);
+        val day = digits(value, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 28 && day > YearMonth.of(year, month).lengthOfMonth()) return null;
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Parses the digits between two indexes of a value
+     *
+     * @return the number, or -1 if there are other characters
+     */
+    private static int digits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            val c = value.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            result = result * 10 + c - '0';
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a value is an integer or a decimal number in canonical form: an optional minus, no leading zeros
+     * (unless the integer part is 0), and at least one digit after the dot if present; "-0" is not canonical
+     */
+    private static boolean isCanonicalNumber(String value) {
+        val length = value.length();
+        int i = value.charAt(0) == '-' ? 1 : 0;
+        val start = i;
+        while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') i++;
+        val integerDigits = i - start;
+        if (integerDigits == 0 || (integerDigits > 1 && value.charAt(start) == '0')) return false;
+        if (i == length) return !(start == 1 && integerDigits == 1 && value.charAt(1) == '0');
+        if (value.charAt(i) != '.') return false;
+        i++;
+        val decimalStart = i;
+        while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') i++;
+        return i == length && i > decimalStart && integerDigits + (i - decimalStart) <= MAX_DECIMAL_DIGITS;
+    }
+}
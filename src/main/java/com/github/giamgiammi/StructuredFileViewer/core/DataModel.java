@@ -4,6 +4,8 @@ import lombok.NonNull;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Represents a generic interface for a data model capable of loading and parsing
@@ -41,6 +43,108 @@ public interface DataModel<SETTINGS, DATA> {
     @NonNull
     DATA parse(@NonNull InputStream stream) throws IOException;
 
+    /**
+     * Parses data from the provided input stream like {@link #parse(InputStream)}, notifying the given listener
+     * every time a batch of records becomes available.
+     * Implementations that cannot provide partial results are allowed to ignore the listener.
+     *
+     * @param stream the input stream containing the data to be parsed; must not be null
+     * @param listener the listener to notify about partial results; might be null
+     * @return the parsed data structure of type {@code DATA}; never null
+     * @throws IOException if an I/O error occurs while reading from the input stream
+     * @throws NullPointerException if the input stream is null
+     */
+    @NonNull
+    default DATA parse(@NonNull InputStream stream, ParseListener listener) throws IOException {
+        return parse(stream);
+    }
+
+    /**
+     * Returns true if this data model, with its current settings, prefers to access the file directly
+     * through {@link #parse(Path, ParseListener)} instead of reading it as a stream.
+     *
+     * @return true if {@link #parse(Path, ParseListener)} should be used to parse files
+     */
+    default boolean canParseFile() {
+        return false;
+    }
+
+    /**
+     * Parses data from the provided file and returns a data structure of type {@code DATA}.
+     * Implementations are allowed to throw {@link UnsupportedOperationException} if they do not
+     * support parsing files directly. However, implementation should honor {@link #canParseFile()}
+     *
+     * @param file the file to parse
+     * @param listener the listener to notify about partial results; might be null
+     * @return the parsed data structure of type {@code DATA}; never null
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws UnsupportedOperationException If the data model does not support parsing files directly
+     */
+    @NonNull
+    default DATA parse(@NonNull Path file, ParseListener listener) throws IOException, UnsupportedOperationException {
+        return parse(file, Files.size(file), listener);
+    }
+
+    /**
+     * Parses data from the start of the provided file like {@link #parse(Path, ParseListener)}, ignoring
+     * the bytes after the given size (e.g. appended while parsing).
+     *
+     * @param file the file to parse
+     * @param size the number of bytes to parse, at most the size of the file
+     * @param listener the listener to notify about partial results; might be null
+     * @return the parsed data structure of type {@code DATA}; never null
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws UnsupportedOperationException If the data model does not support parsing files directly
+     */
+    @NonNull
+    default DATA parse(@NonNull Path file, long size, ParseListener listener) throws IOException, UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the length of the whole records at the start of a file, so that records appended later can be parsed
+     * with {@link #parseAppended(byte[], int, TableLikeData)} from there: the bytes after the last whole record
+     * belong to a record still being written.
+     * Models that cannot parse appended records return the given size.
+     *
+     * @param file the file
+     * @param size the number of bytes of the file to consider
+     * @return the length of the whole records, at most {@code size}
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    default long wholeRecordsLength(@NonNull Path file, long size) throws IOException {
+        return size;
+    }
+
+    /**
+     * Returns true if this data model can parse records appended to a file after it was parsed,
+     * adding them to the given data through {@link #parseAppended(byte[], int, TableLikeData)}.
+     *
+     * @param data the data returned by a previous parse of this model
+     * @return true if appended records can be parsed into the data
+     */
+    default boolean canParseAppended(@NonNull TableLikeData data) {
+        return false;
+    }
+
+    /**
+     * Parses the whole records at the start of some bytes appended to a parsed file, adding them to the data
+     * returned by a previous parse. The bytes after the last whole record are ignored, since the record is
+     * still being written: they should be parsed again once more bytes are appended.
+     * Implementations are allowed to throw {@link UnsupportedOperationException} if they cannot parse appended records.
+     * However, implementations should honor {@link #canParseAppended(TableLikeData)}
+     *
+     * @param bytes the appended bytes, starting at the beginning of a record
+     * @param length the number of valid bytes
+     * @param data the data to add the records to
+     * @return the number of bytes of the parsed records; 0 if there is no whole record yet
+     * @throws IOException if an I/O error occurs while parsing
+     * @throws UnsupportedOperationException If the data model cannot parse appended records into the data
+     */
+    default int parseAppended(byte @NonNull [] bytes, int length, @NonNull TableLikeData data) throws IOException, UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Parses data from the provided text and returns a data structure of type {@code DATA}.
      * Implementations are allowed to throw {@link UnsupportedOperationException} if they do not
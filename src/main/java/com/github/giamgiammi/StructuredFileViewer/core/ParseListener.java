@@ -0,0 +1,47 @@
+package com.github.giamgiammi.StructuredFileViewer.core;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Listener notified by a {@link DataModel} while it is still parsing, so that partial results
+ * can be shown before the whole input has been read.
+ *
+ * The listener can also stop the parsing when its result is not needed anymore: models check {@link #isCancelled()}
+ * regularly, even between two notifications, and throw a {@link CancellationException}. The records parsed so far
+ * are then released.
+ */
+@FunctionalInterface
+public interface ParseListener {
+    /**
+     * Called when new records have been appended to the data being parsed.
+     * The records in the range {@code [from, to)} of {@code data.getRecords()} are complete and won't change anymore.
+     * This method is called from the parsing thread.
+     *
+     * @param data the data being built; the same instance is returned by the parse method once completed
+     * @param from the index of the first new record (inclusive)
+     * @param to the index of the last new record (exclusive)
+     */
+    void onRecords(@NonNull TableLikeData data, int from, int to);
+
+    /**
+     * Tells if the parsing should stop as soon as possible.
+     * This method is called from the parsing threads, possibly many times per second.
+     *
+     * @return true if the parsing should stop; false by default
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Stops the parsing if the listener is cancelled
+     *
+     * @param listener the listener of the parsing; might be null
+     * @throws CancellationException if the listener is cancelled
+     */
+    static void checkCancelled(ParseListener listener) {
+        if (listener != null && listener.isCancelled()) throw new CancellationException("Parsing cancelled");
+    }
+}
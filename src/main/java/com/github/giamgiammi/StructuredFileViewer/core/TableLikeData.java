@@ -1,15 +1,25 @@
 package com.github.giamgiammi.StructuredFileViewer.core;
 
 import lombok.NonNull;
+import lombok.val;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * Represents a table-like data structure with rows and columns.
  * This interface provides methods to access the column names and the data records stored
  * in this structure. Each record contains values corresponding to all the columns.
+ *
+ * Implementations holding resources outside the heap (e.g. mapped files) release them on {@link #close()};
+ * the data must not be accessed after being closed.
  */
-public interface TableLikeData {
+public interface TableLikeData extends AutoCloseable {
+    /**
+     * Number of records looked at by the default implementation of {@link #columnType(int)}
+     */
+    int TYPE_SAMPLE_SIZE = 1000;
+
     /**
      * Retrieves the names of all columns in the table-like data structure.
      * This method provides a list of column names in the order they are stored.
@@ -28,6 +38,83 @@ public interface TableLikeData {
     @NonNull
     List<Record> getRecords();
 
+    /**
+     * Returns true if the records returned by {@link #getRecords()} are created when accessed,
+     * so that copying them would load the whole data in memory.
+     * The default implementation returns false.
+     *
+     * @return true if the records should not be copied
+     */
+    default boolean hasLazyRecords() {
+        return false;
+    }
+
+    /**
+     * Returns true if the values are read from a file when accessed (e.g. a mapped file or a snapshot),
+     * so that storing them again in a snapshot would not spare any parsing.
+     * The default implementation returns false.
+     *
+     * @return true if the data should not be stored in a snapshot
+     */
+    default boolean isFileBacked() {
+        return false;
+    }
+
+    /**
+     * Returns the rows whose value of a column is equal to the given one, if the data can find them
+     * without testing every record, e.g. through an index. Implementations may build the index on the first call.
+     * The default implementation returns null.
+     *
+     * @param column the index of the column
+     * @param value the value to look for; null to look for missing values
+     * @param size the number of records to consider, starting from the first
+     * @return a new bit set with the matching rows among the first {@code size}, or null if not supported
+     */
+    default BitSet rowsEqual(int column, String value, int size) {
+        return null;
+    }
+
+    /**
+     * Returns the rows whose value of a column might contain the given text, if the data can narrow them
+     * without testing every record, e.g. through an index. The rows still need to be tested,
+     * but the ones not returned are known not to match. The default implementation returns null.
+     *
+     * @param column the index of the column
+     * @param text the text to look for; already in lower case if {@code ignoreCase} is true
+     * @param ignoreCase true if values are compared in lower case
+     * @param size the number of records to consider, starting from the first
+     * @return a new bit set with a superset of the matching rows among the first {@code size}, or null if not supported
+     */
+    default BitSet rowsContaining(int column, @NonNull String text, boolean ignoreCase, int size) {
+        return null;
+    }
+
+    /**
+     * Returns the type of the values of a column, used to compare them (e.g. numerically instead of as strings).
+     * The default implementation infers it from the values of the first {@value #TYPE_SAMPLE_SIZE} records.
+     *
+     * @param column the index of the column
+     * @return the narrowest type matching the values of the column; {@link ColumnType#STRING} if unknown
+     */
+    default ColumnType columnType(int column) {
+        val records = getRecords();
+        val count = Math.min(records.size(), TYPE_SAMPLE_SIZE);
+        ColumnType type = null;
+        for (int i = 0; i < count && type != ColumnType.STRING; i++) {
+            val value = records.get(i).get(column);
+            if (value != null) type = ColumnType.of(value.toString()).widen(type);
+        }
+        return type == null ? ColumnType.STRING : type;
+    }
+
+    /**
+     * Releases the resources held by this data, if any.
+     * The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
+
     /**
      * Represents a single record in a table-like data structure.
      * A record contains values for all columns in the structure and
@@ -0,0 +1,332 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Parses a CSV-like file encoded in UTF-8 or ASCII straight from its bytes, without decoding it to chars first.
+ *
+ * The file is mapped in memory and searched for delimiters, quotes and new lines eight bytes at a time:
+ * each {@code long} read from the file is compared with the searched bytes at once with a few bitwise operations
+ * (SIMD within a register), so the bytes of the values are skipped without looking at them one by one.
+ * Only the bytes of each value are then decoded to a string, copied straight from the mapped file.
+ *
+ * The tokenizer follows the rules of the Apache Commons CSV lexer, so the result is the same as parsing the file
+ * with the library; the header is still read by the library, that also checks the names.
+ * Escape characters, comment markers, multi-byte delimiters, surrounding spaces, trimming, null strings,
+ * trailing delimiters and charsets other than UTF-8 and US-ASCII are not supported; see {@link #isSupported(CSVFormat, Charset)}.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe, they parse a file at a time.
+ */
+@Slf4j
+final class ByteCsvTokenizer {
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long CR_WORD = '\r' * ONES;
+    private static final long LF_WORD = '\n' * ONES;
+
+    private final CSVFormat format;
+    private final Charset charset;
+    private final byte delimiter;
+    private final long delimiterWord;
+    private final boolean hasQuote;
+    private final byte quote;
+    private final long quoteWord;
+    private final boolean ignoreEmptyLines;
+    private final boolean lenientEof;
+    private final boolean trailingData;
+    /**
+     * Whether unquoted empty values are null, as the library does with these quote modes
+     */
+    private final boolean strictQuoteMode;
+    private byte[] buffer = new byte[256];
+
+    ByteCsvTokenizer(@NonNull CSVFormat format, @NonNull Charset charset) {
+        if (!isSupported(format, charset)) throw new IllegalArgumentException("Unsupported format " + format + " with charset " + charset);
+        this.format = format;
+        this.charset = charset;
+        this.delimiter = format.getDelimiterString().getBytes(charset)[0];
+        this.delimiterWord = (delimiter & 0xFF) * ONES;
+        this.hasQuote = format.getQuoteCharacter() != null;
+        this.quote = hasQuote ? (byte) format.getQuoteCharacter().charValue() : 0;
+        this.quoteWord = (quote & 0xFF) * ONES;
+        this.ignoreEmptyLines = format.getIgnoreEmptyLines();
+        this.lenientEof = format.getLenientEof();
+        this.trailingData = format.getTrailingData();
+        this.strictQuoteMode = format.getQuoteMode() == QuoteMode.ALL_NON_NULL || format.getQuoteMode() == QuoteMode.NON_NUMERIC;
+    }
+
+    /**
+     * Checks if a file with the given format and charset can be parsed by this tokenizer
+     *
+     * @param format the format of the file
+     * @param charset the charset of the file
+     * @return true if the file can be parsed
+     */
+    static boolean isSupported(@NonNull CSVFormat format, @NonNull Charset charset) {
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)) return false;
+        if (format.getEscapeCharacter() != null || format.getCommentMarker() != null) return false;
+        if (format.getIgnoreSurroundingSpaces() || format.getTrim() || format.getTrailingDelimiter() || format.getNullString() != null) return false;
+        val quote = format.getQuoteCharacter();
+        if (quote != null && quote > 127) return false;
+        val delimiter = format.getDelimiterString().getBytes(charset);
+        return delimiter.length == 1 && delimiter[0] != '\n' && delimiter[0] != '\r'
+                && (quote == null || delimiter[0] != quote);
+    }
+
+    /**
+     * Parses the start of a file
+     *
+     * @param file the file to parse
+     * @param size the number of bytes to parse, at most the size of the file
+     * @param listener the listener to notify every {@value CsvDataModel#BATCH_SIZE} records; might be null
+     * @return the parsed data
+     * @throws IOException if an I/O error occurs while reading the file or the file is not a valid CSV
+     * @throws CancellationException if the listener cancelled the parsing
+     */
+    TableLikeData parse(@NonNull Path file, long size, ParseListener listener) throws IOException {
+        try (val arena = Arena.ofConfined(); val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return parse(segment, listener);
+        }
+    }
+
+    private TableLikeData parse(MemorySegment segment, ParseListener listener) throws IOException {
+        log.info("Tokenizing {} bytes", segment.byteSize());
+        val values = new ArrayList<String>();
+
+        // let the CSV parser decide the header, as it would do for the whole file
+        var position = format.getHeader() == null ? 0 : record(segment, 0, values);
+        if (position < 0) position = segment.byteSize();
+        final ColumnarTableData data;
+        try (val reader = new InputStreamReader(new SegmentInputStream(segment.asSlice(0, position)), charset);
+             val parser = format.parse(reader)) {
+            data = new ColumnarTableData(Objects.requireNonNullElse(parser.getHeaderNames(), List.of()));
+            for (val record : parser) data.append(record.values());
+        }
+
+        int notified = 0;
+        try {
+            while ((position = record(segment, position, values)) >= 0) {
+                ParseListener.checkCancelled(listener);
+                data.append(values.toArray(String[]::new));
+                if (listener != null && data.size() - notified >= CsvDataModel.BATCH_SIZE) {
+                    listener.onRecords(data, notified, data.size());
+                    notified = data.size();
+                }
+            }
+        } catch (CancellationException e) {
+            data.close();
+            throw e;
+        }
+        if (listener != null && data.size() > notified) listener.onRecords(data, notified, data.size());
+        return data;
+    }
+
+    /**
+     * Reads the values of the record starting at the given position
+     *
+     * @param segment the whole file
+     * @param position the position following the previous record
+     * @param values the list receiving the values, cleared first
+     * @return the position following the record, -1 if there are no more records
+     * @throws IOException if the record is not valid
+     */
+    private long record(MemorySegment segment, long position, List<String> values) throws IOException {
+        val size = segment.byteSize();
+        values.clear();
+        if (ignoreEmptyLines) {
+            while (position < size && isNewLine(segment.get(ValueLayout.JAVA_BYTE, position))) position++;
+        }
+        if (position >= size) return -1;
+
+        while (true) {
+            if (position < size && hasQuote && segment.get(ValueLayout.JAVA_BYTE, position) == quote) {
+                position = quoted(segment, position, values);
+            } else {
+                val end = findSeparator(segment, position);
+                values.add(end == position && strictQuoteMode ? null : decode(segment, position, end));
+                position = end;
+            }
+            if (position == size) return size;
+
+            val separator = segment.get(ValueLayout.JAVA_BYTE, position++);
+            if (separator == delimiter) continue;
+            // a \r\n is a single new line
+            if (separator == '\r' && position < size && segment.get(ValueLayout.JAVA_BYTE, position) == '\n') position++;
+            return position;
+        }
+    }
+
+    /**
+     * Reads a quoted value, followed by whitespace or trailing data until the next separator
+     *
+     * @param open the position of the opening quote
+     * @return the position of the separator following the value, or the size of the segment
+     */
+    private long quoted(MemorySegment segment, long open, List<String> values) throws IOException {
+        val size = segment.byteSize();
+        var close = open + 1;
+        var doubled = false;
+        while (true) {
+            close = findQuote(segment, close);
+            if (close == size) {
+                if (!lenientEof) throw new IOException("EOF reached before the value quoted at byte %d finished".formatted(open));
+                values.add(unquote(segment, open + 1, size, doubled, size));
+                return size;
+            }
+            if (close + 1 >= size || segment.get(ValueLayout.JAVA_BYTE, close + 1) != quote) break;
+            doubled = true;
+            close += 2;
+        }
+
+        var position = close + 1;
+        if (trailingData) {
+            position = findSeparator(segment, position);
+        } else {
+            while (position < size) {
+                val b = segment.get(ValueLayout.JAVA_BYTE, position);
+                if (b == delimiter || isNewLine(b)) break;
+                val length = whitespaceLength(segment, position);
+                if (length == 0) throw new IOException("Invalid character between the value quoted at byte %d and the delimiter".formatted(open));
+                position += length;
+            }
+        }
+        values.add(unquote(segment, open + 1, close, doubled, trailingData ? position : close + 1));
+        return position;
+    }
+
+    /**
+     * Decodes a quoted value, with the trailing data following its closing quote
+     *
+     * @param from the start of the value, after the opening quote
+     * @param close the position of the closing quote
+     * @param doubled whether the value contains doubled quotes
+     * @param end the end of the trailing data
+     */
+    private String unquote(MemorySegment segment, long from, long close, boolean doubled, long end) {
+        if (!doubled && end <= close + 1) return decode(segment, from, close);
+        val bytes = buffer(Math.toIntExact(end - from));
+        var length = 0;
+        for (long i = from; i < close; i++) {
+            val b = segment.get(ValueLayout.JAVA_BYTE, i);
+            bytes[length++] = b;
+            // only the first quote of a pair is kept
+            if (b == quote) i++;
+        }
+        for (long i = close + 1; i < end; i++) bytes[length++] = segment.get(ValueLayout.JAVA_BYTE, i);
+        return new String(bytes, 0, length, charset);
+    }
+
+    private String decode(MemorySegment segment, long from, long to) {
+        val length = Math.toIntExact(to - from);
+        val bytes = buffer(length);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, from, bytes, 0, length);
+        return new String(bytes, 0, length, charset);
+    }
+
+    private byte[] buffer(int length) {
+        if (buffer.length < length) buffer = new byte[Math.max(length, buffer.length * 2)];
+        return buffer;
+    }
+
+    /**
+     * Finds the first delimiter or new line
+     *
+     * @return the position of the separator, or the size of the segment if there is none
+     */
+    private long findSeparator(MemorySegment segment, long from) {
+        val size = segment.byteSize();
+        var i = from;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            val word = segment.get(WORD, i);
+            val found = matches(word, delimiterWord) | matches(word, LF_WORD) | matches(word, CR_WORD);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < size; i++) {
+            val b = segment.get(ValueLayout.JAVA_BYTE, i);
+            if (b == delimiter || isNewLine(b)) return i;
+        }
+        return size;
+    }
+
+    /**
+     * Finds the first quote
+     *
+     * @return the position of the quote, or the size of the segment if there is none
+     */
+    private long findQuote(MemorySegment segment, long from) {
+        val size = segment.byteSize();
+        var i = from;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            val found = matches(segment.get(WORD, i), quoteWord);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < size; i++) {
+            if (segment.get(ValueLayout.JAVA_BYTE, i) == quote) return i;
+        }
+        return size;
+    }
+
+    /**
+     * Sets the high bit of the bytes of a word equal to a byte, repeated in each byte of the pattern.
+     * A byte following a match might be marked too, so only the lowest mark is reliable
+     * (the lowest byte comes first, since the words are read as little-endian).
+     */
+    static long matches(long word, long pattern) {
+        val x = word ^ pattern;
+        return (x - ONES) & ~x & HIGH_BITS;
+    }
+
+    private static boolean isNewLine(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    /**
+     * Returns the length of the character starting at the given position if it's a whitespace
+     * for {@link Character#isWhitespace(char)}, otherwise 0
+     */
+    private int whitespaceLength(MemorySegment segment, long position) {
+        val size = segment.byteSize();
+        val b = segment.get(ValueLayout.JAVA_BYTE, position);
+        if (b >= 0) return Character.isWhitespace((char) b) ? 1 : 0;
+        if (!charset.equals(StandardCharsets.UTF_8)) return 0;
+
+        // only 2 and 3 bytes sequences can decode to a whitespace char
+        if ((b & 0xE0) == 0xC0 && position + 1 < size) {
+            val c = (b & 0x1F) << 6 | segment.get(ValueLayout.JAVA_BYTE, position + 1) & 0x3F;
+            return Character.isWhitespace((char) c) ? 2 : 0;
+        }
+        if ((b & 0xF0) == 0xE0 && position + 2 < size) {
+            val c = (b & 0x0F) << 12
+                    | (segment.get(ValueLayout.JAVA_BYTE, position + 1) & 0x3F) << 6
+                    | segment.get(ValueLayout.JAVA_BYTE, position + 2) & 0x3F;
+            return Character.isWhitespace((char) c) ? 3 : 0;
+        }
+        return 0;
+    }
+}
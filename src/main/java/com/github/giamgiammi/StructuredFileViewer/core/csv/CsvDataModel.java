@@ -2,19 +2,20 @@ package com.github.giamgiammi.StructuredFileViewer.core.csv;
 
 import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
 import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
-import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
 import com.github.giamgiammi.StructuredFileViewer.model.csv.CsvSettings;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.csv.CSVFormat;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.concurrent.CancellationException;
 
 /**
  * A concrete implementation of the {@link DataModel} interface designed
@@ -30,13 +31,43 @@ import java.util.stream.Stream;
  * This class encapsulates:
  * - CSV format and processing rules defined by {@link CsvSettings} and {@link CSVFormat}.
  * - An implementation to map parsed data into table-like structures.
+ *
+ * Records are appended to a {@link ColumnarTableData} while they are parsed, so that a {@link ParseListener}
+ * can be notified every {@value #BATCH_SIZE} records.
+ *
+ * With {@link CsvEngine#MAPPED} files are instead mapped in memory and parsed lazily, see {@link MappedCsvTableData},
+ * while with {@link CsvEngine#PARALLEL} they are parsed using all the available processors, see {@link ParallelCsvParser},
+ * and with {@link CsvEngine#NATIVE} they are tokenized straight from their bytes, see {@link ByteCsvTokenizer}.
  */
-@RequiredArgsConstructor
+@Slf4j
 public class CsvDataModel implements DataModel<CsvSettings, TableLikeData> {
+    /**
+     * Number of records parsed between two notifications of the {@link ParseListener}
+     */
+    static final int BATCH_SIZE = 1024;
+
     @NonNull
     private final CsvSettings settings;
     @NonNull
     private final CSVFormat format;
+    /**
+     * Whether files are parsed directly by the engine of the settings, decided once since it depends only on them
+     */
+    private final boolean parseFile;
+
+    public CsvDataModel(@NonNull CsvSettings settings, @NonNull CSVFormat format) {
+        this.settings = settings;
+        this.format = format;
+        val engine = settings.engine() == null ? CsvEngine.STANDARD : settings.engine();
+        parseFile = switch (engine) {
+            case STANDARD -> false;
+            case MAPPED -> CsvRecordScanner.isSupported(format, settings.charset());
+            case PARALLEL -> ParallelCsvParser.isSupported(format, settings.charset());
+            case NATIVE -> ByteCsvTokenizer.isSupported(format, settings.charset());
+        };
+        if (!parseFile && engine != CsvEngine.STANDARD)
+            log.warn("{} engine not supported with charset {} and format {}, using the standard one", engine, settings.charset(), format);
+    }
 
     @Override
     public @NonNull Class<? extends DataModelFactory<CsvSettings, TableLikeData>> getFactoryClass() {
@@ -50,15 +81,82 @@ public class CsvDataModel implements DataModel<CsvSettings, TableLikeData> {
 
     @Override
     public @NonNull TableLikeData parse(@NonNull InputStream stream) throws IOException {
+        return parse(stream, null);
+    }
+
+    @Override
+    public @NonNull TableLikeData parse(@NonNull InputStream stream, ParseListener listener) throws IOException {
         try (val reader = new InputStreamReader(stream, settings.charset())) {
-            return parse(reader);
+            return parse(reader, listener);
+        }
+    }
+
+    @Override
+    public boolean canParseFile() {
+        return parseFile;
+    }
+
+    @Override
+    public @NonNull TableLikeData parse(@NonNull Path file, long size, ParseListener listener) throws IOException {
+        if (!canParseFile()) throw new UnsupportedOperationException("Cannot parse file directly with settings " + settings);
+        return switch (settings.engine()) {
+            // records are available only once the whole file has been indexed, so there is nothing to publish earlier
+            case MAPPED -> MappedCsvTableData.open(file, size, format, settings.charset(), () -> listener != null && listener.isCancelled());
+            case PARALLEL -> new ParallelCsvParser(format, settings.charset()).parse(file, size, listener);
+            case NATIVE -> new ByteCsvTokenizer(format, settings.charset()).parse(file, size, listener);
+            case STANDARD -> throw new IllegalStateException();
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Records are assumed to end with a new line, like in {@link #parseAppended(byte[], int, TableLikeData)}.
+     */
+    @Override
+    public long wholeRecordsLength(@NonNull Path file, long size) throws IOException {
+        // the records of a mapped file cannot be appended to
+        if (!TextUtils.isAsciiCompatible(settings.charset()) || (canParseFile() && settings.engine() == CsvEngine.MAPPED)) return size;
+        return TextUtils.wholeLinesLength(file, size);
+    }
+
+    @Override
+    public boolean canParseAppended(@NonNull TableLikeData data) {
+        return data instanceof ColumnarTableData && TextUtils.isAsciiCompatible(settings.charset());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Records are assumed to end with a new line. The appended records have no header, and a record
+     * not yet terminated (e.g. a quoted value with new lines still being written) makes the whole chunk
+     * wait for more bytes: nothing is added to the data until every record of the chunk is parsed.
+     */
+    @Override
+    public int parseAppended(byte @NonNull [] bytes, int length, @NonNull TableLikeData data) throws IOException {
+        if (!canParseAppended(data)) throw new UnsupportedOperationException("Cannot parse appended records with settings " + settings);
+        val end = TextUtils.wholeLinesLength(bytes, length);
+        if (end == 0) return 0;
+        val recordFormat = format.builder()
+                .setHeader((String[]) null)
+                .setSkipHeaderRecord(false)
+                .get();
+        val records = new ArrayList<String[]>();
+        try (val parser = recordFormat.parse(new InputStreamReader(new ByteArrayInputStream(bytes, 0, end), settings.charset()))) {
+            for (val record : parser) records.add(record.values());
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("Appended records not complete yet", e);
+            return 0;
         }
+        val columnar = (ColumnarTableData) data;
+        for (val record : records) columnar.append(record);
+        return end;
     }
 
     @Override
     public @NonNull TableLikeData parse(@NonNull String text) throws IOException, UnsupportedOperationException {
         try (val reader = new StringReader(text)) {
-            return parse(reader);
+            return parse(reader, null);
         }
     }
 
@@ -66,31 +164,32 @@ public class CsvDataModel implements DataModel<CsvSettings, TableLikeData> {
     /**
      * Parse data from the provided reader
      * @param reader the reader to read from
+     * @param listener the listener to notify every {@value #BATCH_SIZE} records; might be null
      * @return the parsed data
      * @throws IOException if an I/O error occurs while reading
+     * @throws CancellationException if the listener cancelled the parsing
      */
-    private TableLikeData parse(Reader reader) throws IOException {
+    private TableLikeData parse(Reader reader, ParseListener listener) throws IOException {
         val parser = format.parse(reader);
+        val data = new ColumnarTableData(parser.getHeaderNames());
 
-        val items = new ArrayList<String[]>();
-
-        for (val record : parser) {
-            val item = new ArrayList<String>();
-            for (val value : record) {
-                item.add(value);
+        int notified = 0;
+        try {
+            for (val record : parser) {
+                ParseListener.checkCancelled(listener);
+                data.append(record.values());
+                if (listener != null && data.size() - notified >= BATCH_SIZE) {
+                    listener.onRecords(data, notified, data.size());
+                    notified = data.size();
+                }
             }
-            items.add(item.toArray(String[]::new));
+        } catch (CancellationException e) {
+            data.close();
+            throw e;
         }
+        if (listener != null && data.size() > notified) listener.onRecords(data, notified, data.size());
 
-        val numCols = items.stream().mapToInt(a -> a.length).max().orElse(0);
-        var columns = parser.getHeaderNames();
-        if (columns == null) columns = List.of();
-        if (columns.size() < numCols) columns = Stream.concat(
-                columns.stream(),
-                IntStream.range(0, numCols - columns.size()).mapToObj(i -> "")
-        ).toList();
-
-        return new SimpleTableData(columns, items);
+        return data;
     }
 
     @Override
@@ -0,0 +1,31 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+/**
+ * Enumeration of the engines available for parsing CSV-like files.
+ * A {@code null} engine in the settings is equivalent to {@link #STANDARD}.
+ */
+public enum CsvEngine {
+    /**
+     * Parses the whole file with the Apache Commons CSV library, keeping all the values in memory
+     */
+    STANDARD,
+    /**
+     * Maps the file in memory and only keeps the position of each record.
+     * Values are parsed when they are accessed, so the memory used does not depend on the size of the file.
+     * It requires an ASCII-compatible charset and records separated by a new line; otherwise {@link #STANDARD} is used.
+     */
+    MAPPED,
+    /**
+     * Parses the file using all the available processors, producing the same result as {@link #STANDARD}.
+     * It requires an ASCII-compatible charset, a single-byte delimiter and no escape character or comment marker;
+     * otherwise {@link #STANDARD} is used.
+     */
+    PARALLEL,
+    /**
+     * Parses the file straight from its bytes, decoding only the values, producing the same result as {@link #STANDARD}.
+     * It requires a UTF-8 or US-ASCII charset, a single-byte delimiter and none of the options that change the values
+     * (escape character, comment marker, surrounding spaces, trim, null string, trailing delimiter);
+     * otherwise {@link #STANDARD} is used.
+     */
+    NATIVE
+}
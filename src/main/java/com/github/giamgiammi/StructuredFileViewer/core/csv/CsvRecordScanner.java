@@ -0,0 +1,200 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the boundaries of the records of a CSV-like file by looking at its raw bytes, without decoding them.
+ * A record ends at a line break ({@code \n}, {@code \r} or {@code \r\n}) found outside a quoted value.
+ * Like the Apache Commons CSV lexer, a quote only opens a quoted value at the start of a field
+ * (after the spaces skipped by {@link CSVFormat#getIgnoreSurroundingSpaces()}); anywhere else it is part of the value.
+ *
+ * The scanner also counts the delimiters of each record, to know the number of columns of the file
+ * without parsing it.
+ *
+ * This only works with ASCII-compatible charsets, where the bytes of delimiters, quotes and new lines
+ * can't be part of other characters; see {@link #isSupported(CSVFormat, Charset)}.
+ */
+final class CsvRecordScanner {
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * Value used for missing quote and escape characters, it never matches a byte
+     */
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int AFTER_QUOTED = 4;
+
+    private final int quote;
+    private final int escape;
+    private final byte[] delimiter;
+    private final boolean ignoreEmptyLines;
+    private final boolean ignoreSurroundingSpaces;
+
+    CsvRecordScanner(@NonNull CSVFormat format, @NonNull Charset charset) {
+        this.quote = format.getQuoteCharacter() == null ? NONE : format.getQuoteCharacter();
+        this.escape = format.getEscapeCharacter() == null ? NONE : format.getEscapeCharacter();
+        this.delimiter = format.getDelimiterString().getBytes(charset);
+        this.ignoreEmptyLines = format.getIgnoreEmptyLines();
+        this.ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+    }
+
+    /**
+     * Checks if the records of a file with the given format and charset can be found by this scanner
+     *
+     * @param format the format of the file
+     * @param charset the charset of the file
+     * @return true if the file can be scanned
+     */
+    static boolean isSupported(@NonNull CSVFormat format, @NonNull Charset charset) {
+        if (!TextUtils.isAsciiCompatible(charset)) return false;
+        val quote = format.getQuoteCharacter() == null ? NONE : format.getQuoteCharacter();
+        val escape = format.getEscapeCharacter() == null ? NONE : format.getEscapeCharacter();
+        if (quote > 127 || escape > 127) return false;
+        for (val b : format.getDelimiterString().getBytes(charset)) {
+            if (b == '\n' || b == '\r' || b == quote || b == escape) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Scans a whole segment and returns the position of its records
+     *
+     * @param segment the segment to scan
+     * @param cancelled tells if the scan should stop, checked every {@value #BUFFER_SIZE} bytes
+     * @return the records found
+     * @throws CancellationException if the scan was cancelled
+     */
+    Result scan(@NonNull MemorySegment segment, @NonNull BooleanSupplier cancelled) {
+        val size = segment.byteSize();
+        val buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(size, 1))];
+        val result = new Result();
+
+        int state = FIELD_START;
+        boolean escaped = false;
+        boolean empty = true;
+        // the record just ended with a \r, a following \n belongs to the same line break
+        boolean afterCr = false;
+        long recordStart = 0;
+        int fields = 1;
+        int matched = 0;
+
+        for (long base = 0; base < size; base += buffer.length) {
+            if (cancelled.getAsBoolean()) throw new CancellationException("Scan cancelled");
+            val length = (int) Math.min(buffer.length, size - base);
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, base, buffer, 0, length);
+            for (int i = 0; i < length; i++) {
+                val b = buffer[i];
+                val crLf = afterCr && b == '\n';
+                afterCr = false;
+                if (state == QUOTED) {
+                    if (escaped) escaped = false;
+                    else if (b == escape) escaped = true;
+                    else if (b == quote) state = QUOTE_IN_QUOTED;
+                    continue;
+                }
+                if (state == QUOTE_IN_QUOTED) {
+                    // either a doubled quote or the end of the quoted value
+                    if (b == quote) {
+                        state = QUOTED;
+                        continue;
+                    }
+                    state = AFTER_QUOTED;
+                }
+                if (escaped) {
+                    escaped = false;
+                    if (state == FIELD_START) state = UNQUOTED;
+                    continue;
+                }
+                if (b == '\n' || b == '\r') {
+                    if (crLf) {
+                        recordStart = base + i + 1;
+                        continue;
+                    }
+                    if (!empty || !ignoreEmptyLines) result.add(recordStart, fields);
+                    recordStart = base + i + 1;
+                    fields = 1;
+                    matched = 0;
+                    empty = true;
+                    state = FIELD_START;
+                    afterCr = b == '\r';
+                    continue;
+                }
+                empty = false;
+                if (b == delimiter[matched]) {
+                    if (++matched == delimiter.length) {
+                        fields++;
+                        matched = 0;
+                        state = FIELD_START;
+                    }
+                    continue;
+                }
+                // the bytes partially matching the delimiter were part of the value
+                if (matched > 0 && state == FIELD_START) state = UNQUOTED;
+                matched = b == delimiter[0] ? 1 : 0;
+                if (b == escape) {
+                    escaped = true;
+                } else if (state == FIELD_START && matched == 0) {
+                    if (b == quote) state = QUOTED;
+                    else if (!ignoreSurroundingSpaces || (b != ' ' && b != '\t')) state = UNQUOTED;
+                }
+            }
+        }
+        if (recordStart < size && (!empty || !ignoreEmptyLines)) result.add(recordStart, fields);
+        result.end(size);
+        return result;
+    }
+
+    /**
+     * The records found by the scanner
+     */
+    static final class Result {
+        private long[] starts = new long[1024];
+        private int count;
+        private int maxFields;
+
+        private void add(long start, int fields) {
+            if (count + 1 >= starts.length) starts = Arrays.copyOf(starts, starts.length + (starts.length >> 1));
+            starts[count++] = start;
+            if (fields > maxFields) maxFields = fields;
+        }
+
+        private void end(long size) {
+            starts[count] = size;
+        }
+
+        /**
+         * Returns the start of each record, followed by the end of the last record.
+         * Only the first {@link #count()} + 1 elements are meaningful
+         */
+        long[] starts() {
+            return starts;
+        }
+
+        /**
+         * Returns the number of records found
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * Returns the maximum number of fields found in a record
+         */
+        int maxFields() {
+            return maxFields;
+        }
+    }
+}
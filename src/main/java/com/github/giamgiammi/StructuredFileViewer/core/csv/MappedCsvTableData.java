@@ -0,0 +1,212 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A {@link TableLikeData} backed by a CSV-like file mapped in memory.
+ *
+ * When opened, the file is scanned once with a {@link CsvRecordScanner} to find where each record starts,
+ * and the positions are kept in a {@code long[]} index. The values of a record are parsed from the mapped
+ * file only when they are accessed, so the heap used is about 8 bytes per record regardless of the size
+ * of the file. Records are created when accessed too: {@link #getRecords()} returns a view over the index.
+ *
+ * The last record parsed by each thread is cached, since its values are usually requested one column at a time.
+ *
+ * Thread safety:
+ * - The class is thread-safe. The mapping is released by {@link #close()}, after which the data must not be accessed.
+ */
+@Slf4j
+public final class MappedCsvTableData implements TableLikeData {
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final Charset charset;
+    private final CSVFormat recordFormat;
+    private final long[] starts;
+    private final int first;
+    private final int size;
+    private final List<String> columnNames;
+    private final ThreadLocal<ParsedRecord> lastParsed = new ThreadLocal<>();
+
+    private MappedCsvTableData(Arena arena, MemorySegment segment, CSVFormat format, Charset charset, BooleanSupplier cancelled) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        this.charset = charset;
+        this.recordFormat = format.builder()
+                .setHeader((String[]) null)
+                .setSkipHeaderRecord(false)
+                .get();
+
+        val result = new CsvRecordScanner(format, charset).scan(segment, cancelled);
+        this.starts = result.starts();
+
+        // let the CSV parser decide the header, as it would do for the whole file
+        val firstText = result.count() > 0 ? text(0) : "";
+        List<String> header;
+        try (val parser = format.parse(new StringReader(firstText))) {
+            header = parser.getHeaderNames();
+        }
+        if (header == null) header = List.of();
+        val formatHeader = format.getHeader();
+        this.first = result.count() > 0 && formatHeader != null && (formatHeader.length == 0 || format.getSkipHeaderRecord()) ? 1 : 0;
+        this.size = result.count() - first;
+
+        if (header.size() < result.maxFields()) header = Stream.concat(
+                header.stream(),
+                IntStream.range(0, result.maxFields() - header.size()).mapToObj(i -> "")
+        ).toList();
+        this.columnNames = List.copyOf(header);
+    }
+
+    /**
+     * Maps the start of the given file in memory and indexes its records
+     *
+     * @param file the file to map
+     * @param size the number of bytes to map, at most the size of the file
+     * @param format the format of the file; it must be supported by {@link CsvRecordScanner}
+     * @param charset the charset of the file
+     * @param cancelled tells if the indexing should stop as soon as possible
+     * @return the data backed by the mapped file
+     * @throws IOException if an I/O error occurs while mapping the file or reading the header
+     * @throws CancellationException if the indexing was cancelled
+     */
+    static MappedCsvTableData open(@NonNull Path file, long size, @NonNull CSVFormat format, @NonNull Charset charset,
+                                   @NonNull BooleanSupplier cancelled) throws IOException {
+        val arena = Arena.ofShared();
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return new MappedCsvTableData(arena, segment, format, charset, cancelled);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public @NonNull List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public @NonNull List<Record> getRecords() {
+        return new RecordsView();
+    }
+
+    @Override
+    public boolean hasLazyRecords() {
+        return true;
+    }
+
+    @Override
+    public boolean isFileBacked() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        log.info("Releasing mapped file of {}", this);
+        arena.close();
+    }
+
+    /**
+     * Returns the raw text of a record, including the following separator
+     *
+     * @param index the index of the record in the file, including the header
+     */
+    private String text(int index) {
+        val start = starts[index];
+        val bytes = segment.asSlice(start, starts[index + 1] - start).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, charset);
+    }
+
+    private String[] values(int row) {
+        val cached = lastParsed.get();
+        if (cached != null && cached.row() == row) return cached.values();
+
+        final String[] values;
+        try (val parser = recordFormat.parse(new StringReader(text(first + row)))) {
+            val iterator = parser.iterator();
+            values = iterator.hasNext() ? iterator.next().values() : new String[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastParsed.set(new ParsedRecord(row, values));
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{columnNames=%s, size=%d}", getClass().getSimpleName(), columnNames, size);
+    }
+
+    private record ParsedRecord(int row, String[] values) {}
+
+    private final class RecordsView extends AbstractList<Record> implements RandomAccess {
+        @Override
+        public Record get(int index) {
+            Objects.checkIndex(index, size);
+            return new MappedRecord(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class MappedRecord implements Record {
+        private final int row;
+
+        private MappedRecord(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int column) {
+            val values = values(row);
+            if (column < 0 || column >= values.length) return null;
+            return values[column];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MappedRecord other && other.row == row && other.owner() == owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(row);
+        }
+
+        private MappedCsvTableData owner() {
+            return MappedCsvTableData.this;
+        }
+
+        @Override
+        public String toString() {
+            return "MappedRecord{row=%d}".formatted(row);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a CSV-like file using all the available processors.
+ *
+ * The file is mapped in memory and split in chunks ending with a new line. A chunk might start inside a quoted value,
+ * so each chunk is scanned in parallel twice: once assuming it starts at the beginning of a record and once assuming
+ * it starts inside a quoted value. The state at the end of each scan tells how the next chunk starts, so the real
+ * state of every chunk is then found in order without scanning the file again.
+ * Consecutive chunks are grouped so that each group starts at the beginning of a record, and the groups are parsed
+ * in parallel with the Apache Commons CSV library. Records are appended in file order as soon as their group is parsed;
+ * only a couple of groups per thread are parsed ahead of the one being appended, so that the parsed records
+ * waiting to be appended do not take more memory than the table itself.
+ *
+ * The scan follows the rules of the Apache Commons CSV lexer, so the result is the same as parsing the file
+ * sequentially. Escape characters, comment markers, multi-byte delimiters and charsets that are not ASCII-compatible
+ * are not supported; see {@link #isSupported(CSVFormat, Charset)}.
+ */
+@Slf4j
+final class ParallelCsvParser {
+    /**
+     * Minimum size of a chunk when it's computed from the size of the file
+     */
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * Number of bytes scanned between two checks of the cancellation, a power of 2
+     */
+    private static final long CHECK_INTERVAL = 1 << 16;
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int AFTER_QUOTED = 4;
+
+    private final CSVFormat format;
+    private final CSVFormat recordFormat;
+    private final Charset charset;
+    private final long chunkSize;
+    private final byte quote;
+    private final boolean hasQuote;
+    private final byte delimiter;
+    private final boolean ignoreSurroundingSpaces;
+    private final boolean utf8;
+    private final boolean[] whitespace = new boolean[256];
+
+    ParallelCsvParser(@NonNull CSVFormat format, @NonNull Charset charset) {
+        this(format, charset, 0);
+    }
+
+    /**
+     * @param chunkSize the size of the chunks the file is split in, 0 to choose it from the size of the file
+     */
+    ParallelCsvParser(@NonNull CSVFormat format, @NonNull Charset charset, long chunkSize) {
+        if (!isSupported(format, charset)) throw new IllegalArgumentException("Unsupported format " + format + " with charset " + charset);
+        this.format = format;
+        this.recordFormat = format.builder()
+                .setHeader((String[]) null)
+                .setSkipHeaderRecord(false)
+                .get();
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+        this.hasQuote = format.getQuoteCharacter() != null;
+        this.quote = hasQuote ? (byte) format.getQuoteCharacter().charValue() : 0;
+        this.delimiter = format.getDelimiterString().getBytes(charset)[0];
+        this.ignoreSurroundingSpaces = format.getIgnoreSurroundingSpaces();
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+
+        val bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+        val chars = new String(bytes, utf8 ? StandardCharsets.ISO_8859_1 : charset);
+        for (int i = 0; i < whitespace.length; i++) whitespace[i] = (i < 128 || !utf8) && Character.isWhitespace(chars.charAt(i));
+    }
+
+    /**
+     * Checks if a file with the given format and charset can be parsed by this parser
+     *
+     * @param format the format of the file
+     * @param charset the charset of the file
+     * @return true if the file can be parsed
+     */
+    static boolean isSupported(@NonNull CSVFormat format, @NonNull Charset charset) {
+        if (!TextUtils.isAsciiCompatible(charset)) return false;
+        if (format.getEscapeCharacter() != null || format.getCommentMarker() != null) return false;
+        val quote = format.getQuoteCharacter();
+        if (quote != null && quote > 127) return false;
+        val delimiter = format.getDelimiterString().getBytes(charset);
+        return delimiter.length == 1 && delimiter[0] != '\n' && delimiter[0] != '\r'
+                && (quote == null || delimiter[0] != quote);
+    }
+
+    /**
+     * Parses the start of a file
+     *
+     * @param file the file to parse
+     * @param size the number of bytes to parse, at most the size of the file
+     * @param listener the listener to notify every time a group of records is appended; might be null
+     * @return the parsed data
+     * @throws IOException if an I/O error occurs while reading the file or the file is not a valid CSV
+     * @throws CancellationException if the listener cancelled the parsing
+     */
+    TableLikeData parse(@NonNull Path file, long size, ParseListener listener) throws IOException {
+        try (val arena = Arena.ofShared(); val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return parse(segment, listener);
+        }
+    }
+
+    private TableLikeData parse(MemorySegment segment, ParseListener listener) throws IOException {
+        val pool = ForkJoinPool.commonPool();
+        val bounds = split(segment, pool.getParallelism());
+        val chunks = bounds.length - 1;
+        log.info("Parsing {} bytes in {} chunks", segment.byteSize(), chunks);
+
+        // every task must be completed before the mapping is released
+        val scans = new ArrayList<ForkJoinTask<int[]>>(chunks);
+        // the groups parsed and not yet appended, at most a few per thread so that their records do not pile up
+        val groups = new ArrayDeque<ForkJoinTask<Group>>();
+        val maxGroups = pool.getParallelism() * 2;
+        try {
+            // scan every chunk from both the possible initial states
+            for (int i = 0; i < chunks; i++) {
+                val from = bounds[i];
+                val to = bounds[i + 1];
+                val first = i == 0;
+                scans.add(pool.submit(() -> new int[]{
+                        scan(segment, from, to, FIELD_START, listener),
+                        first ? FIELD_START : scan(segment, from, to, QUOTED, listener)
+                }));
+            }
+
+            // find where each group of chunks starts, parse it and append it in file order
+            ColumnarTableData data = null;
+            try {
+                int state = FIELD_START;
+                long groupStart = 0;
+                for (int i = 1; i <= chunks; i++) {
+                    val ends = join(scans.get(i - 1));
+                    state = ends[state == FIELD_START ? 0 : 1];
+                    if (i < chunks && state != FIELD_START) continue;
+                    if (groups.size() >= maxGroups) data = append(data, groups.poll(), listener);
+                    groups.add(pool.submit(parseTask(segment, groupStart, bounds[i], groupStart == 0, listener)));
+                    groupStart = bounds[i];
+                }
+                while (!groups.isEmpty()) data = append(data, groups.poll(), listener);
+            } catch (CancellationException e) {
+                if (data != null) data.close();
+                throw e;
+            }
+            return data;
+        } finally {
+            for (val task : scans) task.cancel(false);
+            for (val task : groups) task.cancel(false);
+            for (val task : scans) task.quietlyJoin();
+            for (val task : groups) task.quietlyJoin();
+        }
+    }
+
+    /**
+     * Appends the records of a group to the data, notifying the listener
+     *
+     * @param data the data, null before the first group
+     * @return the data, created with the header of the first group
+     * @throws CancellationException if the listener cancelled the parsing, even if the group is already parsed
+     */
+    private static ColumnarTableData append(ColumnarTableData data, ForkJoinTask<Group> task, ParseListener listener) throws IOException {
+        ParseListener.checkCancelled(listener);
+        val group = join(task);
+        if (data == null) data = new ColumnarTableData(group.header());
+        val from = data.size();
+        for (val values : group.records()) data.append(values);
+        if (listener != null && data.size() > from) listener.onRecords(data, from, data.size());
+        return data;
+    }
+
+    /**
+     * Splits the segment in chunks ending with a new line
+     *
+     * @return the start of each chunk, followed by the size of the segment
+     */
+    private long[] split(MemorySegment segment, int parallelism) {
+        val size = segment.byteSize();
+        val target = chunkSize > 0 ? chunkSize : Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4L));
+
+        val bounds = new ArrayList<Long>();
+        bounds.add(0L);
+        long position = target;
+        while (position < size) {
+            while (position < size && segment.get(ValueLayout.JAVA_BYTE, position - 1) != '\n') position++;
+            if (position >= size) break;
+            bounds.add(position);
+            position += target;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Follows the state of the Apache Commons CSV lexer through a chunk
+     *
+     * @param segment the whole file
+     * @param from the start of the chunk
+     * @param to the end of the chunk
+     * @param state the state at the start of the chunk
+     * @param listener the listener that might cancel the parsing; might be null
+     * @return the state at the end of the chunk
+     * @throws CancellationException if the parsing was cancelled
+     */
+    private int scan(MemorySegment segment, long from, long to, int state, ParseListener listener) {
+        for (long i = from; i < to; i++) {
+            if (((i - from) & (CHECK_INTERVAL - 1)) == 0) ParseListener.checkCancelled(listener);
+            val b = segment.get(ValueLayout.JAVA_BYTE, i);
+            val separator = b == delimiter || b == '\n' || b == '\r';
+            val isQuote = hasQuote && b == quote;
+            switch (state) {
+                case FIELD_START -> {
+                    if (separator) continue;
+                    if (isQuote) {
+                        state = QUOTED;
+                    } else if (ignoreSurroundingSpaces && isWhitespace(segment, i, to)) {
+                        // leading spaces are skipped by the lexer, a quote might still follow
+                        if (utf8 && b < 0) i += (b & 0xF0) == 0xE0 ? 2 : 1;
+                    } else {
+                        state = UNQUOTED;
+                    }
+                }
+                case UNQUOTED, AFTER_QUOTED -> {
+                    if (separator) state = FIELD_START;
+                }
+                case QUOTED -> {
+                    if (isQuote) state = QUOTE_IN_QUOTED;
+                }
+                case QUOTE_IN_QUOTED -> {
+                    // either a doubled quote or the end of the quoted value
+                    if (isQuote) state = QUOTED;
+                    else if (separator) state = FIELD_START;
+                    else state = AFTER_QUOTED;
+                }
+                default -> throw new IllegalStateException("Unexpected state " + state);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Checks if the character starting at the given position is a whitespace for {@link Character#isWhitespace(char)}
+     */
+    private boolean isWhitespace(MemorySegment segment, long position, long end) {
+        val b = segment.get(ValueLayout.JAVA_BYTE, position);
+        if (b >= 0 || !utf8) return whitespace[b & 0xFF];
+
+        // only 2 and 3 bytes sequences can decode to a whitespace char
+        final int c;
+        if ((b & 0xE0) == 0xC0 && position + 1 < end) {
+            c = (b & 0x1F) << 6 | segment.get(ValueLayout.JAVA_BYTE, position + 1) & 0x3F;
+        } else if ((b & 0xF0) == 0xE0 && position + 2 < end) {
+            c = (b & 0x0F) << 12
+                    | (segment.get(ValueLayout.JAVA_BYTE, position + 1) & 0x3F) << 6
+                    | segment.get(ValueLayout.JAVA_BYTE, position + 2) & 0x3F;
+        } else {
+            return false;
+        }
+        return Character.isWhitespace((char) c);
+    }
+
+    private Callable<Group> parseTask(MemorySegment segment, long from, long to, boolean first, ParseListener listener) {
+        return () -> {
+            val slice = segment.asSlice(from, to - from);
+            try (val reader = new InputStreamReader(new SegmentInputStream(slice), charset);
+                 val parser = (first ? format : recordFormat).parse(reader)) {
+                val records = new ArrayList<String[]>();
+                for (val record : parser) {
+                    ParseListener.checkCancelled(listener);
+                    records.add(record.values());
+                }
+                return new Group(first ? parser.getHeaderNames() : null, records);
+            }
+        };
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    /**
+     * The records of a group of chunks
+     *
+     * @param header the header names, only for the first group
+     * @param records the values of the records
+     */
+    private record Group(List<String> header, List<String[]> records) {}
+}
@@ -0,0 +1,47 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/**
+ * An {@link InputStream} reading the bytes of a {@link MemorySegment}, which might be larger than 2GB.
+ *
+ * Thread safety:
+ * - The class is not thread-safe.
+ */
+final class SegmentInputStream extends InputStream {
+    private final MemorySegment segment;
+    private long position;
+
+    SegmentInputStream(@NonNull MemorySegment segment) {
+        this.segment = segment;
+    }
+
+    @Override
+    public int read() {
+        if (position >= segment.byteSize()) return -1;
+        return segment.get(ValueLayout.JAVA_BYTE, position++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte @NonNull [] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) return 0;
+        val remaining = segment.byteSize() - position;
+        if (remaining <= 0) return -1;
+        val n = (int) Math.min(len, remaining);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, segment.byteSize() - position);
+    }
+}
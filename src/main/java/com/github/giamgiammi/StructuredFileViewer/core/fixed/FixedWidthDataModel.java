@@ -2,42 +2,53 @@ package com.github.giamgiammi.StructuredFileViewer.core.fixed;
 
 import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModelFactory;
-import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
-import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
 import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
-import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Path;
 
 /**
  * Represents a data model for handling fixed-width formatted data. This implementation
  * uses {@link FixedWidthSettings} as its configuration metadata and produces an instance
- * of {@link SimpleTableData} as the parsed output format.
+ * of {@link ColumnarTableData} as the parsed output format.
  *
  * The fixed-width data model assumes a set of columns with predefined widths. It processes
  * data either with or without a new line delimiter between records, depending on the settings.
+ * Records are parsed by a {@link FixedWidthParser}, which notifies the {@link ParseListener} while parsing.
+ * Files whose records all have the same size in bytes can also be mapped or parsed in parallel,
+ * depending on the {@link FixedWidthEngine} of the settings.
  *
  * Thread safety:
  * - This class is immutable and inherently thread-safe.
  */
-public class FixedWidthDataModel implements DataModel<FixedWidthSettings, SimpleTableData> {
+@Slf4j
+public class FixedWidthDataModel implements DataModel<FixedWidthSettings, TableLikeData> {
     private final FixedWidthSettings settings;
-    private final int lineLength;
-    private final int recordSize;
+    private final FixedWidthParser parser;
+    /**
+     * Whether files are parsed directly by the engine of the settings, decided once since it depends only on them
+     */
+    private final boolean parseFile;
 
     public FixedWidthDataModel(@NonNull FixedWidthSettings settings) {
         this.settings = settings;
-        this.lineLength = settings.columns().stream().mapToInt(FixedWidthColumn::length).sum();
-        this.recordSize = settings.columns().size();
+        this.parser = new FixedWidthParser(settings);
+        val engine = settings.engine() == null ? FixedWidthEngine.STANDARD : settings.engine();
+        parseFile = engine != FixedWidthEngine.STANDARD && parser.isRandomAccess();
+        if (!parseFile && engine != FixedWidthEngine.STANDARD)
+            log.warn("{} engine not supported with charset {} and recordEndsWithNewLine={}, using the standard one", engine, settings.charset(), settings.recordEndsWithNewLine());
     }
 
     @Override
-    public @NonNull Class<? extends DataModelFactory<FixedWidthSettings, SimpleTableData>> getFactoryClass() {
+    public @NonNull Class<? extends DataModelFactory<FixedWidthSettings, TableLikeData>> getFactoryClass() {
         return FixedWidthDataModelFactory.class;
     }
 
@@ -47,106 +58,54 @@ public class FixedWidthDataModel implements DataModel<FixedWidthSettings, Simple
     }
 
     @Override
-    public @NonNull SimpleTableData parse(@NonNull InputStream stream) throws IOException {
-        try (val reader = new InputStreamReader(stream, settings.charset())) {
-            return parse(reader);
-        }
+    public @NonNull TableLikeData parse(@NonNull InputStream stream) throws IOException {
+        return parse(stream, null);
     }
 
     @Override
-    public @NonNull SimpleTableData parse(@NonNull String text) throws IOException, UnsupportedOperationException {
-        try (val reader = new StringReader(text)) {
-            return parse(reader);
-        }
+    public @NonNull TableLikeData parse(@NonNull InputStream stream, ParseListener listener) throws IOException {
+        return parser.parse(stream, listener);
     }
 
-    /**
-     * Parses data from a given {@link Reader} into a {@link SimpleTableData} representation.
-     * The parsing logic depends on whether records in the data end with a newline character.
-     *
-     * @param reader the {@link Reader} from which the data will be read
-     * @return a {@link SimpleTableData} instance containing the parsed table data
-     * @throws IOException if an I/O error occurs during reading
-     */
-    private SimpleTableData parse(Reader reader) throws IOException {
-        if (settings.recordEndsWithNewLine()) {
-            try (val scanner = new Scanner(reader)) {
-                return parseNewLine(scanner);
-            }
-        } else {
-            return parseNoNewLine(reader);
-        }
+    @Override
+    public boolean canParseFile() {
+        return parseFile;
     }
 
-    /**
-     * Parses input data from a {@link Scanner} and transforms it into a {@link SimpleTableData} object.
-     * Each line of the input data is processed based on the fixed-width column definitions, and the resulting
-     * records are stored as rows in the table data structure.
-     *
-     * @param sc the {@link Scanner} instance used to read and parse the input data line by line
-     * @return a {@link SimpleTableData} instance containing the parsed table data
-     * @throws IOException if an I/O error occurs during parsing
-     */
-    private SimpleTableData parseNewLine(Scanner sc) throws IOException {
-        val list = new ArrayList<String[]>();
-
-        while (sc.hasNextLine()) {
-            val str = sc.nextLine();
-            parseLine(list, str);
-        }
-
-        return new SimpleTableData(
-                settings.columns().stream().map(FixedWidthColumn::name).toList(),
-                list
-        );
+    @Override
+    public @NonNull TableLikeData parse(@NonNull Path file, long size, ParseListener listener) throws IOException {
+        if (!canParseFile()) throw new UnsupportedOperationException("Cannot parse file directly with settings " + settings);
+        return switch (settings.engine()) {
+            // nothing is parsed, so there is nothing to publish before the data is returned
+            case MAPPED -> MappedFixedWidthTableData.open(file, size, parser);
+            case PARALLEL -> parser.parse(file, size, 0, listener);
+            case STANDARD -> throw new IllegalStateException();
+        };
     }
 
-    /**
-     * Parses data from a given {@link Reader} into a {@link SimpleTableData} representation
-     * where the input data does not contain newline characters. The method reads fixed-width
-     * records based on the column definitions specified in the settings and transforms the
-     * data into a tabular format.
-     *
-     * @param reader the {@link Reader} from which data will be read. It must supply the raw
-     *               fixed-width input data without newline delimiters.
-     * @return a {@link SimpleTableData} instance containing the parsed tabular data.
-     * @throws IOException if an I/O error occurs during reading from the {@link Reader}.
-     */
-    private SimpleTableData parseNoNewLine(Reader reader) throws IOException {
-        val list = new ArrayList<String[]>();
-        while (true) {
-            val buffer = new char[lineLength];
-            val n = reader.read(buffer);
-            if (n < 0) break;
-            val str = new String(buffer, 0, n);
+    @Override
+    public long wholeRecordsLength(@NonNull Path file, long size) throws IOException {
+        // the records of a mapped file cannot be appended to
+        if (canParseFile() && settings.engine() == FixedWidthEngine.MAPPED) return size;
+        return parser.wholeRecordsLength(file, size);
+    }
 
-            parseLine(list, str);
-        }
+    @Override
+    public boolean canParseAppended(@NonNull TableLikeData data) {
+        return data instanceof ColumnarTableData && parser.canParseAppended();
+    }
 
-        return new SimpleTableData(
-                settings.columns().stream().map(FixedWidthColumn::name).toList(),
-                list
-        );
+    @Override
+    public int parseAppended(byte @NonNull [] bytes, int length, @NonNull TableLikeData data) throws IOException {
+        if (!canParseAppended(data)) throw new UnsupportedOperationException("Cannot parse appended records with settings " + settings);
+        return parser.parseAppended(bytes, length, (ColumnarTableData) data);
     }
 
-    /**
-     * Parses a single line of fixed-width input data into an array of column values and adds it to the provided list.
-     * The method uses column definitions from the settings to determine the length and trimming behavior for each column.
-     *
-     * @param list the list to which the parsed column values will be added; each entry in the list represents a record
-     * @param str the input line containing fixed-width data to be parsed
-     */
-    private void parseLine(List<String[]> list, String str) {
-        val record = new String[recordSize];
-        int index = 0;
-        for (int i = 0; i < recordSize; i++) {
-            val col = settings.columns().get(i);
-            var data = TextUtils.substring(str, index, index + col.length());
-            if (col.trim() && data != null) data = data.trim();
-            record[i] = data;
-            index += col.length();
+    @Override
+    public @NonNull TableLikeData parse(@NonNull String text) throws IOException, UnsupportedOperationException {
+        try (val reader = new StringReader(text)) {
+            return parser.parse(reader, null);
         }
-        list.add(record);
     }
 
     @Override
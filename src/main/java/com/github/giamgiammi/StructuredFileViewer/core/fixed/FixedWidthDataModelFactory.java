@@ -3,7 +3,8 @@ package com.github.giamgiammi.StructuredFileViewer.core.fixed;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModelFactory;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModelType;
-import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
 import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
 import lombok.NonNull;
 
@@ -14,7 +15,7 @@ import java.util.List;
  * A factory for creating data models of type {@link DataModelType#FIXED_WIDTH}.
  * This implementation of {@link DataModelFactory} is responsible for generating
  * instances of {@link FixedWidthDataModel}, using {@link FixedWidthSettings} as
- * its configuration and {@link SimpleTableData} as its data structure.
+ * its configuration and {@link ColumnarTableData} as its data structure.
  *
  * This factory provides the following functionalities:
  * - Identifying its associated data model type as {@code FIXED_WIDTH}.
@@ -25,7 +26,7 @@ import java.util.List;
  * - Encapsulates the logic for the setup of fixed-width data models.
  * - Provides default values and mechanisms to configure and instantiate fixed-width data parsing models.
  */
-public class FixedWidthDataModelFactory implements DataModelFactory<FixedWidthSettings, SimpleTableData> {
+public class FixedWidthDataModelFactory implements DataModelFactory<FixedWidthSettings, TableLikeData> {
     @Override
     public @NonNull DataModelType getType() {
         return DataModelType.FIXED_WIDTH;
@@ -36,12 +37,13 @@ public class FixedWidthDataModelFactory implements DataModelFactory<FixedWidthSe
         return new FixedWidthSettings(
                 List.of(),
                 true,
-                StandardCharsets.UTF_8
+                StandardCharsets.UTF_8,
+                FixedWidthEngine.STANDARD
         );
     }
 
     @Override
-    public @NonNull DataModel<FixedWidthSettings, SimpleTableData> create(@NonNull FixedWidthSettings fixedWidthSettings) {
+    public @NonNull DataModel<FixedWidthSettings, TableLikeData> create(@NonNull FixedWidthSettings fixedWidthSettings) {
         return new FixedWidthDataModel(fixedWidthSettings);
     }
 }
@@ -0,0 +1,26 @@
+package com.github.giamgiammi.StructuredFileViewer.core.fixed;
+
+/**
+ * Enumeration of the engines available for parsing fixed-width files.
+ * A {@code null} engine in the settings is equivalent to {@link #STANDARD}.
+ *
+ * The other engines need records that are not terminated by a new line and a single-byte charset,
+ * so that every record has the same size in bytes and its position in the file can be computed;
+ * otherwise {@link #STANDARD} is used.
+ */
+public enum FixedWidthEngine {
+    /**
+     * Reads the whole file sequentially, keeping all the values in memory
+     */
+    STANDARD,
+    /**
+     * Maps the file in memory without parsing it.
+     * Values are read from the position of their record when they are accessed,
+     * so the memory used does not depend on the size of the file.
+     */
+    MAPPED,
+    /**
+     * Parses the file using all the available processors, producing the same result as {@link #STANDARD}
+     */
+    PARALLEL
+}
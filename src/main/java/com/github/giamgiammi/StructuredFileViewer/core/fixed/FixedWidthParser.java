@@ -0,0 +1,489 @@
+package com.github.giamgiammi.StructuredFileViewer.core.fixed;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses fixed-width records working directly on a buffer, instead of splitting lines with a {@link java.util.Scanner}.
+ *
+ * The boundaries of the columns are computed once. With single-byte charsets (e.g. ISO-8859-1, cp1252 or the
+ * EBCDIC code pages of mainframe extracts) the input is read as bytes and only the bytes of each column are decoded,
+ * after trimming them; with other charsets the input is decoded in a char buffer and the columns are sliced from it.
+ *
+ * Lines end like for {@link java.util.Scanner#nextLine()}: with "\r\n", "\n", "\r", "\u2028", "\u2029" or "\u0085".
+ * Columns starting after the end of a line are empty, columns ending after it are truncated.
+ *
+ * When records are not terminated by a new line and the charset is single-byte, every record has the same size
+ * in bytes: files can then be parsed in parallel ({@link #parse(Path, long, int, ParseListener)}) or read one value at a time
+ * from a mapping ({@link MappedFixedWidthTableData}).
+ *
+ * Thread safety:
+ * - Instances are immutable, each parse uses its own buffers.
+ */
+@Slf4j
+final class FixedWidthParser {
+    /**
+     * Number of records parsed between two notifications of the {@link ParseListener}
+     */
+    static final int BATCH_SIZE = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Size in bytes of the chunks parsed in parallel, when not specified
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private final FixedWidthSettings settings;
+    private final int[] starts;
+    private final int[] ends;
+    private final boolean[] trim;
+    private final int lineLength;
+    /**
+     * For single-byte charsets, the char decoded from each byte; null for other charsets
+     */
+    private final char[] decoded;
+
+    FixedWidthParser(@NonNull FixedWidthSettings settings) {
+        this.settings = settings;
+        val columns = settings.columns();
+        starts = new int[columns.size()];
+        ends = new int[columns.size()];
+        trim = new boolean[columns.size()];
+        var index = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            starts[i] = index;
+            index += columns.get(i).length();
+            ends[i] = index;
+            trim[i] = columns.get(i).trim();
+        }
+        lineLength = index;
+        decoded = TextUtils.isSingleByte(settings.charset()) ? decodeAll(settings.charset()) : null;
+    }
+
+    /**
+     * Checks if every record has the same size in bytes, so that the position of a record in the file
+     * can be computed from its index: records are not terminated by a new line and the charset is single-byte
+     *
+     * @return true if the file can be accessed at the position of any record
+     */
+    boolean isRandomAccess() {
+        return decoded != null && !settings.recordEndsWithNewLine() && lineLength > 0;
+    }
+
+    /**
+     * @return the length of a record, in characters
+     */
+    int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * @return the start of a column in the record, in characters
+     */
+    int start(int column) {
+        return starts[column];
+    }
+
+    /**
+     * @return the end (exclusive) of a column in the record, in characters
+     */
+    int end(int column) {
+        return ends[column];
+    }
+
+    /**
+     * Returns the names of the columns
+     */
+    List<String> columnNames() {
+        return settings.columns().stream().map(FixedWidthColumn::name).toList();
+    }
+
+    private static char[] decodeAll(Charset charset) {
+        val bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+        val chars = new String(bytes, charset).toCharArray();
+        return chars.length == bytes.length ? chars : null;
+    }
+
+    private static boolean isLineSeparator(char c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+
+    /**
+     * Parses the records read from a stream encoded with the charset of the settings
+     *
+     * @param stream the stream to read
+     * @param listener the listener to notify every {@value #BATCH_SIZE} records; might be null
+     * @return the parsed data
+     * @throws IOException if an I/O error occurs while reading
+     * @throws CancellationException if the listener cancelled the parsing
+     */
+    ColumnarTableData parse(@NonNull InputStream stream, ParseListener listener) throws IOException {
+        val output = new Output(new ColumnarTableData(columnNames()), listener);
+        try {
+            return parse(stream, output);
+        } catch (CancellationException e) {
+            output.data.close();
+            throw e;
+        }
+    }
+
+    private ColumnarTableData parse(InputStream stream, Output output) throws IOException {
+        if (decoded == null) {
+            try (val reader = new InputStreamReader(stream, settings.charset())) {
+                return parse(reader, output);
+            }
+        }
+        if (lineLength == 0) return output.finish();
+        if (settings.recordEndsWithNewLine()) parseLines(stream, output);
+        else parseRecords(stream, output);
+        return output.finish();
+    }
+
+    /**
+     * Parses the records read from a reader
+     *
+     * @param reader the reader to read
+     * @param listener the listener to notify every {@value #BATCH_SIZE} records; might be null
+     * @return the parsed data
+     * @throws IOException if an I/O error occurs while reading
+     * @throws CancellationException if the listener cancelled the parsing
+     */
+    ColumnarTableData parse(@NonNull Reader reader, ParseListener listener) throws IOException {
+        val output = new Output(new ColumnarTableData(columnNames()), listener);
+        try {
+            return parse(reader, output);
+        } catch (CancellationException e) {
+            output.data.close();
+            throw e;
+        }
+    }
+
+    private ColumnarTableData parse(Reader reader, Output output) throws IOException {
+        if (lineLength == 0) return output.finish();
+        if (settings.recordEndsWithNewLine()) parseLines(reader, output);
+        else parseRecords(reader, output);
+        return output.finish();
+    }
+
+    /**
+     * Checks if records appended to a file can be found in the appended bytes: records end with a new line
+     * and the charset is ASCII-compatible, or records have all the same size in bytes
+     *
+     * @return true if {@link #parseAppended(byte[], int, ColumnarTableData)} can be used
+     */
+    boolean canParseAppended() {
+        if (lineLength == 0) return false;
+        return settings.recordEndsWithNewLine() ? TextUtils.isAsciiCompatible(settings.charset()) : isRandomAccess();
+    }
+
+    /**
+     * Parses the whole records at the start of some bytes appended to a file; it requires {@link #canParseAppended()}
+     *
+     * @param bytes the appended bytes, starting at the beginning of a record
+     * @param length the number of valid bytes
+     * @param data the data to add the records to
+     * @return the number of bytes of the parsed records; 0 if there is no whole record yet
+     * @throws IOException if an I/O error occurs while parsing
+     */
+    int parseAppended(byte @NonNull [] bytes, int length, @NonNull ColumnarTableData data) throws IOException {
+        if (!canParseAppended()) throw new IllegalStateException("Appended records cannot be found with settings " + settings);
+        val end = settings.recordEndsWithNewLine() ? TextUtils.wholeLinesLength(bytes, length) : length - length % lineLength;
+        if (end > 0) parse(new ByteArrayInputStream(bytes, 0, end), new Output(data, null));
+        return end;
+    }
+
+    /**
+     * Returns the length of the whole records at the start of a file, the same way {@link #parseAppended(byte[], int, ColumnarTableData)}
+     * finds them in the appended bytes
+     *
+     * @param file the file
+     * @param size the number of bytes of the file to consider
+     * @return the length of the whole records, or {@code size} without {@link #canParseAppended()}
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    long wholeRecordsLength(@NonNull Path file, long size) throws IOException {
+        if (!canParseAppended()) return size;
+        return settings.recordEndsWithNewLine() ? TextUtils.wholeLinesLength(file, size) : size - size % lineLength;
+    }
+
+    /**
+     * Parses a file using all the available processors; it requires {@link #isRandomAccess()}.
+     *
+     * The file is mapped in memory and split in chunks made of whole records, since their size is known.
+     * The chunks are parsed in parallel and their records are appended in file order, with at most a couple
+     * of chunks per thread parsed ahead of the one being appended.
+     *
+     * @param file the file to parse
+     * @param size the number of bytes to parse, at most the size of the file
+     * @param chunkRecords the number of records of each chunk, 0 to choose it from the length of a record
+     * @param listener the listener to notify every time a chunk is appended; might be null
+     * @return the parsed data
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws CancellationException if the listener cancelled the parsing
+     */
+    ColumnarTableData parse(@NonNull Path file, long size, int chunkRecords, ParseListener listener) throws IOException {
+        if (!isRandomAccess()) throw new IllegalStateException("Records cannot be accessed randomly with settings " + settings);
+        try (val arena = Arena.ofShared(); val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return parse(segment, chunkRecords > 0 ? chunkRecords : Math.max(1, MIN_CHUNK_SIZE / lineLength), listener);
+        }
+    }
+
+    private ColumnarTableData parse(MemorySegment segment, int chunkRecords, ParseListener listener) throws IOException {
+        val pool = ForkJoinPool.commonPool();
+        val chunkSize = (long) chunkRecords * lineLength;
+        val size = segment.byteSize();
+        if ((size + lineLength - 1) / lineLength > Integer.MAX_VALUE) throw new IOException("Too many records in file: " + size / lineLength);
+
+        // every task must be completed before the mapping is released;
+        // only a few chunks per thread are parsed ahead of the one being appended, so that their records do not pile up
+        val tasks = new ArrayDeque<ForkJoinTask<String[][]>>();
+        val maxTasks = pool.getParallelism() * 2;
+        log.info("Parsing {} bytes in {} chunks", size, (size + chunkSize - 1) / chunkSize);
+        try {
+            val data = new ColumnarTableData(columnNames());
+            try {
+                for (long from = 0; from < size || !tasks.isEmpty(); ) {
+                    if (from < size && tasks.size() < maxTasks) {
+                        val start = from;
+                        val end = Math.min(size, from + chunkSize);
+                        tasks.add(pool.submit(() -> {
+                            ParseListener.checkCancelled(listener);
+                            return parseChunk(segment, start, end);
+                        }));
+                        from = end;
+                        continue;
+                    }
+                    // the chunks already parsed are not appended either once cancelled
+                    ParseListener.checkCancelled(listener);
+                    final String[][] records;
+                    try {
+                        records = tasks.poll().join();
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    val first = data.size();
+                    for (val record : records) data.append(record);
+                    if (listener != null && data.size() > first) listener.onRecords(data, first, data.size());
+                }
+            } catch (CancellationException e) {
+                data.close();
+                throw e;
+            }
+            return data;
+        } finally {
+            for (val task : tasks) task.cancel(false);
+            for (val task : tasks) task.quietlyJoin();
+        }
+    }
+
+    private String[][] parseChunk(MemorySegment segment, long from, long to) {
+        val buffer = segment.asSlice(from, to - from).toArray(ValueLayout.JAVA_BYTE);
+        val records = new String[(buffer.length + lineLength - 1) / lineLength][];
+        for (int i = 0; i < records.length; i++) {
+            val start = i * lineLength;
+            records[i] = record(buffer, start, Math.min(buffer.length, start + lineLength));
+        }
+        return records;
+    }
+
+    private void parseLines(InputStream stream, Output output) throws IOException {
+        var buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        int scanned = 0;
+        var eof = false;
+        while (!eof) {
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            val n = stream.read(buffer, length, buffer.length - length);
+            if (n < 0) eof = true;
+            else length += n;
+
+            int lineStart = 0;
+            int i = scanned;
+            for (; i < length; i++) {
+                val c = decoded[buffer[i] & 0xff];
+                if (!isLineSeparator(c)) continue;
+                if (c == '\r' && i + 1 == length && !eof) break; // a "\n" might follow
+                output.append(record(buffer, lineStart, i));
+                if (c == '\r' && i + 1 < length && decoded[buffer[i + 1] & 0xff] == '\n') i++;
+                lineStart = i + 1;
+            }
+            if (eof && lineStart < length) output.append(record(buffer, lineStart, length));
+            System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+            length -= lineStart;
+            scanned = i - lineStart;
+        }
+    }
+
+    private void parseLines(Reader reader, Output output) throws IOException {
+        var buffer = new char[BUFFER_SIZE];
+        int length = 0;
+        int scanned = 0;
+        var eof = false;
+        while (!eof) {
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            val n = reader.read(buffer, length, buffer.length - length);
+            if (n < 0) eof = true;
+            else length += n;
+
+            int lineStart = 0;
+            int i = scanned;
+            for (; i < length; i++) {
+                val c = buffer[i];
+                if (!isLineSeparator(c)) continue;
+                if (c == '\r' && i + 1 == length && !eof) break; // a "\n" might follow
+                output.append(record(buffer, lineStart, i));
+                if (c == '\r' && i + 1 < length && buffer[i + 1] == '\n') i++;
+                lineStart = i + 1;
+            }
+            if (eof && lineStart < length) output.append(record(buffer, lineStart, length));
+            System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+            length -= lineStart;
+            scanned = i - lineStart;
+        }
+    }
+
+    private void parseRecords(InputStream stream, Output output) throws IOException {
+        val buffer = new byte[lineLength * Math.max(1, BUFFER_SIZE / lineLength)];
+        while (true) {
+            val n = stream.readNBytes(buffer, 0, buffer.length);
+            for (int start = 0; start < n; start += lineLength) {
+                output.append(record(buffer, start, Math.min(n, start + lineLength)));
+            }
+            if (n < buffer.length) break;
+        }
+    }
+
+    private void parseRecords(Reader reader, Output output) throws IOException {
+        val buffer = new char[lineLength * Math.max(1, BUFFER_SIZE / lineLength)];
+        while (true) {
+            // unlike InputStream, Reader has no method reading until the buffer is full
+            int n = 0;
+            while (n < buffer.length) {
+                val read = reader.read(buffer, n, buffer.length - n);
+                if (read < 0) break;
+                n += read;
+            }
+            for (int start = 0; start < n; start += lineLength) {
+                output.append(record(buffer, start, Math.min(n, start + lineLength)));
+            }
+            if (n < buffer.length) break;
+        }
+    }
+
+    /**
+     * Slices the columns of the line in {@code [from, to)} of a buffer of single-byte characters
+     */
+    private String[] record(byte[] buffer, int from, int to) {
+        val record = new String[starts.length];
+        for (int i = 0; i < record.length; i++) {
+            val start = from + starts[i];
+            record[i] = start >= to ? "" : value(buffer, start, Math.min(to, from + ends[i]), i);
+        }
+        return record;
+    }
+
+    /**
+     * Returns the value of a column from its single-byte characters, trimming them if required by the column
+     *
+     * @param buffer the buffer containing the column
+     * @param start the start of the column in the buffer
+     * @param end the end of the column in the buffer, already truncated at the end of the record
+     * @param column the index of the column
+     * @return the decoded value
+     */
+    String value(byte[] buffer, int start, int end, int column) {
+        if (trim[column]) {
+            while (start < end && decoded[buffer[start] & 0xff] <= ' ') start++;
+            while (end > start && decoded[buffer[end - 1] & 0xff] <= ' ') end--;
+        }
+        return decode(buffer, start, end);
+    }
+
+    private String decode(byte[] buffer, int from, int to) {
+        val charset = settings.charset();
+        if (charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII)) {
+            return new String(buffer, from, to - from, charset);
+        }
+        val chars = new char[to - from];
+        for (int i = from; i < to; i++) chars[i - from] = decoded[buffer[i] & 0xff];
+        return new String(chars);
+    }
+
+    /**
+     * Slices the columns of the line in {@code [from, to)} of a buffer
+     */
+    private String[] record(char[] buffer, int from, int to) {
+        val record = new String[starts.length];
+        for (int i = 0; i < record.length; i++) {
+            var start = from + starts[i];
+            if (start >= to) {
+                record[i] = "";
+                continue;
+            }
+            var end = Math.min(to, from + ends[i]);
+            if (trim[i]) {
+                while (start < end && buffer[start] <= ' ') start++;
+                while (end > start && buffer[end - 1] <= ' ') end--;
+            }
+            record[i] = new String(buffer, start, end - start);
+        }
+        return record;
+    }
+
+    /**
+     * Collects the parsed records and notifies the listener, stopping if it is cancelled
+     */
+    private final class Output {
+        private final ColumnarTableData data;
+        private final ParseListener listener;
+        private int notified;
+
+        private Output(ColumnarTableData data, ParseListener listener) {
+            this.data = data;
+            this.listener = listener;
+            this.notified = data.size();
+        }
+
+        private void append(String[] record) {
+            ParseListener.checkCancelled(listener);
+            data.append(record);
+            if (listener != null && data.size() - notified >= BATCH_SIZE) {
+                listener.onRecords(data, notified, data.size());
+                notified = data.size();
+            }
+        }
+
+        private ColumnarTableData finish() {
+            if (listener != null && data.size() > notified) listener.onRecords(data, notified, data.size());
+            return data;
+        }
+    }
+}
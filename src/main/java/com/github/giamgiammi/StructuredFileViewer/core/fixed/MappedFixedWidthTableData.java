@@ -0,0 +1,156 @@
+package com.github.giamgiammi.StructuredFileViewer.core.fixed;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A {@link TableLikeData} backed by a fixed-width file mapped in memory.
+ *
+ * Records are not terminated by a new line and the charset is single-byte, so every record has the same size
+ * in bytes and the position of a value in the file is computed from the index of its record and the column.
+ * Nothing is parsed when the file is opened: each value is read and decoded from the mapping when it's accessed,
+ * so the heap used does not depend on the size of the file. Records are created when accessed too:
+ * {@link #getRecords()} returns a view over the mapping.
+ *
+ * Thread safety:
+ * - The class is thread-safe. The mapping is released by {@link #close()}, after which the data must not be accessed.
+ */
+@Slf4j
+public final class MappedFixedWidthTableData implements TableLikeData {
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final FixedWidthParser parser;
+    private final int size;
+    private final List<String> columnNames;
+
+    private MappedFixedWidthTableData(Arena arena, MemorySegment segment, FixedWidthParser parser) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        this.parser = parser;
+        val records = (segment.byteSize() + parser.lineLength() - 1) / parser.lineLength();
+        if (records > Integer.MAX_VALUE) throw new IOException("Too many records in file: " + records);
+        this.size = (int) records;
+        this.columnNames = parser.columnNames();
+    }
+
+    /**
+     * Maps the start of the given file in memory
+     *
+     * @param file the file to map
+     * @param size the number of bytes to map, at most the size of the file
+     * @param parser the parser of the records; it must support {@link FixedWidthParser#isRandomAccess()}
+     * @return the data backed by the mapped file
+     * @throws IOException if an I/O error occurs while mapping the file
+     */
+    static MappedFixedWidthTableData open(@NonNull Path file, long size, @NonNull FixedWidthParser parser) throws IOException {
+        if (!parser.isRandomAccess()) throw new IllegalArgumentException("Records of " + file + " cannot be accessed randomly");
+        val arena = Arena.ofShared();
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            return new MappedFixedWidthTableData(arena, segment, parser);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public @NonNull List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public @NonNull List<Record> getRecords() {
+        return new RecordsView();
+    }
+
+    @Override
+    public boolean hasLazyRecords() {
+        return true;
+    }
+
+    @Override
+    public boolean isFileBacked() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        log.info("Releasing mapped file of {}", this);
+        arena.close();
+    }
+
+    private String value(int row, int column) {
+        if (column < 0 || column >= columnNames.size()) return null;
+        val record = (long) row * parser.lineLength();
+        val start = record + parser.start(column);
+        val end = Math.min(segment.byteSize(), record + parser.end(column));
+        if (start >= end) return "";
+        val bytes = segment.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE);
+        return parser.value(bytes, 0, bytes.length, column);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{columnNames=%s, size=%d}", getClass().getSimpleName(), columnNames, size);
+    }
+
+    private final class RecordsView extends AbstractList<Record> implements RandomAccess {
+        @Override
+        public Record get(int index) {
+            Objects.checkIndex(index, size);
+            return new MappedRecord(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class MappedRecord implements Record {
+        private final int row;
+
+        private MappedRecord(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int column) {
+            return value(row, column);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MappedRecord other && other.row == row && other.owner() == owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(row);
+        }
+
+        private MappedFixedWidthTableData owner() {
+            return MappedFixedWidthTableData.this;
+        }
+
+        @Override
+        public String toString() {
+            return "MappedRecord{row=%d}".formatted(row);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import lombok.NonNull;
+
+import java.util.BitSet;
+
+/**
+ * The rows that can match a filter, found without testing the records (e.g. through an index of the data).
+ *
+ * @param rows the candidate rows; owned by this object, so it can be modified when combining candidates
+ * @param exact true if all the candidate rows match the filter, false if they still need to be tested
+ */
+public record Candidates(@NonNull BitSet rows, boolean exact) {
+}
@@ -0,0 +1,25 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import lombok.NonNull;
+
+/**
+ * Base class of the filters generated by {@link TableFilterCompiler}.
+ * It keeps the tree the filter was compiled from, which is used to find the candidate rows.
+ */
+abstract class CompiledFilter implements TableFilter {
+    private final TableFilter tree;
+
+    protected CompiledFilter(@NonNull TableFilter tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public Candidates candidates(int size) {
+        return tree.candidates(size);
+    }
+
+    @Override
+    public String toString() {
+        return "Compiled" + tree;
+    }
+}
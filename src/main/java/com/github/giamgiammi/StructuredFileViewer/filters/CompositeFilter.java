@@ -0,0 +1,108 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A filter combining other filters with a boolean operator.
+ * Composite filters are the nodes of the tree built by {@link TableFilterVisitor}; they can be evaluated directly,
+ * or the whole tree can be turned into a single class by {@link TableFilterCompiler}.
+ */
+sealed interface CompositeFilter extends TableFilter {
+    /**
+     * Matches the records matching all the given filters
+     */
+    record And(@NonNull TableFilter[] filters) implements CompositeFilter {
+        @Override
+        public boolean test(TableLikeData.Record record, int rowIndex) {
+            for (TableFilter filter : filters) {
+                if (!filter.test(record, rowIndex)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Intersects the candidates of the children, the ones without candidates are tested later
+         */
+        @Override
+        public Candidates candidates(int size) {
+            BitSet rows = null;
+            var exact = true;
+            for (TableFilter filter : filters) {
+                val candidates = filter.candidates(size);
+                if (candidates == null) {
+                    exact = false;
+                    continue;
+                }
+                if (rows == null) rows = candidates.rows();
+                else rows.and(candidates.rows());
+                exact &= candidates.exact();
+            }
+            return rows == null ? null : new Candidates(rows, exact);
+        }
+
+        @Override
+        public String toString() {
+            return "And" + Arrays.toString(filters);
+        }
+    }
+
+    /**
+     * Matches the records matching at least one of the given filters
+     */
+    record Or(@NonNull TableFilter[] filters) implements CompositeFilter {
+        @Override
+        public boolean test(TableLikeData.Record record, int rowIndex) {
+            for (TableFilter filter : filters) {
+                if (filter.test(record, rowIndex)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Joins the candidates of the children, if all of them have candidates
+         */
+        @Override
+        public Candidates candidates(int size) {
+            val rows = new BitSet(size);
+            var exact = true;
+            for (TableFilter filter : filters) {
+                val candidates = filter.candidates(size);
+                if (candidates == null) return null;
+                rows.or(candidates.rows());
+                exact &= candidates.exact();
+            }
+            return new Candidates(rows, exact);
+        }
+
+        @Override
+        public String toString() {
+            return "Or" + Arrays.toString(filters);
+        }
+    }
+
+    /**
+     * Matches the records not matching the given filter
+     */
+    record Not(@NonNull TableFilter filter) implements CompositeFilter {
+        @Override
+        public boolean test(TableLikeData.Record record, int rowIndex) {
+            return !filter.test(record, rowIndex);
+        }
+
+        /**
+         * Complements the candidates of the child, only if they are exact
+         */
+        @Override
+        public Candidates candidates(int size) {
+            val candidates = filter.candidates(size);
+            if (candidates == null || !candidates.exact()) return null;
+            candidates.rows().flip(0, size);
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+
+import java.util.function.IntFunction;
+
+/**
+ * A filter whose candidate rows can be found through an index of the data,
+ * e.g. with {@link TableLikeData#rowsEqual(int, String, int)}, without testing the records.
+ *
+ * @param filter the filter testing a single record
+ * @param lookup the function returning the candidates among the given number of rows, or null if the index can't help
+ * @param description the description of the filter
+ */
+record IndexedFilter(@NonNull TableFilter filter, @NonNull IntFunction<Candidates> lookup,
+                     @NonNull String description) implements TableFilter {
+    @Override
+    public boolean test(TableLikeData.Record record, int rowIndex) {
+        return filter.test(record, rowIndex);
+    }
+
+    @Override
+    public Candidates candidates(int size) {
+        return lookup.apply(size);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedFilter[%s]".formatted(description);
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Applies a {@link TableFilter} to a list of records splitting it in chunks that are tested in parallel.
+ * The indexes of the matching records are returned in ascending order.
+ *
+ * Thread safety:
+ * - The filter is tested concurrently from multiple threads, so it must be thread-safe
+ *   (the filters created by {@link TableFilter#parse} are).
+ * - The records list must not be modified while filtering.
+ */
+public final class ParallelFilter {
+    /**
+     * Number of records tested by a single task
+     */
+    static final int CHUNK_SIZE = 16_384;
+
+    /**
+     * Number of records tested between two checks of the cancellation
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private ParallelFilter() {
+    }
+
+    /**
+     * Receives the progress of the filtering and tells if it should stop
+     */
+    public interface Monitor {
+        /**
+         * Called each time a chunk of records has been tested, from the thread that tested it
+         *
+         * @param done the number of records tested so far
+         * @param total the number of records to test
+         */
+        void progress(long done, long total);
+
+        /**
+         * @return true if the filtering should stop as soon as possible
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * Filters the records
+     *
+     * @param filter the filter to apply
+     * @param records the records to filter
+     * @param monitor the monitor receiving the progress
+     * @return the indexes of the records matching the filter, in ascending order
+     * @throws CancellationException if the monitor reported a cancellation before the end
+     * @throws InterruptedException if the calling thread was interrupted while waiting the chunks
+     */
+    public static int[] filter(@NonNull TableFilter filter, @NonNull List<TableLikeData.Record> records,
+                               @NonNull Monitor monitor) throws InterruptedException {
+        return filter(filter, records, null, monitor);
+    }
+
+    /**
+     * Filters some of the records.
+     * The records are first restricted to the {@link TableFilter#candidates(int) candidates} of the filter, if any;
+     * if the candidates are exact no record is tested at all.
+     *
+     * @param filter the filter to apply
+     * @param records the records to filter
+     * @param candidates the indexes of the records to test in ascending order, or null to test all the records
+     * @param monitor the monitor receiving the progress
+     * @return the indexes of the tested records matching the filter, in ascending order
+     * @throws CancellationException if the monitor reported a cancellation before the end
+     * @throws InterruptedException if the calling thread was interrupted while waiting the chunks
+     */
+    public static int[] filter(@NonNull TableFilter filter, @NonNull List<TableLikeData.Record> records,
+                               int[] candidates, @NonNull Monitor monitor) throws InterruptedException {
+        val indexed = filter.candidates(records.size());
+        if (indexed != null) {
+            if (candidates == null) {
+                candidates = indexed.rows().stream().toArray();
+            } else {
+                val rows = indexed.rows();
+                candidates = Arrays.stream(candidates).filter(rows::get).toArray();
+            }
+            if (indexed.exact()) {
+                monitor.progress(records.size(), records.size());
+                return candidates;
+            }
+        }
+
+        val tested = candidates;
+        val size = tested == null ? records.size() : tested.length;
+        val chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunkCount <= 1) {
+            val result = filterChunk(filter, records, tested, 0, size, monitor::isCancelled);
+            monitor.progress(size, size);
+            return result;
+        }
+
+        val done = new AtomicLong();
+        val stopped = new AtomicBoolean();
+        BooleanSupplier cancelled = () -> stopped.get() || monitor.isCancelled();
+        val tasks = new ArrayList<ForkJoinTask<int[]>>(chunkCount);
+        var completed = false;
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                val from = i * CHUNK_SIZE;
+                val to = Math.min(size, from + CHUNK_SIZE);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                    val result = filterChunk(filter, records, tested, from, to, cancelled);
+                    monitor.progress(done.addAndGet(to - from), size);
+                    return result;
+                }));
+            }
+
+            val results = new int[chunkCount][];
+            var count = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                results[i] = tasks.get(i).get();
+                count += results[i].length;
+            }
+            val rows = new int[count];
+            var offset = 0;
+            for (val result : results) {
+                System.arraycopy(result, 0, rows, offset, result.length);
+                offset += result.length;
+            }
+            completed = true;
+            return rows;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (!completed) {
+                stopped.set(true);
+                for (val task : tasks) task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Tests the candidates (or the rows if candidates is null) from the given positions
+     */
+    private static int[] filterChunk(TableFilter filter, List<TableLikeData.Record> records, int[] candidates,
+                                     int from, int to, BooleanSupplier cancelled) {
+        val rows = new int[to - from];
+        var count = 0;
+        for (int i = from; i < to; i++) {
+            if ((i - from) % CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) throw new CancellationException("Filter cancelled");
+            val row = candidates == null ? i : candidates[i];
+            if (filter.test(records.get(row), row)) rows[count++] = row;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+}
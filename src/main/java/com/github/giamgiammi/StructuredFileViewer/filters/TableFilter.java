@@ -3,13 +3,16 @@ package com.github.giamgiammi.StructuredFileViewer.filters;
 import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
 import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersLexer;
 import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersParser;
+import lombok.NonNull;
 import lombok.val;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.DiagnosticErrorListener;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a functional interface that defines conditions for filtering records
@@ -27,6 +30,18 @@ public interface TableFilter {
      */
     boolean test(TableLikeData.Record record, int rowIndex);
 
+    /**
+     * Returns the rows that can match this filter among the first {@code size} records,
+     * if they can be found without testing each record (e.g. through an index of the data).
+     * The default implementation returns null.
+     *
+     * @param size the number of records to consider, starting from the first
+     * @return the candidate rows, or null if every record must be tested
+     */
+    default Candidates candidates(int size) {
+        return null;
+    }
+
     /**
      * Filters a list of {@code TableLikeData.Record} objects based on the condition
      * defined by the {@code test} method.
@@ -51,15 +66,79 @@ public interface TableFilter {
     }
 
     static TableFilter parse(String query, Iterable<String> columnNames) {
+        return parse(query, new TableFilterVisitor(columnNames));
+    }
+
+    /**
+     * Parses a filter on the given data.
+     * Unlike {@link #parse(String, Iterable)}, the filter can take advantage of how the data is stored.
+     *
+     * @param query the query to parse
+     * @param data the data that will be filtered
+     * @return the filter
+     */
+    static TableFilter parse(String query, @NonNull TableLikeData data) {
+        return parse(query, new TableFilterVisitor(data));
+    }
+
+    /**
+     * Tells if a query refines another one, i.e. if it is a conjunction including all the conditions of the other.
+     * In that case a record can match the refined query only if it matches the other one,
+     * so only the records matching the other query need to be tested.
+     * <p>
+     * The check is syntactic: the conditions joined by AND at the top level (flattening parentheses)
+     * are compared ignoring whitespace.
+     *
+     * @param query the original query
+     * @param refined the query that might refine the original one
+     * @return true if {@code refined} is known to match a subset of the records matched by {@code query}
+     */
+    static boolean isRefinement(String query, String refined) {
+        if (query == null || refined == null || query.isBlank() || refined.isBlank()) return false;
+        val conjuncts = conjuncts(query);
+        val refinedConjuncts = conjuncts(refined);
+        return conjuncts != null && refinedConjuncts != null && refinedConjuncts.containsAll(conjuncts);
+    }
+
+    /**
+     * Returns the text of the conditions joined by AND at the top level of a query, or null if it is not valid
+     */
+    private static Set<String> conjuncts(String query) {
+        val parser = parser(query);
+        parser.removeErrorListeners();
+        val tree = parser.expr();
+        if (parser.getNumberOfSyntaxErrors() > 0) return null;
+
+        val conjuncts = new HashSet<String>();
+        addConjuncts(tree.orExpr(), conjuncts);
+        return conjuncts;
+    }
+
+    private static void addConjuncts(TableFiltersParser.OrExprContext ctx, Set<String> conjuncts) {
+        if (ctx.andExpr().size() > 1) {
+            conjuncts.add(ctx.getText());
+            return;
+        }
+        for (val notExpr : ctx.andExpr(0).notExpr()) {
+            val primary = notExpr.primary();
+            if (primary != null && primary.orExpr() != null) addConjuncts(primary.orExpr(), conjuncts);
+            else conjuncts.add(notExpr.getText());
+        }
+    }
+
+    private static TableFiltersParser parser(String query) {
         val stream = CharStreams.fromString(query);
         val lexer = new TableFiltersLexer(stream);
         val tokens = new CommonTokenStream(lexer);
-        val parser = new TableFiltersParser(tokens);
+        return new TableFiltersParser(tokens);
+    }
+
+    private static TableFilter parse(String query, TableFilterVisitor visitor) {
+        val parser = parser(query);
         parser.removeErrorListeners();
         parser.addErrorListener(new DiagnosticErrorListener());
 
         val tree = parser.expr();
-        val visitor = new TableFilterVisitor(columnNames);
-        return visitor.visit(tree);
+        return TableFilterCompiler.compile(visitor.visit(tree));
     }
 }
@@ -0,0 +1,151 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassHierarchyResolver;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a tree of {@link CompositeFilter} into a single hidden class extending {@link CompiledFilter}.
+ *
+ * The generated {@code test} method evaluates the boolean operators with conditional jumps, short-circuiting
+ * like the composite filters do, and calls the leaf filters (the comparisons) stored in its final fields.
+ * Every leaf gets its own call site, so the JIT can inline it, and no object is allocated while testing a record.
+ *
+ * If the class cannot be generated the tree is returned as it is, since it can be evaluated directly.
+ */
+@Slf4j
+final class TableFilterCompiler {
+    private static final ClassDesc CD_TABLE_FILTER = ClassDesc.of(TableFilter.class.getName());
+    private static final ClassDesc CD_RECORD = ClassDesc.of(TableLikeData.Record.class.getName());
+    private static final MethodTypeDesc MTD_TEST = MethodTypeDesc.of(ConstantDescs.CD_boolean, CD_RECORD, ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_INIT = MethodTypeDesc.of(ConstantDescs.CD_void, CD_TABLE_FILTER, CD_TABLE_FILTER.arrayType());
+    private static final ClassDesc CD_BASE = ClassDesc.of(CompiledFilter.class.getName());
+    private static final MethodTypeDesc MTD_BASE_INIT = MethodTypeDesc.of(ConstantDescs.CD_void, CD_TABLE_FILTER);
+    private static final ClassDesc CD_COMPILED = ClassDesc.of(TableFilterCompiler.class.getPackageName(), "GeneratedFilter");
+
+    private TableFilterCompiler() {
+    }
+
+    /**
+     * Compiles the given filter
+     *
+     * @param filter the filter to compile
+     * @return the compiled filter, or the given one if it can't be compiled or there is nothing to gain by compiling it
+     */
+    static TableFilter compile(TableFilter filter) {
+        if (!(filter instanceof CompositeFilter)) return filter;
+
+        val leaves = new ArrayList<TableFilter>();
+        collectLeaves(filter, leaves);
+        try {
+            val lookup = MethodHandles.lookup();
+            val resolver = ClassHierarchyResolver.defaultResolver().orElse(ClassHierarchyResolver.ofClassLoading(lookup));
+            val bytes = ClassFile.of(ClassFile.ClassHierarchyResolverOption.of(resolver)).build(CD_COMPILED, cb -> {
+                cb.withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC);
+                cb.withSuperclass(CD_BASE);
+                for (int i = 0; i < leaves.size(); i++) {
+                    cb.withField(fieldName(i), CD_TABLE_FILTER, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+                }
+                cb.withMethodBody(ConstantDescs.INIT_NAME, MTD_INIT, ClassFile.ACC_PUBLIC, code -> {
+                    code.aload(0).aload(1).invokespecial(CD_BASE, ConstantDescs.INIT_NAME, MTD_BASE_INIT);
+                    for (int i = 0; i < leaves.size(); i++) {
+                        code.aload(0).aload(2).loadConstant(i).aaload().putfield(CD_COMPILED, fieldName(i), CD_TABLE_FILTER);
+                    }
+                    code.return_();
+                });
+                cb.withMethodBody("test", MTD_TEST, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL, code -> {
+                    val onFalse = code.newLabel();
+                    emit(code, filter, false, onFalse, new int[1]);
+                    code.iconst_1().ireturn();
+                    code.labelBinding(onFalse);
+                    code.iconst_0().ireturn();
+                });
+            });
+
+            val type = lookup.defineHiddenClass(bytes, true).lookupClass();
+            val compiled = (TableFilter) type.getConstructor(TableFilter.class, TableFilter[].class)
+                    .newInstance(filter, leaves.toArray(TableFilter[]::new));
+            log.debug("Compiled filter {} with {} leaves into {}", filter, leaves.size(), type.getName());
+            return compiled;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            log.warn("Failed to compile filter {}, it will be interpreted", filter, e);
+            return filter;
+        }
+    }
+
+    private static String fieldName(int index) {
+        return "leaf" + index;
+    }
+
+    /**
+     * Collects the leaves of the tree, in the same order they are visited by {@link #emit}
+     */
+    private static void collectLeaves(TableFilter filter, List<TableFilter> leaves) {
+        switch (filter) {
+            case CompositeFilter.And and -> {
+                for (val child : and.filters()) collectLeaves(child, leaves);
+            }
+            case CompositeFilter.Or or -> {
+                for (val child : or.filters()) collectLeaves(child, leaves);
+            }
+            case CompositeFilter.Not not -> collectLeaves(not.filter(), leaves);
+            default -> leaves.add(filter);
+        }
+    }
+
+    /**
+     * Emits the code evaluating a filter, which jumps to the target if the result is equal to {@code jumpIf}
+     * and falls through otherwise. The operand stack is empty before and after the code.
+     *
+     * @param code the code builder
+     * @param filter the filter to evaluate
+     * @param jumpIf the result causing the jump
+     * @param target the target of the jump
+     * @param nextLeaf the index of the next leaf to emit, updated while emitting
+     */
+    private static void emit(CodeBuilder code, TableFilter filter, boolean jumpIf, Label target, int[] nextLeaf) {
+        switch (filter) {
+            case CompositeFilter.Not not -> emit(code, not.filter(), !jumpIf, target, nextLeaf);
+            case CompositeFilter.And and -> emitJunction(code, and.filters(), false, jumpIf, target, nextLeaf);
+            case CompositeFilter.Or or -> emitJunction(code, or.filters(), true, jumpIf, target, nextLeaf);
+            default -> {
+                code.aload(0)
+                        .getfield(CD_COMPILED, fieldName(nextLeaf[0]++), CD_TABLE_FILTER)
+                        .aload(1)
+                        .iload(2)
+                        .invokeinterface(CD_TABLE_FILTER, "test", MTD_TEST);
+                if (jumpIf) code.ifne(target);
+                else code.ifeq(target);
+            }
+        }
+    }
+
+    /**
+     * Emits the code of an AND or OR junction.
+     * The result of the junction is decided by the first child equal to {@code decisive}
+     * (false for AND, true for OR), or it is the opposite if no child is decisive.
+     */
+    private static void emitJunction(CodeBuilder code, TableFilter[] children, boolean decisive, boolean jumpIf, Label target, int[] nextLeaf) {
+        if (jumpIf == decisive) {
+            // the first decisive child jumps to the target
+            for (val child : children) emit(code, child, decisive, target, nextLeaf);
+        } else {
+            // a decisive child skips the junction, otherwise the last child decides
+            val skip = code.newLabel();
+            for (int i = 0; i < children.length - 1; i++) emit(code, children[i], decisive, skip, nextLeaf);
+            emit(code, children[children.length - 1], jumpIf, target, nextLeaf);
+            code.labelBinding(skip);
+        }
+    }
+}
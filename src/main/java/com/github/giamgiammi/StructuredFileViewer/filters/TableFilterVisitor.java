@@ -1,21 +1,47 @@
 package com.github.giamgiammi.StructuredFileViewer.filters;
 
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
 import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
 import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersBaseVisitor;
 import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersParser;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
 import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
 import lombok.val;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class TableFilterVisitor extends TableFiltersBaseVisitor<TableFilter> {
     private final Map<String, Integer> columns;
+    private final TableLikeData data;
+    private final ColumnarTableData columnar;
+
+    /**
+     * Creates a visitor for filters on the given data.
+     * If the data is a {@link ColumnarTableData}, comparisons with constant values are evaluated on its dictionary codes.
+     * Equality comparisons can find their rows through {@link TableLikeData#rowsEqual(int, String, int)}.
+     * Values are ordered by the type of their column, see {@link TableLikeData#columnType(int)}.
+     *
+     * @param data the data to filter
+     */
+    public TableFilterVisitor(@NonNull TableLikeData data) {
+        this(data.getColumnNames(), data);
+    }
 
     public TableFilterVisitor(Iterable<String> columnsNames) {
+        this(columnsNames, null);
+    }
+
+    private TableFilterVisitor(Iterable<String> columnsNames, TableLikeData data) {
+        this.data = data;
+        this.columnar = data instanceof ColumnarTableData columnarData ? columnarData : null;
         boolean canUseNames = true;
         val map = new HashMap<String, Integer>();
 
@@ -43,28 +69,29 @@ public class TableFilterVisitor extends TableFiltersBaseVisitor<TableFilter> {
 
     @Override
     public TableFilter visitOrExpr(TableFiltersParser.OrExprContext ctx) {
-        val expressions = ctx.andExpr().stream().map(this::visit).toList();
-        return (r, i) -> expressions.stream().anyMatch(f -> f.test(r, i));
+        val expressions = ctx.andExpr().stream().map(this::visit).toArray(TableFilter[]::new);
+        if (expressions.length == 1) return expressions[0];
+        return new CompositeFilter.Or(expressions);
     }
 
     @Override
     public TableFilter visitAndExpr(TableFiltersParser.AndExprContext ctx) {
-        val expressions = ctx.notExpr().stream().map(this::visit).toList();
-        return (r, i) -> expressions.stream().allMatch(f -> f.test(r, i));
+        val expressions = ctx.notExpr().stream().map(this::visit).toArray(TableFilter[]::new);
+        if (expressions.length == 1) return expressions[0];
+        return new CompositeFilter.And(expressions);
     }
 
     @Override
     public TableFilter visitNotExpr(TableFiltersParser.NotExprContext ctx) {
         if (ctx.NOT() != null) {
-            val filter = visit(ctx.notExpr());
-            return (r, i) -> !filter.test(r, i);
+            return new CompositeFilter.Not(visit(ctx.notExpr()));
         }
         return visit(ctx.primary());
     }
 
     @Override
     public TableFilter visitPrimary(TableFiltersParser.PrimaryContext ctx) {
-        val expr = ctx.expr();
+        val expr = ctx.orExpr();
         if (expr != null) return visit(expr);
         return visit(ctx.comparison());
     }
@@ -76,26 +103,69 @@ public class TableFilterVisitor extends TableFiltersBaseVisitor<TableFilter> {
             val op = ctx.op().getText().toUpperCase();
             val col = ctx.column(0);
             val colIndex = extractColumn(col);
+            val type = columnType(colIndex);
 
-            final ColumnValueSupplier colValue;
-            if (colIndex < 0) colValue = (r, i) -> String.valueOf(i + 1);
-            else colValue = (r, i) -> Objects.toString(r.get(colIndex), null);
-
-            return switch (op) {
-                case "=" -> (r, i) -> Objects.equals(colValue.get(r, i), value);
-                case "<>" -> (r, i) -> !Objects.equals(colValue.get(r, i), value);
-                case ">" -> (r, i) -> Objects.compare(colValue.get(r, i), value, TextUtils::safeCompare) > 0;
-                case ">=" -> (r, i) -> Objects.compare(colValue.get(r, i), value, TextUtils::safeCompare) >= 0;
-                case "<" -> (r, i) -> Objects.compare(colValue.get(r, i), value, TextUtils::safeCompare) < 0;
-                case "<=" -> (r, i) -> Objects.compare(colValue.get(r, i), value, TextUtils::safeCompare) <= 0;
-                case "LIKE" -> (r, i) -> TextUtils.contains(value, colValue.get(r, i));
-                case "ILIKE" -> (r, i) -> TextUtils.containsIgnoreCase(value, colValue.get(r, i));
+            final IntPredicate sign = switch (op) {
+                case ">" -> c -> c > 0;
+                case ">=" -> c -> c >= 0;
+                case "<" -> c -> c < 0;
+                case "<=" -> c -> c <= 0;
+                default -> null;
+            };
+            final Predicate<String> test = switch (op) {
+                case "=", "<>" -> v -> Objects.equals(v, value);
+                case ">", ">=", "<", "<=" -> {
+                    val compare = type.compareWith(value);
+                    yield v -> sign.test(compare.applyAsInt(v));
+                }
+                case "LIKE" -> v -> TextUtils.contains(value, v);
+                case "ILIKE" -> {
+                    if (value == null) yield Objects::isNull;
+                    val lowerCase = value.toLowerCase(Locale.ROOT);
+                    yield v -> TextUtils.containsLowerCase(lowerCase, v);
+                }
                 case "REGEX" -> {
                     val pattern = Pattern.compile(value);
-                    yield (r, i) -> pattern.matcher(colValue.get(r, i)).matches();
+                    yield v -> pattern.matcher(v).matches();
                 }
                 default -> throw new IllegalArgumentException("Invalid operator: " + op);
             };
+            val negate = op.equals("<>");
+
+            if (colIndex < 0) {
+                return (r, i) -> test.test(String.valueOf(i + 1)) != negate;
+            }
+            final TableFilter filter;
+            if (columnar != null) {
+                // evaluated on dictionary codes or typed values instead of values
+                final Predicate<TableLikeData.Record> predicate;
+                if (negate || op.equals("=")) predicate = columnar.columnEquals(colIndex, value);
+                else if (sign != null) predicate = columnar.columnCompare(colIndex, type, value, sign);
+                else predicate = columnar.columnPredicate(colIndex, test);
+                filter = (r, i) -> predicate.test(r) != negate;
+            } else {
+                filter = (r, i) -> test.test(Objects.toString(r.get(colIndex), null)) != negate;
+            }
+            if (data == null) return filter;
+            val description = "$%d %s %s".formatted(colIndex + 1, op, value);
+            return switch (op) {
+                case "=", "<>" -> new IndexedFilter(filter, size -> {
+                    val rows = data.rowsEqual(colIndex, value, size);
+                    if (rows == null) return null;
+                    if (negate) rows.flip(0, size);
+                    return new Candidates(rows, true);
+                }, description);
+                case "LIKE", "ILIKE" -> {
+                    if (value == null) yield filter;
+                    val ignoreCase = op.equals("ILIKE");
+                    val text = ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+                    yield new IndexedFilter(filter, size -> {
+                        val rows = data.rowsContaining(colIndex, text, ignoreCase, size);
+                        return rows == null ? null : new Candidates(rows, false);
+                    }, description);
+                }
+                default -> filter;
+            };
         } else {
             val op = ctx.op().getText().toUpperCase();
 
@@ -113,13 +183,16 @@ public class TableFilterVisitor extends TableFiltersBaseVisitor<TableFilter> {
             if (colIndex2 < 0) colValue2 = (r, i) -> String.valueOf(i + 1);
             else colValue2 = (r, i) -> Objects.toString(r.get(colIndex2), null);
 
+            // both columns are compared by the type matching the values of both
+            val type = columnType(colIndex1).widen(columnType(colIndex2));
+
             return switch (op) {
                 case "=" -> (r, i) -> Objects.equals(colValue1.get(r, i), colValue2.get(r, i));
                 case "<>" -> (r, i) -> !Objects.equals(colValue1.get(r, i), colValue2.get(r, i));
-                case ">" -> (r, i) -> Objects.compare(colValue1.get(r, i), colValue2.get(r, i), TextUtils::safeCompare) > 0;
-                case ">=" -> (r, i) -> Objects.compare(colValue1.get(r, i), colValue2.get(r, i), TextUtils::safeCompare) >= 0;
-                case "<" -> (r, i) -> Objects.compare(colValue1.get(r, i), colValue2.get(r, i), TextUtils::safeCompare) < 0;
-                case "<=" -> (r, i) -> Objects.compare(colValue1.get(r, i), colValue2.get(r, i), TextUtils::safeCompare) <= 0;
+                case ">" -> (r, i) -> type.compare(colValue1.get(r, i), colValue2.get(r, i)) > 0;
+                case ">=" -> (r, i) -> type.compare(colValue1.get(r, i), colValue2.get(r, i)) >= 0;
+                case "<" -> (r, i) -> type.compare(colValue1.get(r, i), colValue2.get(r, i)) < 0;
+                case "<=" -> (r, i) -> type.compare(colValue1.get(r, i), colValue2.get(r, i)) <= 0;
                 case "LIKE" -> (r, i) -> TextUtils.contains(colValue2.get(r, i), colValue1.get(r, i));
                 case "ILIKE" -> (r, i) -> TextUtils.containsIgnoreCase(colValue2.get(r, i), colValue1.get(r, i));
                 case "REGEX" -> (r, i) -> colValue1.get(r, i).matches(colValue2.get(r, i));
@@ -128,6 +201,14 @@ public class TableFilterVisitor extends TableFiltersBaseVisitor<TableFilter> {
         }
     }
 
+    /**
+     * Returns the type of a column: integers for the row number, strings if the data is unknown
+     */
+    private ColumnType columnType(int colIndex) {
+        if (colIndex < 0) return ColumnType.INTEGER;
+        return data == null ? ColumnType.STRING : data.columnType(colIndex);
+    }
+
     private int extractColumn(TableFiltersParser.ColumnContext ctx) {
         if (ctx == null) throw new IllegalArgumentException("No column provided");
         if (ctx.DOLLAR_INDEX() != null) {
@@ -0,0 +1,1036 @@
+package com.github.giamgiammi.StructuredFileViewer.model;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.val;
+
+import java.lang.ref.Cleaner;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents a table-like data structure storing its values by column.
+ * It is meant to be filled by a parser and can be shown to the user before the parsing is completed.
+ *
+ * Each column keeps a dictionary of its distinct values and, for every record, the int code of its value
+ * in the dictionary, so that repeated values are stored only once. When a column has too many distinct values
+ * the dictionary would only add overhead, and the column falls back to storing the values directly.
+ * Values are stored in fixed-size chunks, so appending never copies the values already stored.
+ *
+ * Each column also infers the {@link ColumnType} of its values, looking at every distinct value while it has
+ * a dictionary. When the dictionary is dropped, the values seen so far are the sample deciding how the column
+ * is stored: if they all match a numeric, date or timestamp type, the column stores them as {@code int} or
+ * {@code long} primitives (e.g. the days since the epoch for dates) with a bit set of the missing values, and converts
+ * them back to their exact text when accessed. A later value not matching the type makes the column widen its type
+ * (e.g. from integers to decimals) or fall back to storing the values directly, still tracking their type.
+ *
+ * Records are created when accessed and only hold their row index. The column names are the header provided
+ * at construction time, padded with empty names up to the width of the largest record appended so far.
+ * Values missing from shorter records are null.
+ *
+ * Filters can test values by their dictionary code through {@link #columnEquals(int, String)} and
+ * {@link #columnPredicate(int, Predicate)}, evaluating the condition once per distinct value instead of once per record.
+ * Comparisons by {@link #columnCompare(int, ColumnType, String, IntPredicate)} on columns stored by type
+ * compare the primitives, without converting them back to text.
+ * Equality filters can also be answered by {@link #rowsEqual(int, String, int)} through an index of the rows of each code,
+ * built the first time a column is looked up and extended with the records appended later.
+ * In the same way, the rows of columns without a dictionary that might contain a text are narrowed
+ * by {@link #rowsContaining(int, String, boolean, int)} through a {@link NgramIndex}, built in background
+ * as the pages of the column are sealed.
+ *
+ * The chunks of the columns without a dictionary, which take most of the memory of big tables, are {@link PageCache} pages:
+ * once full their values are moved off the heap, and they can be spilled to a temporary file mapped in memory
+ * when the pages of all the tables exceed the memory budget. Their memory is released and the file deleted
+ * by {@link #close()}, or once the table is garbage collected.
+ *
+ * Thread safety:
+ * - Only one thread at a time may call {@link #append(String[])}.
+ * - Any thread may read concurrently; {@link #getRecords()} returns a snapshot view
+ *   of the records appended up to that moment.
+ */
+public final class ColumnarTableData implements TableLikeData {
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int NULL_CODE = -1;
+    /**
+     * Maximum number of distinct values of a dictionary-encoded column
+     */
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    /**
+     * Number of records after which a column with more distinct values than half its records stops using the dictionary
+     */
+    private static final int DICTIONARY_CHECK_ROWS = 1 << 12;
+    /**
+     * Returned by {@link Encoding#encode(String)} for values that cannot be stored by the encoding
+     */
+    private static final long MISFIT = Long.MIN_VALUE;
+
+    private final List<String> header;
+    private volatile Column[] columns = new Column[0];
+    private volatile int size;
+    private volatile List<String> columnNames;
+    private final HashMap<Integer, ColumnIndex> indexes = new HashMap<>();
+    private final PageCache.PageFile pageFile;
+    private final Cleaner.Cleanable cleanable;
+
+    public ColumnarTableData(List<String> header) {
+        this(header, PageCache.getInstance());
+    }
+
+    /**
+     * @param header the names of the columns
+     * @param pageCache the cache of the pages of the columns without a dictionary
+     */
+    ColumnarTableData(List<String> header, @NonNull PageCache pageCache) {
+        this.header = header == null ? List.of() : List.copyOf(header);
+        this.columnNames = this.header;
+        this.pageFile = pageCache.newFile();
+        // the pages of a table not closed would stay in the cache
+        this.cleanable = CLEANER.register(this, pageFile::close);
+    }
+
+    /**
+     * Appends a new record at the end of the table.
+     * The record becomes visible to readers as soon as this method returns.
+     *
+     * @param values the values of the record
+     */
+    public void append(@NonNull String[] values) {
+        val row = size;
+        var local = columns;
+        if (values.length > local.length) {
+            local = Arrays.copyOf(local, values.length);
+            for (int i = columns.length; i < local.length; i++) local[i] = new DictionaryColumn();
+            columns = local;
+            if (values.length > header.size()) columnNames = Stream.concat(
+                    header.stream(),
+                    IntStream.range(0, values.length - header.size()).mapToObj(i -> "")
+            ).toList();
+        }
+        for (int i = 0; i < local.length; i++) {
+            val value = i < values.length ? values[i] : null;
+            val column = local[i];
+            final boolean stored;
+            if (column instanceof DictionaryColumn dictionaryColumn) {
+                stored = dictionaryColumn.set(row, value);
+            } else if (column instanceof TypedColumn typedColumn) {
+                stored = typedColumn.set(row, value);
+            } else {
+                ((RawColumn) column).set(row, value);
+                stored = true;
+            }
+            if (!stored) {
+                // too many distinct values for the dictionary, or a value not matching the type
+                local = local.clone();
+                local[i] = replace(column, row, value, pageFile);
+                columns = local;
+            }
+        }
+        size = row + 1;
+    }
+
+    /**
+     * Creates a column with the values of the first records of a column that cannot store the value of the next record.
+     * The values are stored by type if they all match one, directly otherwise.
+     *
+     * @param column the column to replace
+     * @param rows the number of records stored by the column
+     * @param value the value of the next record, which is stored by the new column; not null
+     * @param pageFile the file of the pages of the new column, if stored directly
+     * @return the new column
+     */
+    private static Column replace(Column column, int rows, String value, PageCache.PageFile pageFile) {
+        var encoding = Encoding.of(ColumnType.of(value).widen(column.type()), value);
+        while (encoding != null) {
+            val typed = new TypedColumn(encoding);
+            var misfit = value;
+            for (int row = 0; row < rows && misfit == value; row++) {
+                val current = column.get(row);
+                if (!typed.set(row, current)) misfit = current;
+            }
+            if (misfit == value && typed.set(rows, value)) return typed;
+            encoding = encoding.widen(misfit);
+        }
+        val raw = new RawColumn(column, rows, pageFile);
+        raw.set(rows, value);
+        return raw;
+    }
+
+    /**
+     * Returns the number of records appended so far
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public @NonNull List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public @NonNull List<Record> getRecords() {
+        return new RecordsView(size);
+    }
+
+    /**
+     * Returns true, since records are created when accessed
+     */
+    @Override
+    public boolean hasLazyRecords() {
+        return true;
+    }
+
+    /**
+     * Returns the value of a cell
+     *
+     * @param column the index of the column
+     * @param row the index of the record
+     * @return the value, or null if the record has no value for the column
+     */
+    public String get(int column, int row) {
+        val local = columns;
+        if (column < 0 || column >= local.length) return null;
+        return local[column].get(row);
+    }
+
+    /**
+     * Returns a predicate testing if the value of a column is equal to the given value.
+     * For dictionary-encoded columns the value is resolved to its code, so that records are tested
+     * by comparing integers. Records of other tables are tested by their value.
+     *
+     * @param column the index of the column
+     * @param value the value to look for; might be null
+     * @return the predicate
+     */
+    public Predicate<Record> columnEquals(int column, String value) {
+        return new EqualsPredicate(column, value);
+    }
+
+    /**
+     * Returns a predicate testing the value of a column with the given test.
+     * For dictionary-encoded columns the test is evaluated only once for each distinct value
+     * and the result is remembered by code. Records of other tables are tested by their value.
+     *
+     * The test must be a pure function of its argument, since it might be evaluated on different threads
+     * or more than once for the same value.
+     *
+     * @param column the index of the column
+     * @param test the test to apply to values; it might receive null
+     * @return the predicate
+     */
+    public Predicate<Record> columnPredicate(int column, @NonNull Predicate<String> test) {
+        return new CachedPredicate(column, test);
+    }
+
+    /**
+     * Returns a predicate comparing the value of a column with the given value, in the order of the given type.
+     * For columns storing their values by a compatible type (the same type, or both numeric) the values
+     * are compared as primitives. Other columns are tested like {@link #columnPredicate(int, Predicate)}.
+     *
+     * @param column the index of the column
+     * @param type the type whose order is followed, see {@link ColumnType#compare(String, String)}
+     * @param value the value to compare with; might be null
+     * @param result tests the result of the comparison of the value of a record with the given value
+     * @return the predicate
+     */
+    public Predicate<Record> columnCompare(int column, @NonNull ColumnType type, String value, @NonNull IntPredicate result) {
+        return new ComparePredicate(column, type, value, result);
+    }
+
+    /**
+     * Returns the type of a column, inferred from all the values appended so far
+     */
+    @Override
+    public ColumnType columnType(int column) {
+        val col = column(column);
+        val type = col == null ? null : col.type();
+        return type == null ? ColumnType.STRING : type;
+    }
+
+    /**
+     * Returns the rows whose value of a column is equal to the given one.
+     * Only dictionary-encoded columns are indexed, since other columns have mostly unique values.
+     */
+    @Override
+    public BitSet rowsEqual(int column, String value, int size) {
+        val col = column(column);
+        if (col == null) {
+            val rows = new BitSet(size);
+            if (value == null) rows.set(0, size);
+            return rows;
+        }
+        if (!(col instanceof DictionaryColumn dictionaryColumn)) return null;
+
+        ColumnIndex index;
+        synchronized (indexes) {
+            index = indexes.get(column);
+            if (index == null || index.column != dictionaryColumn) {
+                index = new ColumnIndex(dictionaryColumn);
+                indexes.put(column, index);
+            }
+        }
+        return index.rowsEqual(value, size);
+    }
+
+    /**
+     * Returns the rows whose value of a column might contain the given text.
+     * Only columns without a dictionary are indexed, since the filters on dictionary-encoded columns
+     * test each distinct value only once.
+     */
+    @Override
+    public BitSet rowsContaining(int column, @NonNull String text, boolean ignoreCase, int size) {
+        if (!(column(column) instanceof RawColumn rawColumn)) return null;
+        return rawColumn.index.rowsContaining(text, ignoreCase, size);
+    }
+
+    /**
+     * Waits until the trigram indexes of the columns cover the pages sealed so far
+     */
+    void awaitIndexes() throws InterruptedException {
+        for (val column : columns) {
+            if (column instanceof RawColumn rawColumn) rawColumn.index.await();
+        }
+    }
+
+    /**
+     * Returns the row of the given record if it belongs to this table, -1 otherwise
+     */
+    private int rowOf(Record record) {
+        return record instanceof ColumnarRecord r && r.owner() == this ? r.row : -1;
+    }
+
+    /**
+     * Returns the column with the given index, or null if no record has a value for it
+     */
+    private Column column(int column) {
+        val local = columns;
+        return column < 0 || column >= local.length ? null : local[column];
+    }
+
+    /**
+     * Deletes the file of the spilled pages, if any; the records must not be accessed afterwards
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{columnNames=%s, size=%d}", getClass().getSimpleName(), columnNames, size);
+    }
+
+    private abstract static sealed class Column permits DictionaryColumn, RawColumn, TypedColumn {
+        abstract String get(int row);
+
+        /**
+         * Returns the narrowest type of the values stored, or null if all values are missing
+         */
+        abstract ColumnType type();
+    }
+
+    private static final class DictionaryColumn extends Column {
+        /**
+         * Code of each value, only accessed by the writer
+         */
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private volatile String[] dictionary = new String[16];
+        private volatile int dictionarySize;
+        private volatile int[][] chunks = new int[16][];
+        private volatile ColumnType type;
+
+        /**
+         * Stores the value of a record
+         *
+         * @return false if the value was not stored because the column has too many distinct values
+         */
+        private boolean set(int row, String value) {
+            var code = NULL_CODE;
+            if (value != null) {
+                val existing = codes.get(value);
+                if (existing != null) {
+                    code = existing;
+                } else {
+                    code = dictionarySize;
+                    if (code >= MAX_DICTIONARY_SIZE || (row >= DICTIONARY_CHECK_ROWS && code > row / 2)) return false;
+                    var local = dictionary;
+                    if (code == local.length) {
+                        local = Arrays.copyOf(local, local.length * 2);
+                        dictionary = local;
+                    }
+                    local[code] = value;
+                    codes.put(value, code);
+                    dictionarySize = code + 1;
+                    type = ColumnType.of(value).widen(type);
+                }
+            }
+
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            var local = chunks;
+            if (chunkIndex >= local.length) {
+                local = Arrays.copyOf(local, Math.max(local.length * 2, chunkIndex + 1));
+                chunks = local;
+            }
+            if (local[chunkIndex] == null) {
+                val chunk = new int[CHUNK_SIZE];
+                Arrays.fill(chunk, NULL_CODE);
+                local[chunkIndex] = chunk;
+            }
+            local[chunkIndex][row & CHUNK_MASK] = code;
+            return true;
+        }
+
+        private int code(int row) {
+            val local = chunks;
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            if (chunkIndex >= local.length || local[chunkIndex] == null) return NULL_CODE;
+            return local[chunkIndex][row & CHUNK_MASK];
+        }
+
+        @Override
+        String get(int row) {
+            val code = code(row);
+            return code == NULL_CODE ? null : dictionary[code];
+        }
+
+        @Override
+        ColumnType type() {
+            return type;
+        }
+    }
+
+    /**
+     * A column storing its values directly, in pages that are sealed once full.
+     * The rows of the sealed pages are added to the trigram index of the column in background.
+     */
+    private static final class RawColumn extends Column {
+        private final PageCache.PageFile pageFile;
+        private final NgramIndex index = new NgramIndex(this::get);
+        private volatile PageCache.Page[] chunks;
+        private volatile ColumnType type;
+
+        /**
+         * Creates a column with the values of the first records of another column
+         */
+        private RawColumn(Column column, int rows, PageCache.PageFile pageFile) {
+            this.pageFile = pageFile;
+            type = column.type();
+            val local = new PageCache.Page[Math.max(16, (rows >>> CHUNK_SHIFT) + 1)];
+            for (int row = 0; row < rows; row++) {
+                val value = column.get(row);
+                if (value == null) continue;
+                if (local[row >>> CHUNK_SHIFT] == null) local[row >>> CHUNK_SHIFT] = pageFile.newPage(CHUNK_SIZE);
+                local[row >>> CHUNK_SHIFT].set(row & CHUNK_MASK, value);
+            }
+            for (int chunkIndex = 0; chunkIndex < rows >>> CHUNK_SHIFT; chunkIndex++) {
+                if (local[chunkIndex] != null) local[chunkIndex].seal();
+            }
+            chunks = local;
+            index.extend(rows & ~CHUNK_MASK);
+        }
+
+        private void set(int row, String value) {
+            if (value != null && type != ColumnType.STRING) type = ColumnType.of(value).widen(type);
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            var local = chunks;
+            if (chunkIndex >= local.length) {
+                local = Arrays.copyOf(local, Math.max(local.length * 2, chunkIndex + 1));
+                chunks = local;
+            }
+            if (local[chunkIndex] == null && value != null) local[chunkIndex] = pageFile.newPage(CHUNK_SIZE);
+            val page = local[chunkIndex];
+            if (page != null && value != null) page.set(row & CHUNK_MASK, value);
+            // the last record of the page, it will not change anymore
+            if ((row & CHUNK_MASK) == CHUNK_MASK) {
+                if (page != null) page.seal();
+                index.extend(row + 1);
+            }
+        }
+
+        @Override
+        String get(int row) {
+            val local = chunks;
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            if (chunkIndex >= local.length || local[chunkIndex] == null) return null;
+            return local[chunkIndex].get(row & CHUNK_MASK);
+        }
+
+        @Override
+        ColumnType type() {
+            return type;
+        }
+    }
+
+    /**
+     * A column whose values all match a type, stored as primitives by an {@link Encoding}.
+     * Each chunk has a bit set of the values present, missing values are not stored.
+     */
+    private static final class TypedColumn extends Column {
+        private final Encoding encoding;
+        private final boolean wide;
+        private final boolean decimal;
+        private volatile int[][] ints = new int[16][];
+        private volatile long[][] longs = new long[16][];
+        /**
+         * The number of decimal digits of each value, only for decimals
+         */
+        private volatile byte[][] scales = new byte[16][];
+        private volatile long[][] present = new long[16][];
+
+        private TypedColumn(Encoding encoding) {
+            this.encoding = encoding;
+            this.wide = encoding.wide();
+            this.decimal = encoding.type() == ColumnType.DECIMAL;
+        }
+
+        /**
+         * Stores the value of a record
+         *
+         * @return false if the value was not stored because it cannot be encoded
+         */
+        private boolean set(int row, String value) {
+            if (value == null) return true;
+            val encoded = encoding.encode(value);
+            if (encoded == MISFIT) return false;
+
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            if (chunkIndex >= present.length) {
+                val length = Math.max(present.length * 2, chunkIndex + 1);
+                ints = Arrays.copyOf(ints, length);
+                longs = Arrays.copyOf(longs, length);
+                scales = Arrays.copyOf(scales, length);
+                present = Arrays.copyOf(present, length);
+            }
+            if (present[chunkIndex] == null) {
+                if (wide) longs[chunkIndex] = new long[CHUNK_SIZE];
+                else ints[chunkIndex] = new int[CHUNK_SIZE];
+                if (decimal) scales[chunkIndex] = new byte[CHUNK_SIZE];
+                present[chunkIndex] = new long[CHUNK_SIZE >>> 6];
+            }
+            val offset = row & CHUNK_MASK;
+            if (wide) longs[chunkIndex][offset] = encoded;
+            else ints[chunkIndex][offset] = (int) encoded;
+            if (decimal) scales[chunkIndex][offset] = (byte) scaleOf(value);
+            present[chunkIndex][offset >>> 6] |= 1L << offset;
+            return true;
+        }
+
+        private boolean isPresent(int row) {
+            val local = present;
+            val chunkIndex = row >>> CHUNK_SHIFT;
+            if (chunkIndex >= local.length || local[chunkIndex] == null) return false;
+            return (local[chunkIndex][(row & CHUNK_MASK) >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * Returns the encoded value of a record, which must be present
+         */
+        private long value(int row) {
+            return wide ? longs[row >>> CHUNK_SHIFT][row & CHUNK_MASK] : ints[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        /**
+         * Returns the number of decimal digits of the value of a record, which must be present
+         */
+        private int scale(int row) {
+            return decimal ? scales[row >>> CHUNK_SHIFT][row & CHUNK_MASK] : 0;
+        }
+
+        @Override
+        String get(int row) {
+            return isPresent(row) ? encoding.decode(value(row), scale(row)) : null;
+        }
+
+        @Override
+        ColumnType type() {
+            return encoding.type();
+        }
+    }
+
+    /**
+     * How the values of a {@link TypedColumn} are stored as integers: numbers as their digits with a fixed number
+     * of decimal digits, dates as the days since the epoch and timestamps as the milliseconds since the epoch.
+     * Only values in their canonical form are encoded, so that they are decoded to the same text.
+     *
+     * @param type the type of the values
+     * @param format the number of decimal digits for decimals, the index in {@link ColumnType#TIMESTAMP_FORMATS}
+     *               for timestamps, 0 otherwise
+     */
+    private record Encoding(ColumnType type, int format) {
+        /**
+         * Returns the encoding of a type, with the format of the given value
+         *
+         * @return the encoding, or null if the values of the type are not stored as integers
+         */
+        private static Encoding of(ColumnType type, String value) {
+            return switch (type) {
+                case INTEGER, LONG, DATE -> new Encoding(type, 0);
+                case DECIMAL -> new Encoding(type, scaleOf(value));
+                case TIMESTAMP -> new Encoding(type, ColumnType.timestampFormat(value));
+                default -> null;
+            };
+        }
+
+        /**
+         * Returns an encoding of the same type able to store the given value too, if any
+         *
+         * @return the encoding, or null if the value would not fit any encoding of the type
+         */
+        private Encoding widen(String value) {
+            if (type != ColumnType.DECIMAL || value == null) return null;
+            val valueType = ColumnType.of(value);
+            if (!valueType.isNumeric() || scaleOf(value) <= format) return null;
+            return new Encoding(type, scaleOf(value));
+        }
+
+        /**
+         * Returns true if the encoded values need a {@code long}
+         */
+        private boolean wide() {
+            return type != ColumnType.INTEGER && type != ColumnType.DATE;
+        }
+
+        /**
+         * Encodes a value
+         *
+         * @return the encoded value, or {@link #MISFIT} if the value cannot be encoded
+         */
+        private long encode(String value) {
+            return switch (type) {
+                case INTEGER -> ColumnType.of(value) == ColumnType.INTEGER ? Integer.parseInt(value) : MISFIT;
+                case LONG -> {
+                    val valueType = ColumnType.of(value);
+                    yield valueType == ColumnType.INTEGER || valueType == ColumnType.LONG ? Long.parseLong(value) : MISFIT;
+                }
+                case DECIMAL -> ColumnType.of(value).isNumeric() ? unscaled(value) : MISFIT;
+                case DATE -> {
+                    val date = ColumnType.parseDate(value);
+                    yield date == null ? MISFIT : date.toEpochDay();
+                }
+                case TIMESTAMP -> {
+                    if (ColumnType.timestampFormat(value) != format) yield MISFIT;
+                    yield toMillis(ColumnType.parseTimestamp(value));
+                }
+                default -> MISFIT;
+            };
+        }
+
+        /**
+         * Returns the digits of a number, as an integer with {@link #format} decimal digits
+         */
+        private long unscaled(String value) {
+            val negative = value.charAt(0) == '-';
+            long result = 0;
+            int scale = -1;
+            try {
+                for (int i = negative ? 1 : 0; i < value.length(); i++) {
+                    val c = value.charAt(i);
+                    if (c == '.') {
+                        scale = 0;
+                        continue;
+                    }
+                    result = Math.addExact(Math.multiplyExact(result, 10), c - '0');
+                    if (scale >= 0) scale++;
+                }
+                if (scale > format) return MISFIT;
+                for (scale = Math.max(scale, 0); scale < format; scale++) result = Math.multiplyExact(result, 10);
+            } catch (ArithmeticException e) {
+                return MISFIT;
+            }
+            // the sign of a negative zero would be lost
+            if (negative && result == 0) return MISFIT;
+            return negative ? -result : result;
+        }
+
+        /**
+         * Decodes a value
+         *
+         * @param value the encoded value
+         * @param scale the number of decimal digits of the value, only for decimals
+         */
+        private String decode(long value, int scale) {
+            return switch (type) {
+                case INTEGER, LONG -> Long.toString(value);
+                case DECIMAL -> BigDecimal.valueOf(value, format).setScale(scale, RoundingMode.UNNECESSARY).toPlainString();
+                case DATE -> LocalDate.ofEpochDay(value).toString();
+                case TIMESTAMP -> ColumnType.TIMESTAMP_FORMATS.get(format).format(LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(value, 1000), (int) Math.floorMod(value, 1000) * 1_000_000, ZoneOffset.UTC));
+                default -> throw new IllegalStateException("Type not encoded: " + type);
+            };
+        }
+
+        /**
+         * Converts a typed value, as returned by {@link ColumnType#key(String)}, to the unit of the encoded values
+         *
+         * @return the bound, or null if the typed value is not of a compatible type
+         */
+        private Bound bound(Object key) {
+            if (key instanceof BigDecimal number && type.isNumeric()) {
+                val scaled = number.movePointRight(type == ColumnType.DECIMAL ? format : 0);
+                val floor = scaled.setScale(0, RoundingMode.FLOOR);
+                if (floor.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) return new Bound(Long.MAX_VALUE, true);
+                if (floor.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) return new Bound(Long.MIN_VALUE, false);
+                return new Bound(floor.longValueExact(), scaled.compareTo(floor) != 0);
+            }
+            if (key instanceof LocalDate date && type == ColumnType.DATE) return new Bound(date.toEpochDay(), false);
+            if (key instanceof LocalDateTime timestamp && type == ColumnType.TIMESTAMP) {
+                return new Bound(toMillis(timestamp), timestamp.getNano() % 1_000_000 != 0);
+            }
+            return null;
+        }
+
+        private static long toMillis(LocalDateTime timestamp) {
+            return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000 + timestamp.getNano() / 1_000_000;
+        }
+    }
+
+    /**
+     * A typed value in the unit of an {@link Encoding}, rounded down
+     *
+     * @param value the encoded value, rounded down
+     * @param fraction true if the typed value is greater than the encoded value
+     */
+    private record Bound(long value, boolean fraction) {
+        /**
+         * Compares an encoded value with this bound, following {@link Long#compare(long, long)}
+         */
+        private int compare(long encoded) {
+            val c = Long.compare(encoded, value);
+            return c == 0 && fraction ? -1 : c;
+        }
+    }
+
+    /**
+     * Returns the number of decimal digits of a number
+     */
+    private static int scaleOf(String value) {
+        val dot = value.indexOf('.');
+        return dot < 0 ? 0 : value.length() - dot - 1;
+    }
+
+    /**
+     * The rows of each code of a dictionary-encoded column
+     */
+    private static final class ColumnIndex {
+        private final DictionaryColumn column;
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private Postings[] postings = new Postings[16];
+        private final Postings nulls = new Postings();
+        private int indexedRows;
+
+        private ColumnIndex(DictionaryColumn column) {
+            this.column = column;
+        }
+
+        private synchronized BitSet rowsEqual(String value, int size) {
+            for (int row = indexedRows; row < size; row++) {
+                val code = column.code(row);
+                if (code == NULL_CODE) {
+                    nulls.add(row);
+                    continue;
+                }
+                if (code >= postings.length) postings = Arrays.copyOf(postings, Math.max(postings.length * 2, code + 1));
+                if (postings[code] == null) postings[code] = new Postings();
+                postings[code].add(row);
+            }
+            indexedRows = Math.max(indexedRows, size);
+
+            if (value == null) return nulls.toBitSet(size);
+            // the size is read first, the dictionary is replaced before the size grows
+            val dictionarySize = column.dictionarySize;
+            val dictionary = column.dictionary;
+            for (int code = codes.size(); code < dictionarySize; code++) codes.put(dictionary[code], code);
+            val code = codes.get(value);
+            if (code == null || code >= postings.length || postings[code] == null) return new BitSet(size);
+            return postings[code].toBitSet(size);
+        }
+    }
+
+    /**
+     * The ascending rows of a value, stored as a list of indexes while they are sparse and as a bit set otherwise
+     */
+    private static final class Postings {
+        private int[] rows = new int[4];
+        private int count;
+        private BitSet bits;
+
+        private void add(int row) {
+            if (bits != null) {
+                bits.set(row);
+                return;
+            }
+            if (count == rows.length) rows = Arrays.copyOf(rows, count * 2);
+            rows[count++] = row;
+            // an index takes 32 bits, while a bit set takes one bit for every row
+            if (count > 64 && count > row >>> 5) {
+                bits = new BitSet(row + 1);
+                for (int i = 0; i < count; i++) bits.set(rows[i]);
+                rows = null;
+            }
+        }
+
+        private BitSet toBitSet(int size) {
+            if (bits != null) return bits.get(0, size);
+            val result = new BitSet(size);
+            for (int i = 0; i < count && rows[i] < size; i++) result.set(rows[i]);
+            return result;
+        }
+    }
+
+    private final class RecordsView extends AbstractList<Record> implements RandomAccess {
+        private final int size;
+
+        private RecordsView(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Record get(int index) {
+            Objects.checkIndex(index, size);
+            return new ColumnarRecord(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class ColumnarRecord implements Record {
+        private final int row;
+
+        private ColumnarRecord(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int column) {
+            return ColumnarTableData.this.get(column, row);
+        }
+
+        private ColumnarTableData owner() {
+            return ColumnarTableData.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ColumnarRecord other && other.row == row && other.owner() == owner();
+        }
+
+        @Override
+        public int hashCode() {
+            return Integer.hashCode(row);
+        }
+
+        @Override
+        public String toString() {
+            val b = new StringBuilder()
+                    .append(getClass().getSimpleName())
+                    .append('{');
+            val names = columnNames;
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) b.append(", ");
+                if (!names.get(i).isEmpty()) b.append(names.get(i)).append('=');
+                b.append(get(i));
+            }
+            return b.append('}').toString();
+        }
+    }
+
+    /**
+     * Compares the codes of the records with the code of a value.
+     * The code is resolved again when the dictionary grows and the value was not found yet.
+     */
+    private final class EqualsPredicate implements Predicate<Record> {
+        private final int column;
+        private final String value;
+        private volatile Resolved resolved;
+        private volatile Encoded encoded;
+
+        private EqualsPredicate(int column, String value) {
+            this.column = column;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            val row = rowOf(record);
+            if (row < 0) return Objects.equals(Objects.toString(record.get(column), null), value);
+
+            val col = column(column);
+            if (col instanceof TypedColumn typedColumn) return test(typedColumn, row);
+            if (!(col instanceof DictionaryColumn dictionaryColumn)) return Objects.equals(col == null ? null : col.get(row), value);
+            if (value == null) return dictionaryColumn.code(row) == NULL_CODE;
+
+            var local = resolved;
+            if (local == null || local.column() != dictionaryColumn || (local.code() == NULL_CODE && local.scanned() < dictionaryColumn.dictionarySize)) {
+                local = resolve(dictionaryColumn, local);
+                resolved = local;
+            }
+            return local.code() != NULL_CODE && dictionaryColumn.code(row) == local.code();
+        }
+
+        /**
+         * Compares the encoded value of a record with the value encoded by the column.
+         * Values are stored in canonical form, so a value that cannot be encoded is not equal to any of them.
+         */
+        private boolean test(TypedColumn column, int row) {
+            if (value == null) return !column.isPresent(row);
+            var local = encoded;
+            if (local == null || local.column() != column) {
+                local = new Encoded(column, column.encoding.encode(value), scaleOf(value));
+                encoded = local;
+            }
+            return local.value() != MISFIT && column.isPresent(row) && column.value(row) == local.value()
+                    && column.scale(row) == (column.decimal ? local.scale() : 0);
+        }
+
+        private Resolved resolve(DictionaryColumn column, Resolved previous) {
+            val size = column.dictionarySize;
+            val dictionary = column.dictionary;
+            val from = previous != null && previous.column() == column ? previous.scanned() : 0;
+            for (int code = from; code < size; code++) {
+                if (value.equals(dictionary[code])) return new Resolved(column, size, code);
+            }
+            return new Resolved(column, size, NULL_CODE);
+        }
+    }
+
+    /**
+     * The code of a value in a dictionary
+     *
+     * @param column the column owning the dictionary
+     * @param scanned the number of values of the dictionary already looked at
+     * @param code the code found, or {@link #NULL_CODE} if not found
+     */
+    private record Resolved(DictionaryColumn column, int scanned, int code) {}
+
+    /**
+     * A value encoded by a column
+     *
+     * @param column the column storing values by type
+     * @param value the encoded value, or {@link #MISFIT} if it cannot be encoded
+     * @param scale the number of decimal digits of the value
+     */
+    private record Encoded(TypedColumn column, long value, int scale) {}
+
+    /**
+     * Remembers the result of a test for each code of a dictionary-encoded column.
+     * Results are stored as 0 (not evaluated), 1 (false) or 2 (true); concurrent evaluations of the same
+     * value store the same result, so races are harmless.
+     */
+    private final class CachedPredicate implements Predicate<Record> {
+        private final int column;
+        private final Predicate<String> test;
+        private volatile Cache cache;
+        private volatile Boolean nullResult;
+
+        private CachedPredicate(int column, Predicate<String> test) {
+            this.column = column;
+            this.test = test;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            val row = rowOf(record);
+            if (row < 0) return test.test(Objects.toString(record.get(column), null));
+
+            val col = column(column);
+            if (!(col instanceof DictionaryColumn dictionaryColumn)) return test.test(col == null ? null : col.get(row));
+
+            val code = dictionaryColumn.code(row);
+            if (code == NULL_CODE) {
+                var local = nullResult;
+                if (local == null) {
+                    local = test.test(null);
+                    nullResult = local;
+                }
+                return local;
+            }
+
+            var local = cache;
+            if (local == null || local.column() != dictionaryColumn || code >= local.results().length) {
+                local = new Cache(dictionaryColumn, local != null && local.column() == dictionaryColumn
+                        ? Arrays.copyOf(local.results(), Math.max(dictionaryColumn.dictionary.length, code + 1))
+                        : new byte[Math.max(dictionaryColumn.dictionary.length, code + 1)]);
+                cache = local;
+            }
+            val results = local.results();
+            var result = results[code];
+            if (result == 0) {
+                result = test.test(dictionaryColumn.dictionary[code]) ? (byte) 2 : (byte) 1;
+                results[code] = result;
+            }
+            return result == 2;
+        }
+    }
+
+    private record Cache(DictionaryColumn column, byte[] results) {}
+
+    /**
+     * Compares the values of a column with a value. Columns storing their values by a compatible type
+     * compare the encoded values with the value converted once to their unit, the others are tested
+     * by a {@link CachedPredicate}.
+     */
+    private final class ComparePredicate implements Predicate<Record> {
+        private final int column;
+        private final ColumnType type;
+        private final String value;
+        private final IntPredicate result;
+        private final CachedPredicate fallback;
+        private volatile Bounded bounded;
+
+        private ComparePredicate(int column, ColumnType type, String value, IntPredicate result) {
+            this.column = column;
+            this.type = type;
+            this.value = value;
+            this.result = result;
+            val compare = type.compareWith(value);
+            this.fallback = new CachedPredicate(column, v -> result.test(compare.applyAsInt(v)));
+        }
+
+        @Override
+        public boolean test(Record record) {
+            val row = rowOf(record);
+            if (row < 0 || value == null || !(column(column) instanceof TypedColumn typedColumn)
+                    || !(typedColumn.type() == type || (typedColumn.type().isNumeric() && type.isNumeric()))) {
+                return fallback.test(record);
+            }
+
+            var local = bounded;
+            if (local == null || local.column() != typedColumn) {
+                local = new Bounded(typedColumn, typedColumn.encoding.bound(type.key(value)));
+                bounded = local;
+            }
+            // missing values come first and values of the type come before any other value
+            if (!typedColumn.isPresent(row) || local.bound() == null) return result.test(-1);
+            return result.test(local.bound().compare(typedColumn.value(row)));
+        }
+    }
+
+    /**
+     * A value converted to the unit of the encoded values of a column
+     *
+     * @param column the column storing values by type
+     * @param bound the converted value, or null if the value is not of the type of the column
+     */
+    private record Bounded(TypedColumn column, Bound bound) {}
+}
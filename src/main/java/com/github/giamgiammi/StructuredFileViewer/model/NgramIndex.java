@@ -0,0 +1,206 @@
+package com.github.giamgiammi.StructuredFileViewer.model;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Index of the trigrams contained in the values of a column, used to narrow the rows that can contain a text.
+ *
+ * Rows are grouped in blocks of {@value #BLOCK_SIZE} and, for every trigram, the index remembers the blocks where it appears.
+ * A value can contain a text only if its block contains all the trigrams of the text, so the candidates
+ * are the rows of the blocks having all of them. Small blocks keep rare texts selective even when most
+ * of their trigrams are common (e.g. in log lines). Trigrams are hashed to a fixed number of buckets,
+ * which keeps the memory used bounded (a bit per block for each bucket used, a few bytes per row for usual text)
+ * at the price of some false positives.
+ * Characters are converted to lower case one at a time, so that the same index serves case-sensitive searches
+ * and case-insensitive searches of ASCII texts.
+ *
+ * The index is built in background: {@link #extend(int)} schedules the indexing of the rows that will not change
+ * anymore, and the rows not indexed yet are always candidates. When the candidates are more than
+ * {@value #MAX_CANDIDATES_PERCENT}% of the rows (e.g. before the index is built, or for texts made of
+ * common trigrams) the index does not help and {@link #rowsContaining(String, boolean, int)} returns null,
+ * so that the filter scans the rows instead.
+ *
+ * Thread safety:
+ * - The class is thread-safe. The trigrams of a row are read without locks, and added to the index
+ *   under a lock held only for a block of rows at a time, so queries never wait for the index to be built.
+ */
+@Slf4j
+final class NgramIndex {
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BUCKET_BITS = 16;
+    private static final int BUCKET_MASK = (1 << BUCKET_BITS) - 1;
+    /**
+     * Maximum share of the rows, in percent, returned as candidates; the rows are scanned above it
+     */
+    private static final int MAX_CANDIDATES_PERCENT = 50;
+
+    private final IntFunction<String> values;
+    /**
+     * For every bucket, the bit set of the blocks containing one of its trigrams, null if none does
+     */
+    private final long[][] buckets = new long[1 << BUCKET_BITS][];
+    /**
+     * The number of rows indexed, always a multiple of the block size or the last requested size
+     */
+    private int indexedRows;
+    /**
+     * The number of rows to index
+     */
+    private int targetRows;
+    private boolean building;
+
+    /**
+     * Creates an empty index
+     *
+     * @param values the function returning the value of a row
+     */
+    NgramIndex(@NonNull IntFunction<String> values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns the rows that can contain the given text
+     *
+     * @param text the text to look for
+     * @param ignoreCase true for a case-insensitive search
+     * @param size the number of rows to consider, starting from the first
+     * @return a new bit set with a superset of the matching rows among the first {@code size},
+     *         or null if the index can't help (text shorter than a trigram, not ASCII in a case-insensitive search,
+     *         or too many candidates)
+     */
+    synchronized BitSet rowsContaining(@NonNull String text, boolean ignoreCase, int size) {
+        if (text.length() < 3) return null;
+        if (ignoreCase && !text.chars().allMatch(c -> c < 0x80)) return null;
+        val indexed = Math.min(indexedRows, size);
+        if ((long) (size - indexed) * 100 > (long) size * MAX_CANDIDATES_PERCENT) return null;
+
+        val blocks = (indexed + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        val words = (blocks + 63) >>> 6;
+        long[] result = null;
+        var c0 = Character.toLowerCase(text.charAt(0));
+        var c1 = Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < text.length(); i++) {
+            val c2 = Character.toLowerCase(text.charAt(i));
+            val bucket = buckets[bucket(c0, c1, c2)];
+            if (bucket == null) {
+                result = new long[words];
+                break;
+            }
+            if (result == null) result = Arrays.copyOf(bucket, words);
+            else for (int w = 0; w < words; w++) result[w] &= w < bucket.length ? bucket[w] : 0;
+            c0 = c1;
+            c1 = c2;
+        }
+
+        val rows = new BitSet(size);
+        val blockSet = BitSet.valueOf(result);
+        for (int block = blockSet.nextSetBit(0); block >= 0 && block < blocks; block = blockSet.nextSetBit(block + 1)) {
+            rows.set(block << BLOCK_SHIFT, Math.min(indexed, (block + 1) << BLOCK_SHIFT));
+        }
+        // the rows not indexed yet might all match
+        rows.set(indexed, size);
+        if ((long) rows.cardinality() * 100 > (long) size * MAX_CANDIDATES_PERCENT) return null;
+        return rows;
+    }
+
+    /**
+     * Indexes in background the rows up to the given one, whose values must not change anymore
+     *
+     * @param size the number of rows to index, starting from the first
+     */
+    synchronized void extend(int size) {
+        if (size <= targetRows) return;
+        targetRows = size;
+        if (building) return;
+        building = true;
+        ForkJoinPool.commonPool().execute(this::build);
+    }
+
+    /**
+     * Waits until the rows requested by {@link #extend(int)} are indexed
+     */
+    synchronized void await() throws InterruptedException {
+        while (building) wait();
+    }
+
+    /**
+     * Indexes the rows up to {@link #targetRows}, a block at a time, until no more rows are requested
+     */
+    private void build() {
+        var hashes = new int[1024];
+        try {
+            while (true) {
+                final int from;
+                final int to;
+                synchronized (this) {
+                    if (indexedRows >= targetRows) {
+                        building = false;
+                        notifyAll();
+                        return;
+                    }
+                    from = indexedRows;
+                    to = Math.min(targetRows, (from & -BLOCK_SIZE) + BLOCK_SIZE);
+                }
+
+                // the trigrams are read without holding the lock
+                var count = 0;
+                for (int row = from; row < to; row++) {
+                    val value = values.apply(row);
+                    if (value == null || value.length() < 3) continue;
+                    if (count + value.length() > hashes.length) hashes = Arrays.copyOf(hashes, Math.max(hashes.length * 2, count + value.length()));
+                    var c0 = Character.toLowerCase(value.charAt(0));
+                    var c1 = Character.toLowerCase(value.charAt(1));
+                    for (int i = 2; i < value.length(); i++) {
+                        val c2 = Character.toLowerCase(value.charAt(i));
+                        hashes[count++] = bucket(c0, c1, c2);
+                        c0 = c1;
+                        c1 = c2;
+                    }
+                }
+
+                synchronized (this) {
+                    add(from >>> BLOCK_SHIFT, hashes, count);
+                    indexedRows = to;
+                }
+            }
+        } catch (RuntimeException e) {
+            // most likely the table was closed, the index will not be used anymore
+            log.debug("Stopped building trigram index", e);
+            synchronized (this) {
+                building = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Marks a block in the buckets of the given trigrams
+     */
+    private void add(int block, int[] hashes, int count) {
+        val word = block >>> 6;
+        val bit = 1L << (block & 63);
+        for (int i = 0; i < count; i++) {
+            val index = hashes[i];
+            var bucket = buckets[index];
+            if (bucket == null || word >= bucket.length) {
+                bucket = bucket == null ? new long[Math.max(4, word + 1)] : Arrays.copyOf(bucket, Math.max(bucket.length * 2, word + 1));
+                buckets[index] = bucket;
+            }
+            bucket[word] |= bit;
+        }
+    }
+
+    private static int bucket(char c0, char c1, char c2) {
+        var h = ((c0 * 0x9E3779B1) + c1) * 0x9E3779B1 + c2;
+        h ^= h >>> 16;
+        return h & BUCKET_MASK;
+    }
+}
@@ -0,0 +1,450 @@
+package com.github.giamgiammi.StructuredFileViewer.model;
+
+import com.github.giamgiammi.StructuredFileViewer.utils.AppProperty;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Keeps the pages of values of the tables off the heap within a memory budget, spilling the others to disk.
+ *
+ * A {@link Page} holds the values of a fixed number of records of a column. While its records are appended
+ * the values are kept on the heap; once the page is full it is sealed, and its values are encoded in a
+ * {@link MemorySegment} block, so that a big table is made of a few objects per page instead of a string per value,
+ * and the garbage collector has nothing to trace.
+ *
+ * Blocks are sized in quarters of powers of two, so that they fit pages of similar sizes, and are carved
+ * from {@link Slab slabs} of blocks of the same size shared by all the tables. The slabs count against
+ * a budget of {@link AppProperty#TABLE_MEMORY} megabytes (half the maximum heap by default), free blocks included.
+ * When a page needs a block and the budget does not allow a new slab, the least recently used pages
+ * are copied to the {@link PageFile} of their table under {@link AppProperty#TMP_DIR}, which is mapped in memory:
+ * from then on, the operating system keeps the pages in memory or on disk depending on how often they are read.
+ * The block of a spilled page goes back to its slab, where it is reused by the next page of any table
+ * needing a block of the same size, and slabs left without used blocks make room for slabs of other sizes.
+ * Closing a {@link PageFile} gives the blocks of its table back to their slabs and releases the slabs left unused,
+ * without waiting for the garbage collector and with a single handshake with the other threads per slab.
+ *
+ * A sealed page is made of the end offset of each value as an {@code int} ({@code ~end} for null values),
+ * followed by the UTF-8 bytes of the values.
+ * Recently used pages are tracked with the clock algorithm: an access only sets a flag on the page,
+ * and the eviction gives a second chance to the pages accessed since it last looked at them,
+ * so that concurrent readers never wait for each other.
+ *
+ * Thread safety:
+ * - The class is thread-safe; pages are sealed and spilled one at a time.
+ */
+@Slf4j
+final class PageCache {
+    /**
+     * Size of the regions of a {@link PageFile} mapped at once
+     */
+    private static final long WINDOW_SIZE = 1L << 28;
+    /**
+     * Size of the smallest block of a sealed page
+     */
+    private static final long MIN_BLOCK_SIZE = 1L << 12;
+    /**
+     * Maximum size of a slab of blocks, unless a single block is bigger
+     */
+    private static final long MAX_SLAB_SIZE = 1L << 26;
+    private static final ValueLayout.OfInt END_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final PageCache INSTANCE = new PageCache(
+            Path.of(System.getProperty(AppProperty.TMP_DIR, System.getProperty("java.io.tmpdir"))).resolve("pages"),
+            Long.getLong(AppProperty.TABLE_MEMORY, Runtime.getRuntime().maxMemory() / 2 / 1024 / 1024) * 1024 * 1024
+    );
+
+    private final Path folder;
+    private final long budget;
+    /**
+     * The sealed pages in memory, in the order they are looked at by the eviction
+     */
+    private final ArrayDeque<Page> clock = new ArrayDeque<>();
+    /**
+     * The slabs of blocks, by size of their blocks
+     */
+    private final HashMap<Long, ArrayList<Slab>> slabs = new HashMap<>();
+    private long resident;
+
+    /**
+     * @param folder the folder of the page files, created when needed
+     * @param budget the maximum size of the slabs of blocks of the sealed pages, in bytes
+     */
+    PageCache(@NonNull Path folder, long budget) {
+        this.folder = folder;
+        this.budget = budget;
+    }
+
+    /**
+     * @return the cache shared by the tables of the application
+     */
+    static PageCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the size of the slabs of blocks of the sealed pages, used or free, in bytes
+     */
+    synchronized long getResident() {
+        return resident;
+    }
+
+    /**
+     * Creates the file receiving the spilled pages of a table; the file itself is created on the first spill
+     */
+    PageFile newFile() {
+        return new PageFile();
+    }
+
+    /**
+     * Moves the values of a page off the heap, in a block of the slabs
+     */
+    private synchronized void seal(Page page) {
+        // the pages of a closed table are left to the garbage collector
+        if (page.file.closed) return;
+        encode(page);
+        page.values = null;
+        page.referenced = true;
+        clock.addLast(page);
+    }
+
+    /**
+     * Takes a free block for a page of the given size, spilling the pages not recently used
+     * when the budget does not allow a new slab
+     */
+    private Block allocate(long size) {
+        val blockSize = blockSize(size);
+        val sized = slabs.computeIfAbsent(blockSize, k -> new ArrayList<>());
+        val slabSize = blockSize * Math.max(1, Math.min(MAX_SLAB_SIZE, budget / 16) / blockSize);
+        // each page gets a single second chance, pages that cannot be written stay in memory
+        var visits = clock.size() * 2;
+        while (true) {
+            for (val slab : sized) {
+                if (!slab.free.isEmpty()) return new Block(slab, slab.free.pollLast());
+            }
+            if (resident + slabSize <= budget) break;
+            if (releaseUnused(1)) continue;
+            if (clock.isEmpty() || visits-- <= 0) break;
+            val page = clock.pollFirst();
+            if (page.referenced) {
+                page.referenced = false;
+                clock.addLast(page);
+                continue;
+            }
+            try {
+                page.file.spill(page);
+                free(page);
+            } catch (IOException e) {
+                log.warn("Failed to spill page to {}", page.file, e);
+                clock.addLast(page);
+            }
+        }
+        // the slab is created even if the budget is exceeded when no page can be spilled
+        val slab = new Slab(blockSize, slabSize);
+        sized.add(slab);
+        resident += slabSize;
+        return new Block(slab, slab.free.pollLast());
+    }
+
+    /**
+     * Gives the block of a page back to its slab, once readers can see the new segment of the page
+     */
+    private void free(Page page) {
+        page.block.slab().free.addLast(page.block.segment());
+        page.block = null;
+    }
+
+    /**
+     * Releases the slabs without used blocks
+     *
+     * @param limit the maximum number of slabs to release
+     * @return true if a slab was released
+     */
+    private boolean releaseUnused(int limit) {
+        var released = 0;
+        for (val sized : slabs.values()) {
+            for (var it = sized.iterator(); it.hasNext() && released < limit; ) {
+                val slab = it.next();
+                if (!slab.isUnused()) continue;
+                it.remove();
+                resident -= slab.memory.byteSize();
+                slab.arena.close();
+                released++;
+            }
+        }
+        return released > 0;
+    }
+
+    /**
+     * Gives the blocks of the pages of a closed file back to their slabs, and releases the slabs left unused
+     */
+    private synchronized void release(PageFile file) {
+        clock.removeIf(page -> {
+            if (page.file != file) return false;
+            // readers of the page fail instead of reading a reused block
+            page.segment = null;
+            free(page);
+            return true;
+        });
+        releaseUnused(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the size of the block holding a page of the given size: the size rounded up to a quarter
+     * of its power of two, so that blocks waste at most a fifth of their size and fit pages of similar sizes
+     */
+    static long blockSize(long size) {
+        if (size <= MIN_BLOCK_SIZE) return MIN_BLOCK_SIZE;
+        val step = Long.highestOneBit(size - 1) >>> 2;
+        return (size + step - 1) & -step;
+    }
+
+    /**
+     * Encodes the values of a page in a block of the slabs
+     */
+    private void encode(Page page) {
+        val values = page.values;
+        val bytes = new byte[values.length][];
+        long length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) continue;
+            bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            length += bytes[i].length;
+        }
+        val header = (long) values.length * Integer.BYTES;
+        if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Page too big: " + length + " bytes");
+
+        val block = allocate(header + length);
+        val segment = block.segment().asSlice(0, header + length);
+        var end = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (bytes[i] == null) {
+                segment.set(END_LAYOUT, (long) i * Integer.BYTES, ~end);
+                continue;
+            }
+            MemorySegment.copy(bytes[i], 0, segment, ValueLayout.JAVA_BYTE, header + end, bytes[i].length);
+            end += bytes[i].length;
+            segment.set(END_LAYOUT, (long) i * Integer.BYTES, end);
+        }
+        page.block = block;
+        page.segment = segment;
+    }
+
+    /**
+     * Decodes a value of a page
+     *
+     * @throws IndexOutOfBoundsException if the offsets do not fit the segment, which happens when the block
+     *                                   of the page is reused while decoding
+     */
+    private static String decode(MemorySegment segment, int size, int index) {
+        val header = (long) size * Integer.BYTES;
+        val end = segment.get(END_LAYOUT, (long) index * Integer.BYTES);
+        if (end < 0) return null;
+        var start = index == 0 ? 0 : segment.get(END_LAYOUT, (long) (index - 1) * Integer.BYTES);
+        if (start < 0) start = ~start;
+        if (start > end || header + end > segment.byteSize()) throw new IndexOutOfBoundsException("Invalid value offsets");
+        val bytes = new byte[end - start];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, (long) size * Integer.BYTES + start, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The values of a fixed number of records of a column
+     *
+     * Thread safety:
+     * - The values are set by a single writer until the page is sealed, and never change afterwards.
+     * - Any thread may read the values, even while the page is sealed or spilled.
+     */
+    final class Page {
+        private final PageFile file;
+        private final int size;
+        /**
+         * The values until the page is sealed, then null
+         */
+        private volatile String[] values;
+        /**
+         * The encoded values once sealed, in the block of the page or in the mapped file if spilled
+         */
+        private volatile MemorySegment segment;
+        /**
+         * The block of memory of the page, null once spilled; only accessed under the lock of the cache
+         */
+        private Block block;
+        private volatile boolean referenced;
+
+        private Page(PageFile file, int size) {
+            this.file = file;
+            this.size = size;
+            this.values = new String[size];
+        }
+
+        /**
+         * Sets the value of a record, until the page is sealed
+         */
+        void set(int index, String value) {
+            values[index] = value;
+        }
+
+        /**
+         * Returns the value of a record
+         *
+         * @throws IllegalStateException if the page file was closed
+         */
+        String get(int index) {
+            // the segment is set before the values are dropped
+            val local = values;
+            if (local != null) return local[index];
+            if (!referenced) referenced = true;
+            while (true) {
+                val current = segment;
+                if (current == null) throw new IllegalStateException("Page file closed");
+                try {
+                    val value = decode(current, size, index);
+                    // like a sequence lock: the block of a spilled page might be reused by another page while decoding,
+                    // the value is valid only if the page was not spilled in the meantime
+                    VarHandle.acquireFence();
+                    if (segment == current) return value;
+                } catch (IndexOutOfBoundsException e) {
+                    if (segment == current) throw e;
+                } catch (IllegalStateException e) {
+                    // the mapped file of the table was closed, unless the page was spilled in the meantime
+                    if (segment == current) throw e;
+                }
+            }
+        }
+
+        /**
+         * Tells that all the values of the page are set, so that they can be moved off the heap
+         */
+        void seal() {
+            PageCache.this.seal(this);
+        }
+    }
+
+    /**
+     * The file of the spilled pages of a table, mapped in memory by regions and deleted when closed
+     *
+     * Thread safety:
+     * - Pages are written under the lock of the cache, and can be read concurrently.
+     */
+    final class PageFile implements AutoCloseable {
+        /**
+         * The arena of the mapped regions of the file
+         */
+        private final Arena arena = Arena.ofShared();
+        private FileChannel channel;
+        private MemorySegment window;
+        private long windowStart;
+        private long size;
+        private volatile boolean closed;
+
+        private PageFile() {
+        }
+
+        /**
+         * Creates an empty page of this file
+         *
+         * @param size the number of values of the page
+         */
+        Page newPage(int size) {
+            return new Page(this, size);
+        }
+
+        /**
+         * Copies a sealed page at the end of the file, where it is read from then on
+         */
+        private void spill(Page page) throws IOException {
+            if (channel == null) {
+                Files.createDirectories(folder);
+                val path = Files.createTempFile(folder, "table", ".pages");
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                log.info("Spilling table pages to {}", path);
+            }
+            val length = page.segment.byteSize();
+            final MemorySegment target;
+            if (length > WINDOW_SIZE) {
+                target = channel.map(FileChannel.MapMode.READ_WRITE, size, length, arena);
+            } else {
+                // a page never spans two regions
+                if (window == null || size + length > windowStart + WINDOW_SIZE) {
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, size, WINDOW_SIZE, arena);
+                    windowStart = size;
+                }
+                target = window.asSlice(size - windowStart, length);
+            }
+            target.copyFrom(page.segment);
+            size += length;
+            // the block is reused only after readers can see the new segment
+            page.segment = target;
+        }
+
+        /**
+         * Gives the memory of the pages back to the cache and deletes the file; the pages cannot be read anymore
+         */
+        @Override
+        public void close() {
+            synchronized (PageCache.this) {
+                if (closed) return;
+                closed = true;
+                release(this);
+                arena.close();
+                if (channel == null) return;
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close page file", e);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PageFile{size=%d, closed=%s}".formatted(size, closed);
+        }
+    }
+
+    /**
+     * A region of memory divided in blocks of the same size, released at once when none of its blocks is used
+     *
+     * Thread safety:
+     * - Only accessed under the lock of the cache.
+     */
+    private static final class Slab {
+        private final Arena arena = Arena.ofShared();
+        private final MemorySegment memory;
+        private final int blocks;
+        /**
+         * The blocks not used by a page
+         */
+        private final ArrayDeque<MemorySegment> free = new ArrayDeque<>();
+
+        private Slab(long blockSize, long size) {
+            memory = arena.allocate(size, Long.BYTES);
+            blocks = (int) (size / blockSize);
+            for (int i = 0; i < blocks; i++) free.addLast(memory.asSlice(i * blockSize, blockSize));
+        }
+
+        private boolean isUnused() {
+            return free.size() == blocks;
+        }
+    }
+
+    /**
+     * A block of a slab
+     */
+    private record Block(Slab slab, MemorySegment segment) {
+    }
+}
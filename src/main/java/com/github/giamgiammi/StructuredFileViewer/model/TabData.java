@@ -1,6 +1,7 @@
 package com.github.giamgiammi.StructuredFileViewer.model;
 
 import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
+import com.github.giamgiammi.StructuredFileViewer.task.FileFollower;
 import com.github.giamgiammi.StructuredFileViewer.ui.inteface.DataController;
 import lombok.Data;
 
@@ -12,4 +13,12 @@ public class TabData {
     private DataController controller;
     private Path file;
     private String fileContent;
+    /**
+     * Number of bytes of {@link #file} parsed, -1 if unknown
+     */
+    private long parsedBytes = -1;
+    /**
+     * Follows the records appended to {@link #file}, null if not following
+     */
+    private FileFollower follower;
 }
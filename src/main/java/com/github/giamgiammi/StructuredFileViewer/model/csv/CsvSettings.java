@@ -1,6 +1,7 @@
 package com.github.giamgiammi.StructuredFileViewer.model.csv;
 
 import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvBaseFormat;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvEngine;
 import lombok.Builder;
 import org.apache.commons.csv.DuplicateHeaderMode;
 import org.apache.commons.csv.QuoteMode;
@@ -26,5 +27,6 @@ public final record CsvSettings(
         QuoteMode quoteMode,
         Boolean skipHeaderRecord,
         List<String> customHeaderNames,
-        Charset charset
+        Charset charset,
+        CsvEngine engine
 ) {}
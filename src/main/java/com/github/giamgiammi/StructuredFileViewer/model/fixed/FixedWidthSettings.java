@@ -1,5 +1,6 @@
 package com.github.giamgiammi.StructuredFileViewer.model.fixed;
 
+import com.github.giamgiammi.StructuredFileViewer.core.fixed.FixedWidthEngine;
 import lombok.Builder;
 
 import java.nio.charset.Charset;
@@ -9,6 +10,7 @@ import java.util.List;
 public record FixedWidthSettings(
         List<FixedWidthColumn> columns,
         boolean recordEndsWithNewLine,
-        Charset charset
+        Charset charset,
+        FixedWidthEngine engine
 ) {
 }
@@ -0,0 +1,165 @@
+package com.github.giamgiammi.StructuredFileViewer.search;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the cells containing a text, ignoring case, in all the columns of some records.
+ *
+ * The records are split in chunks searched in parallel, and the hits of each chunk are reported
+ * as soon as the chunks before it are done, so the first hits are available long before the end of the search.
+ * Each hit is encoded in a {@code long} by {@link #hit(int, int)}, so that the hits are reported in ascending order
+ * (by position, then by column) and take 8 bytes each.
+ *
+ * At most {@value #MAX_HITS} hits are reported, the search stops once they are found.
+ *
+ * Thread safety:
+ * - The records are read concurrently from multiple threads, so the data must support concurrent reads
+ *   (every {@link TableLikeData} does) and the searched records must not change while searching.
+ * - The listener is called from the thread that started the search.
+ */
+@Slf4j
+public final class CellSearch {
+    /**
+     * Maximum number of hits reported
+     */
+    public static final int MAX_HITS = 1 << 22;
+
+    /**
+     * Number of records searched by a single task
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Number of records searched between two checks of the cancellation
+     */
+    private static final int CHECK_INTERVAL = 256;
+
+    private CellSearch() {
+    }
+
+    /**
+     * Receives the hits of a search
+     */
+    public interface Listener {
+        /**
+         * Called each time some records have been searched, with their hits in ascending order
+         *
+         * @param hits the new hits, possibly empty; the array is owned by the listener
+         * @param done the number of records searched so far
+         * @param total the number of records to search
+         */
+        void onHits(long @NonNull [] hits, int done, int total);
+    }
+
+    /**
+     * Encodes a hit
+     *
+     * @param position the position of the record among the searched ones
+     * @param column the index of the column, not negative
+     * @return the hit, ordered by position and then by column
+     */
+    public static long hit(int position, int column) {
+        return ((long) position << 32) | column;
+    }
+
+    /**
+     * @return the position of the record of the hit among the searched ones
+     */
+    public static int position(long hit) {
+        return (int) (hit >>> 32);
+    }
+
+    /**
+     * @return the column of the hit
+     */
+    public static int column(long hit) {
+        return (int) hit;
+    }
+
+    /**
+     * Searches the cells containing a text
+     *
+     * @param data the data to search
+     * @param rows the indexes of the records to search in order, valid up to {@code count}; null to search the first {@code count} records
+     * @param count the number of records to search
+     * @param text the text to find, ignoring case
+     * @param listener the listener receiving the hits in ascending order
+     * @param cancelled tells if the search should stop as soon as possible
+     * @return the number of hits found, at most {@value #MAX_HITS}
+     * @throws CancellationException if the search was cancelled before the end
+     * @throws InterruptedException if the calling thread was interrupted while waiting the chunks
+     */
+    public static int search(@NonNull TableLikeData data, int[] rows, int count, @NonNull String text,
+                             @NonNull Listener listener, @NonNull BooleanSupplier cancelled) throws InterruptedException {
+        if (rows != null && rows.length < count) throw new IllegalArgumentException("Expected %d rows, got %d".formatted(count, rows.length));
+        val pattern = text.toLowerCase(Locale.ROOT);
+        val records = data.getRecords();
+        val columns = data.getColumnNames().size();
+        val chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        log.info("Searching '{}' in {} columns of {} records", text, columns, count);
+
+        val stopped = new AtomicBoolean();
+        BooleanSupplier stop = () -> stopped.get() || cancelled.getAsBoolean();
+        val tasks = new ArrayList<ForkJoinTask<long[]>>(chunkCount);
+        var found = 0;
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                val from = i * CHUNK_SIZE;
+                val to = Math.min(count, from + CHUNK_SIZE);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> searchChunk(records, rows, from, to, columns, pattern, stop)));
+            }
+            // the chunks are reported in order, each one as soon as the previous ones are
+            for (int i = 0; i < chunkCount && found < MAX_HITS; i++) {
+                var hits = tasks.get(i).get();
+                if (hits.length > MAX_HITS - found) hits = Arrays.copyOf(hits, MAX_HITS - found);
+                found += hits.length;
+                listener.onHits(hits, Math.min(count, (i + 1) * CHUNK_SIZE), count);
+            }
+            if (found == MAX_HITS) log.info("Search of '{}' stopped after {} hits", text, found);
+            return found;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // also stops the chunks still running after the last hit
+            stopped.set(true);
+            for (val task : tasks) task.cancel(false);
+        }
+    }
+
+    /**
+     * Searches the records at the given positions
+     */
+    private static long[] searchChunk(List<TableLikeData.Record> records, int[] rows, int from, int to,
+                                      int columns, String pattern, BooleanSupplier cancelled) {
+        var hits = new long[16];
+        var count = 0;
+        for (int position = from; position < to && count < MAX_HITS; position++) {
+            if ((position - from) % CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) throw new CancellationException("Search cancelled");
+            val record = records.get(rows == null ? position : rows[position]);
+            for (int column = 0; column < columns; column++) {
+                val value = record.get(column);
+                if (value == null || !TextUtils.containsLowerCase(pattern, value.toString())) continue;
+                if (count == hits.length) hits = Arrays.copyOf(hits, count * 2);
+                hits[count++] = hit(position, column);
+            }
+        }
+        return Arrays.copyOf(hits, count);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.giamgiammi.StructuredFileViewer.search;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The hits of a {@link CellSearch}, in ascending order, with the one currently selected.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe.
+ */
+public final class SearchHits {
+    private long[] hits = new long[16];
+    private int size;
+    private int current = -1;
+
+    /**
+     * Appends hits following the ones already added
+     *
+     * @param hits the hits, in ascending order
+     */
+    public void add(long @NonNull [] hits) {
+        if (size + hits.length > this.hits.length) {
+            this.hits = Arrays.copyOf(this.hits, Math.max(size + hits.length, this.hits.length * 2));
+        }
+        System.arraycopy(hits, 0, this.hits, size, hits.length);
+        size += hits.length;
+    }
+
+    /**
+     * @return the number of hits
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the selected hit, -1 if none
+     */
+    public int getCurrent() {
+        return current;
+    }
+
+    /**
+     * @param index the index of a hit
+     * @return the hit, see {@link CellSearch#hit(int, int)}
+     */
+    public long get(int index) {
+        return hits[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Selects the first hit after a cell, wrapping around to the first hit
+     *
+     * @param position the position of the cell, -1 to select the first hit
+     * @param column the column of the cell, -1 to also select the hits of the record of the cell
+     * @return the selected hit, see {@link CellSearch#hit(int, int)}
+     * @throws IllegalStateException if there are no hits
+     */
+    public long next(int position, int column) {
+        if (size == 0) throw new IllegalStateException("No hits");
+        var index = position < 0 ? 0 : insertionPoint(CellSearch.hit(position, Math.max(0, column)) + (column < 0 ? 0 : 1));
+        if (index == size) index = 0;
+        return select(index);
+    }
+
+    /**
+     * Selects the last hit before a cell, wrapping around to the last hit
+     *
+     * @param position the position of the cell, -1 to select the last hit
+     * @param column the column of the cell, -1 to skip the hits of the record of the cell
+     * @return the selected hit, see {@link CellSearch#hit(int, int)}
+     * @throws IllegalStateException if there are no hits
+     */
+    public long previous(int position, int column) {
+        if (size == 0) throw new IllegalStateException("No hits");
+        var index = position < 0 ? size - 1 : insertionPoint(CellSearch.hit(position, Math.max(0, column))) - 1;
+        if (index < 0) index = size - 1;
+        return select(index);
+    }
+
+    private long select(int index) {
+        current = index;
+        return hits[index];
+    }
+
+    /**
+     * @return the index of the first hit greater or equal to the given one
+     */
+    private int insertionPoint(long hit) {
+        val index = Arrays.binarySearch(hits, 0, size, hit);
+        return index >= 0 ? index : -index - 1;
+    }
+}
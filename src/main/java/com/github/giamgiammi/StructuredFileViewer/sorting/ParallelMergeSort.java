@@ -0,0 +1,126 @@
+package com.github.giamgiammi.StructuredFileViewer.sorting;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Stable merge sort of an {@code int[]} with a custom comparator, using the common {@link ForkJoinPool}.
+ *
+ * The array is split in halves until they are small enough to be sorted sequentially, and the halves are merged
+ * going back up. Merging always prefers the left element on ties, so elements comparing equal keep their order.
+ *
+ * Thread safety:
+ * - The comparator is called concurrently from multiple threads, so it must be thread-safe.
+ */
+final class ParallelMergeSort {
+    /**
+     * Size below which a range is sorted by a single thread
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private ParallelMergeSort() {
+    }
+
+    /**
+     * Compares two {@code int} elements, like a {@link java.util.Comparator} without boxing
+     */
+    @FunctionalInterface
+    interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Sorts an array in place
+     *
+     * @param array the array to sort
+     * @param comparator the comparator of the elements
+     * @param cancelled tells if the sort should stop as soon as possible
+     * @throws CancellationException if the sort was cancelled before the end; the array is then partially sorted
+     */
+    static void sort(@NonNull int[] array, @NonNull IntComparator comparator, @NonNull BooleanSupplier cancelled) {
+        val buffer = new int[array.length];
+        val task = new SortTask(array, buffer, 0, array.length, comparator, cancelled);
+        if (array.length <= SEQUENTIAL_THRESHOLD) task.compute();
+        else ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private final int[] array;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final IntComparator comparator;
+        private final BooleanSupplier cancelled;
+
+        private SortTask(int[] array, int[] buffer, int from, int to, IntComparator comparator, BooleanSupplier cancelled) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                sortSequential(from, to);
+                return;
+            }
+            val middle = (from + to) >>> 1;
+            invokeAll(
+                    new SortTask(array, buffer, from, middle, comparator, cancelled),
+                    new SortTask(array, buffer, middle, to, comparator, cancelled)
+            );
+            if (cancelled.getAsBoolean()) throw new CancellationException();
+            merge(from, middle, to);
+        }
+
+        private void sortSequential(int from, int to) {
+            if (to - from <= INSERTION_THRESHOLD) {
+                insertionSort(from, to);
+                return;
+            }
+            val middle = (from + to) >>> 1;
+            sortSequential(from, middle);
+            sortSequential(middle, to);
+            merge(from, middle, to);
+        }
+
+        private void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                val value = array[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(array[j], value) > 0) {
+                    array[j + 1] = array[j];
+                    j--;
+                }
+                array[j + 1] = value;
+            }
+        }
+
+        /**
+         * Merges the sorted ranges {@code [from, middle)} and {@code [middle, to)}
+         */
+        private void merge(int from, int middle, int to) {
+            // already in order, e.g. when sorting sorted data
+            if (comparator.compare(array[middle - 1], array[middle]) <= 0) return;
+            System.arraycopy(array, from, buffer, from, to - from);
+            int left = from;
+            int right = middle;
+            int i = from;
+            while (left < middle && right < to) {
+                array[i++] = comparator.compare(buffer[right], buffer[left]) < 0 ? buffer[right++] : buffer[left++];
+            }
+            while (left < middle) array[i++] = buffer[left++];
+            while (right < to) array[i++] = buffer[right++];
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.giamgiammi.StructuredFileViewer.sorting;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts the indexes of the records of a table by one or more columns, without moving the records.
+ *
+ * The first time a column is sorted, its values are read once and every record gets the rank of its value
+ * among the distinct values of the column. The ranks are kept, so that the following sorts on that column
+ * (in either direction, on a different subset of the records or combined with other columns) only compare
+ * integers. Both the ranking and the sort are parallel merge sorts ({@link ParallelMergeSort}), so the order
+ * of records with equal keys is preserved.
+ *
+ * Values are compared in the order of the type of their column ({@link TableLikeData#columnType(int)}),
+ * e.g. numerically for numeric columns, missing values first. Each value is converted to its type only once.
+ *
+ * Thread safety:
+ * - The class is thread-safe; sorts can run concurrently and share the ranks of the columns.
+ * - The ranks of a column are computed again when the data has grown since they were computed.
+ */
+@Slf4j
+public final class RowSorter {
+    private final TableLikeData data;
+    private final Map<Integer, int[]> ranks = new ConcurrentHashMap<>();
+
+    /**
+     * @param data the data whose records are sorted
+     */
+    public RowSorter(@NonNull TableLikeData data) {
+        this.data = data;
+    }
+
+    /**
+     * Sorts the indexes of some records
+     *
+     * @param rows the indexes of the records to sort, valid up to {@code count}; null for the first {@code count} records
+     * @param count the number of records to sort
+     * @param keys the columns to sort by, the first one being the most significant; empty to keep the order of {@code rows}
+     * @param cancelled tells if the sort should stop as soon as possible
+     * @return a new array with the indexes of the records in sorted order
+     * @throws CancellationException if the sort was cancelled before the end
+     */
+    public int[] sort(int[] rows, int count, @NonNull List<SortKey> keys, @NonNull BooleanSupplier cancelled) {
+        val sorted = rows == null ? IntStream.range(0, count).toArray() : Arrays.copyOf(rows, count);
+        if (keys.isEmpty() || count < 2) return sorted;
+
+        val size = Arrays.stream(sorted).max().orElse(-1) + 1;
+        val ranks = new int[keys.size()][];
+        val signs = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            ranks[i] = ranks(keys.get(i).column(), size, cancelled);
+            signs[i] = keys.get(i).ascending() ? 1 : -1;
+        }
+
+        ParallelMergeSort.sort(sorted, (a, b) -> {
+            for (int i = 0; i < ranks.length; i++) {
+                val c = Integer.compare(ranks[i][a], ranks[i][b]);
+                if (c != 0) return c * signs[i];
+            }
+            return 0;
+        }, cancelled);
+        return sorted;
+    }
+
+    /**
+     * Returns the rank of the value of a column for each record, computing it if missing.
+     * Records with equal values have the same rank.
+     *
+     * @param column the index of the column
+     * @param size the minimum number of records that must be ranked
+     */
+    private int[] ranks(int column, int size, BooleanSupplier cancelled) {
+        val cached = ranks.get(column);
+        if (cached != null && cached.length >= size) return cached;
+
+        val records = data.getRecords();
+        val count = records.size();
+        log.info("Ranking the values of column {} of {} records", column, count);
+        val type = data.columnType(column);
+        val values = new String[count];
+        val keys = type == ColumnType.STRING ? null : new Comparable<?>[count];
+        IntStream.range(0, count).parallel().forEach(row -> {
+            if ((row & 0xfff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+            val value = records.get(row).get(column);
+            values[row] = value == null ? null : value.toString();
+            if (keys != null) keys[row] = type.key(values[row]);
+        });
+
+        final ParallelMergeSort.IntComparator comparator = keys == null
+                ? (a, b) -> ColumnType.STRING.compare(values[a], values[b])
+                : (a, b) -> ColumnType.compareKeys(keys[a], values[a], keys[b], values[b]);
+        val order = IntStream.range(0, count).toArray();
+        ParallelMergeSort.sort(order, comparator, cancelled);
+        val result = new int[count];
+        int rank = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && comparator.compare(order[i - 1], order[i]) != 0) rank++;
+            result[order[i]] = rank;
+        }
+        ranks.put(column, result);
+        return result;
+    }
+}
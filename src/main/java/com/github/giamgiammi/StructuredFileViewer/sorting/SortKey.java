@@ -0,0 +1,9 @@
+package com.github.giamgiammi.StructuredFileViewer.sorting;
+
+/**
+ * A column to sort the records by
+ *
+ * @param column the index of the column
+ * @param ascending true to sort in ascending order, false for descending
+ */
+public record SortKey(int column, boolean ascending) {}
@@ -0,0 +1,119 @@
+package com.github.giamgiammi.StructuredFileViewer.statistics;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the {@link ColumnStatistics} of a column one value at a time.
+ *
+ * The values are streamed and never collected: the distinct values are estimated by a {@link HyperLogLog}
+ * and the most frequent ones by a {@link SpaceSaving}, so the memory used by a column is bounded
+ * whatever the number of records.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe; {@link #profile(TableLikeData, BooleanSupplier)} profiles the columns concurrently,
+ *   each one by a single thread.
+ */
+@Slf4j
+public final class ColumnProfiler {
+    /**
+     * Number of most frequent values reported
+     */
+    public static final int TOP_VALUES = 10;
+    /**
+     * Number of values counted to find the {@value #TOP_VALUES} most frequent ones;
+     * the more, the fewer the chances of missing a frequent value
+     */
+    private static final int COUNTED_VALUES = 100;
+
+    private final ColumnType type;
+    private final HyperLogLog distinct = new HyperLogLog();
+    private final SpaceSaving top = new SpaceSaving(COUNTED_VALUES);
+    private final long[] lengths = new long[32];
+    private long count;
+    private long nulls;
+    private String min;
+    private Comparable<?> minKey;
+    private String max;
+    private Comparable<?> maxKey;
+    private int minLength = Integer.MAX_VALUE;
+    private int maxLength;
+
+    /**
+     * @param type the type of the column, used to find the minimum and maximum
+     */
+    public ColumnProfiler(@NonNull ColumnType type) {
+        this.type = type;
+    }
+
+    /**
+     * Adds the value of a record
+     *
+     * @param value the value, null if missing
+     */
+    public void add(String value) {
+        count++;
+        if (value == null) {
+            nulls++;
+            return;
+        }
+        distinct.add(value);
+        top.add(value);
+
+        val length = value.length();
+        lengths[32 - Integer.numberOfLeadingZeros(length)]++;
+        if (length < minLength) minLength = length;
+        if (length > maxLength) maxLength = length;
+
+        val key = type == ColumnType.STRING ? null : type.key(value);
+        if (min == null || ColumnType.compareKeys(key, value, minKey, min) < 0) {
+            min = value;
+            minKey = key;
+        }
+        if (max == null || ColumnType.compareKeys(key, value, maxKey, max) > 0) {
+            max = value;
+            maxKey = key;
+        }
+    }
+
+    /**
+     * @return the statistics of the values added so far
+     */
+    public ColumnStatistics result() {
+        val hasValues = count > nulls;
+        return new ColumnStatistics(type, count, nulls, hasValues ? distinct.estimate() : 0, min, max,
+                top.top(TOP_VALUES), lengths.clone(), hasValues ? minLength : 0, maxLength);
+    }
+
+    /**
+     * Profiles all the columns of a table, in parallel
+     *
+     * @param data the data to profile
+     * @param cancelled tells if the profiling should stop as soon as possible
+     * @return the statistics of each column
+     * @throws CancellationException if the profiling was cancelled before the end
+     */
+    public static List<ColumnStatistics> profile(@NonNull TableLikeData data, @NonNull BooleanSupplier cancelled) {
+        val records = data.getRecords();
+        val size = records.size();
+        val columns = data.getColumnNames().size();
+        log.info("Profiling {} columns of {} records", columns, size);
+        return IntStream.range(0, columns).parallel().mapToObj(column -> {
+            val profiler = new ColumnProfiler(data.columnType(column));
+            for (int i = 0; i < size; i++) {
+                if ((i & 0xfff) == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+                val value = records.get(i).get(column);
+                profiler.add(value == null ? null : value.toString());
+            }
+            return profiler.result();
+        }).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.giamgiammi.StructuredFileViewer.statistics;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+
+import java.util.List;
+
+/**
+ * The profile of the values of a column, as computed by {@link ColumnProfiler}
+ *
+ * @param type the type of the column, used to find the minimum and maximum
+ * @param count the number of records
+ * @param nulls the number of records without a value
+ * @param distinct the estimated number of distinct values
+ * @param min the lowest value, null if there are no values
+ * @param max the highest value, null if there are no values
+ * @param top the most frequent values, by descending count
+ * @param lengths the number of values by length: index 0 counts the empty values,
+ *                index {@code i > 0} the values with length from {@code 2^(i-1)} to {@code 2^i - 1}
+ * @param minLength the length of the shortest value, 0 if there are no values
+ * @param maxLength the length of the longest value, 0 if there are no values
+ */
+public record ColumnStatistics(ColumnType type, long count, long nulls, long distinct, String min, String max,
+                               List<SpaceSaving.ValueCount> top, long[] lengths, int minLength, int maxLength) {
+    /**
+     * Returns the lowest length counted at an index of {@link #lengths()}
+     */
+    public static int bucketStart(int index) {
+        return index == 0 ? 0 : 1 << (index - 1);
+    }
+
+    /**
+     * Returns the highest length counted at an index of {@link #lengths()}
+     */
+    public static int bucketEnd(int index) {
+        return index == 0 ? 0 : (int) ((1L << index) - 1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.giamgiammi.StructuredFileViewer.statistics;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Estimates the number of distinct values of a stream using a fixed amount of memory (HyperLogLog).
+ *
+ * Each value is hashed to 64 bits: the first {@value #PRECISION} bits choose a register, which keeps the
+ * highest position of the first set bit among the remaining bits of its values. The estimate is the harmonic
+ * mean of the registers, switching to linear counting while many registers are still empty,
+ * so small counts are nearly exact. The standard error is about 0.8%.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe.
+ */
+public final class HyperLogLog {
+    /**
+     * Number of bits of the hash choosing the register
+     */
+    private static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Adds a value
+     *
+     * @param value the value
+     */
+    public void add(@NonNull String value) {
+        val hash = hash(value);
+        val index = (int) (hash >>> (64 - PRECISION));
+        // the lowest bit caps the position when the remaining bits are all zero
+        val rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) registers[index] = rank;
+    }
+
+    /**
+     * Adds the values added to another instance
+     */
+    public void merge(@NonNull HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (val register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        val alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        val estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+        return Math.round(estimate);
+    }
+
+    /**
+     * Hashes a string to 64 bits (FNV-1a on its characters, mixed by the MurmurHash3 finalizer),
+     * since {@link String#hashCode()} has too few bits for counting hundreds of millions of values
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
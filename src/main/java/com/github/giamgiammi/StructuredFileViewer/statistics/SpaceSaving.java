@@ -0,0 +1,127 @@
+package com.github.giamgiammi.StructuredFileViewer.statistics;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent values of a stream using a fixed amount of memory (Space-Saving).
+ *
+ * At most {@code capacity} values are counted. When a new value arrives and all counters are taken,
+ * the value with the lowest count is replaced by the new one, which inherits its count as the error.
+ * Every value occurring more than {@code n / capacity} times out of {@code n} is guaranteed to be counted,
+ * and the count of each value exceeds its real count by at most its error.
+ *
+ * The counters are kept in a binary min-heap by count, so each value is counted in {@code O(log capacity)}.
+ *
+ * Thread safety:
+ * - Instances are not thread-safe.
+ */
+public final class SpaceSaving {
+    private final String[] values;
+    private final long[] counts;
+    private final long[] errors;
+    /**
+     * Position of each value in {@link #values}
+     */
+    private final Map<String, Integer> slots;
+    private int size;
+
+    /**
+     * @param capacity the number of values counted
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        values = new String[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        slots = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts an occurrence of a value
+     *
+     * @param value the value
+     */
+    public void add(@NonNull String value) {
+        val slot = slots.get(value);
+        if (slot != null) {
+            counts[slot]++;
+            siftDown(slot);
+        } else if (size < values.length) {
+            values[size] = value;
+            counts[size] = 1;
+            slots.put(value, size);
+            siftUp(size++);
+        } else {
+            // the root has the lowest count
+            slots.remove(values[0]);
+            values[0] = value;
+            errors[0] = counts[0];
+            counts[0]++;
+            slots.put(value, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the counted values, by descending count
+     *
+     * @param limit the maximum number of values to return
+     * @return the values with their counts
+     */
+    public List<ValueCount> top(int limit) {
+        val result = new ArrayList<ValueCount>(size);
+        for (int i = 0; i < size; i++) result.add(new ValueCount(values[i], counts[i], errors[i]));
+        result.sort(Comparator.comparingLong(ValueCount::count).reversed().thenComparing(ValueCount::value));
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            val parent = (i - 1) / 2;
+            if (counts[parent] <= counts[i]) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            val left = 2 * i + 1;
+            if (left >= size) return;
+            val child = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[child]) return;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        val value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+        val count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        val error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slots.put(values[a], a);
+        slots.put(values[b], b);
+    }
+
+    /**
+     * A counted value
+     *
+     * @param value the value
+     * @param count the number of occurrences counted, exceeding the real one by at most {@code error}
+     * @param error the maximum overestimation of the count; 0 if the count is exact
+     */
+    public record ValueCount(String value, long count, long error) {}
+}
@@ -0,0 +1,90 @@
+package com.github.giamgiammi.StructuredFileViewer.task;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * An input stream counting the bytes read from the underlying stream, and optionally ending after a number of bytes
+ *
+ * Thread safety:
+ * - The stream is read by one thread; {@link #getCount()} can be called by any thread.
+ * - The listener is called by the thread reading the stream.
+ */
+final class CountingInputStream extends FilterInputStream {
+    private final long limit;
+    private final LongConsumer listener;
+    private volatile long count;
+
+    CountingInputStream(@NonNull InputStream in) {
+        this(in, null);
+    }
+
+    /**
+     * @param listener called with the number of bytes read so far after each read; might be null.
+     *                 An exception thrown by the listener is propagated to the reader of the stream
+     */
+    CountingInputStream(@NonNull InputStream in, LongConsumer listener) {
+        this(in, Long.MAX_VALUE, listener);
+    }
+
+    /**
+     * @param limit the number of bytes after which the stream ends, even if the underlying stream has more
+     * @param listener called with the number of bytes read so far after each read; might be null.
+     *                 An exception thrown by the listener is propagated to the reader of the stream
+     */
+    CountingInputStream(@NonNull InputStream in, long limit, LongConsumer listener) {
+        super(in);
+        this.limit = limit;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the number of bytes read or skipped so far
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (count >= limit) return -1;
+        val b = super.read();
+        if (b >= 0) added(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte @NonNull [] b, int off, int len) throws IOException {
+        if (len > 0 && count >= limit) return -1;
+        val n = super.read(b, off, (int) Math.min(len, limit - count));
+        if (n > 0) added(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        val skipped = super.skip(Math.min(n, limit - count));
+        if (skipped > 0) added(skipped);
+        return skipped;
+    }
+
+    private void added(long n) {
+        count += n;
+        if (listener != null) listener.accept(count);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), limit - count);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
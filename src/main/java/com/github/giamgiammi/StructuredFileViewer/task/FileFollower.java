@@ -0,0 +1,190 @@
+package com.github.giamgiammi.StructuredFileViewer.task;
+
+import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows a file being appended to, like {@code tail -f}: only the bytes appended after the last parsed offset
+ * are parsed, and their records are added to the data of the file with {@link DataModel#parseAppended(byte[], int, TableLikeData)}.
+ *
+ * Changes are detected with a {@link WatchService} on the folder of the file; its size is also checked every
+ * {@value #POLL_MILLIS} milliseconds, since some file systems (e.g. network shares) do not report changes.
+ * Only whole records are parsed, the bytes of a record still being written are read again at the next change.
+ * Following stops if the file shrinks (e.g. it was truncated or rotated), since the records shown no longer match it.
+ *
+ * Thread safety:
+ * - Records are added by the thread of the follower, which must be the only one adding records to the data.
+ * - The listeners are notified on the thread of the follower.
+ * - {@link #close()} can be called from any thread.
+ */
+@Slf4j
+public final class FileFollower implements AutoCloseable {
+    static final long POLL_MILLIS = 1000;
+    /**
+     * Maximum number of appended bytes parsed at a time
+     */
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+
+    private final Path file;
+    private final DataModel<?, ?> model;
+    private final TableLikeData data;
+    private final ParseListener listener;
+    private volatile long offset;
+    private volatile boolean closed;
+    private Thread thread;
+
+    /**
+     * Listener notified when following stops because of an error; might be null
+     */
+    @Setter
+    private Consumer<Exception> onFailed;
+
+    /**
+     * @param file the followed file
+     * @param model the model that parsed the file
+     * @param data the data returned by the model; it must support {@link DataModel#canParseAppended(TableLikeData)}
+     * @param offset the number of bytes of the file already parsed into the data
+     * @param listener the listener notified when records are added
+     */
+    public FileFollower(@NonNull Path file, @NonNull DataModel<?, ?> model, @NonNull TableLikeData data, long offset, @NonNull ParseListener listener) {
+        if (!model.canParseAppended(data)) throw new IllegalArgumentException("Cannot parse records appended to " + data);
+        this.file = file;
+        this.model = model;
+        this.data = data;
+        this.offset = offset;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the number of bytes of the file parsed so far
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Starts following the file in background
+     */
+    public synchronized void start() {
+        if (thread != null) throw new IllegalStateException("Already started");
+        log.info("Following file {} from offset {}", file, offset);
+        thread = Thread.ofVirtual().name("file-follower").start(this::run);
+    }
+
+    private void run() {
+        try (val watcher = newWatchService()) {
+            while (!closed) {
+                parseAppended();
+                if (watcher == null) {
+                    Thread.sleep(POLL_MILLIS);
+                } else {
+                    val key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            log.info("Stopped following file {}", file);
+        } catch (IOException | RuntimeException e) {
+            if (closed) return;
+            log.error("Failed to follow file {}", file, e);
+            closed = true;
+            if (onFailed != null) onFailed.accept(e);
+        }
+    }
+
+    /**
+     * Creates a watch service notified when the folder of the file changes
+     *
+     * @return the watch service, null if the file system does not support it
+     */
+    private WatchService newWatchService() {
+        val folder = file.toAbsolutePath().getParent();
+        WatchService watcher = null;
+        try {
+            watcher = folder.getFileSystem().newWatchService();
+            folder.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Cannot watch folder {}, polling file {} instead", folder, file, e);
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException ex) {
+                    log.warn("Failed to close watch service", ex);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parses the whole records appended after the offset and notifies the listener
+     *
+     * @return the number of records added
+     * @throws IOException if the file cannot be read, has shrunk, or has a record too long to be parsed
+     */
+    int parseAppended() throws IOException {
+        int added = 0;
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val size = channel.size();
+            if (size < offset) throw new IOException("File shrank from %d to %d bytes".formatted(offset, size));
+            while (offset < size && !closed) {
+                val buffer = ByteBuffer.allocate((int) Math.min(size - offset, MAX_CHUNK_SIZE));
+                while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                    // read until the buffer is full
+                }
+                val from = data.getRecords().size();
+                val parsed = model.parseAppended(buffer.array(), buffer.position(), data);
+                if (parsed == 0) {
+                    if (buffer.position() == MAX_CHUNK_SIZE) throw new IOException("No whole record in %d bytes at offset %d".formatted(MAX_CHUNK_SIZE, offset));
+                    // the last record is still being written
+                    break;
+                }
+                offset += parsed;
+                val to = data.getRecords().size();
+                if (to > from) {
+                    listener.onRecords(data, from, to);
+                    added += to - from;
+                }
+            }
+        }
+        if (added > 0) log.debug("Added {} records appended to file {}", added, file);
+        return added;
+    }
+
+    /**
+     * Stops following the file; the records already added stay in the data
+     */
+    @Override
+    public synchronized void close() {
+        if (closed && thread == null) return;
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileFollower{file=%s, offset=%d}".formatted(file, offset);
+    }
+}
@@ -1,9 +1,15 @@
 package com.github.giamgiammi.StructuredFileViewer.task;
 
+import com.github.giamgiammi.StructuredFileViewer.cache.SnapshotCache;
 import com.github.giamgiammi.StructuredFileViewer.core.DataModel;
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import javafx.application.Platform;
 import javafx.concurrent.Task;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
@@ -12,33 +18,171 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Task implementation for parsing the content of a file using a specified {@link DataModel}.
  * This class is designed to handle file parsing in a background thread and allows the result
  * of the parsing to be used once the task completes.
  *
+ * If a {@link ParseListener} is set, partial results are published on the JavaFX application thread
+ * while the file is still being parsed. Batches published faster than the application thread can handle
+ * them are merged together.
+ *
+ * Files already parsed with the same settings are opened from their snapshot in the {@link SnapshotCache},
+ * and the snapshot of a newly parsed table is written in background.
+ *
+ * While parsing, the bytes read and the records parsed are reported as {@link Progress} at most every
+ * {@value #PROGRESS_INTERVAL_MILLIS} milliseconds, together with {@link #updateProgress(long, long)} when the size
+ * of the file is known. Cancelling the task (e.g. when its tab is closed) stops the model within milliseconds
+ * through {@link ParseListener#isCancelled()}, and closes the data already published to the listener.
+ *
  * @param <DATA> the type of the data structure produced by the parsing operation
  */
 @Slf4j
 @RequiredArgsConstructor
 public class ParseFileTask<DATA> extends Task<DATA> {
+    private static final long PROGRESS_INTERVAL_MILLIS = 200;
+
     @NonNull
     private final DataModel<?, DATA> model;
     @NonNull
     private final Path file;
 
+    /**
+     * Listener notified, on the JavaFX application thread, when new records are available
+     */
+    @Setter
+    private ParseListener listener;
+
+    /**
+     * Number of bytes of the file parsed, up to the end of its last whole record;
+     * -1 until the file is parsed or if it was opened from a snapshot
+     */
+    @Getter
+    private volatile long parsedBytes = -1;
+
+    /**
+     * Listener notified, on the JavaFX application thread, of the progress of the parsing
+     */
+    @Setter
+    private Consumer<Progress> progressListener;
+
+    private final AtomicReference<Progress> pendingProgress = new AtomicReference<>();
+    private long startNanos;
+    private long lastProgressNanos;
+    private long totalBytes = -1;
+    private long readBytes = -1;
+    private int parsedRecords;
+    /**
+     * The data published to the listener, closed if the task is cancelled
+     */
+    private volatile TableLikeData publishedData;
+
+    /**
+     * The listener given to the model, stopping it as soon as the task is cancelled
+     */
+    private final ParseListener publisher = new ParseListener() {
+        @Override
+        public void onRecords(@NonNull TableLikeData data, int from, int to) {
+            publish(data, from, to);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return ParseFileTask.this.isCancelled();
+        }
+    };
+
+    private final Object pendingLock = new Object();
+    private TableLikeData pendingData;
+    private int pendingFrom = -1;
+    private int pendingTo;
+
     @Override
+    @SuppressWarnings("unchecked")
     protected DATA call() throws Exception {
+        val cache = SnapshotCache.getInstance();
+        val snapshot = cache.load(file, model);
+        // snapshots are only written for models producing tables
+        if (snapshot != null) return (DATA) snapshot;
+
+        // taken before parsing, so that a file changing in the meantime does not get an outdated snapshot
+        val key = cache.isEnabled() ? cache.key(file, model) : null;
+        final DATA data;
+        try {
+            data = parse();
+        } catch (CancellationException e) {
+            log.info("Parsing of file {} cancelled", file);
+            // the records already shown are not needed anymore
+            if (publishedData != null) publishedData.close();
+            throw e;
+        }
+        if (isCancelled()) {
+            log.info("Parsing of file {} cancelled", file);
+            if (data instanceof AutoCloseable closeable) closeable.close();
+            throw new CancellationException("Parsing cancelled");
+        }
+        if (data instanceof TableLikeData table && !table.isFileBacked() && key != null) {
+            Thread.ofVirtual().name("snapshot-writer").start(() -> cache.store(file, model, key, table));
+        }
+        return data;
+    }
+
+    private DATA parse() throws ParsingFileException {
         log.info("Parsing file {}", file);
-        try (val stream = getInputStream()) {
-            return model.parse(stream);
+        startNanos = System.nanoTime();
+        try {
+            // the records appended while parsing, and the last one if still being written, are left to the follower
+            val size = model.wholeRecordsLength(file, Files.size(file));
+            totalBytes = size;
+            final DATA data;
+            if (model.canParseFile()) {
+                data = model.parse(file, size, publisher);
+            } else {
+                try (val stream = new CountingInputStream(getInputStream(), size, this::bytesRead)) {
+                    readBytes = 0;
+                    data = model.parse(stream, publisher);
+                }
+            }
+            parsedBytes = size;
+            return data;
         } catch (Exception e) {
+            if (isCancelled()) throw new CancellationException("Parsing cancelled");
             log.error("Failed to parse file", e);
             throw new ParsingFileException("Failed to parse file", e);
         }
     }
 
+    private void bytesRead(long count) {
+        readBytes = count;
+        reportProgress();
+    }
+
+    /**
+     * Reports the progress if enough time passed since the last report
+     *
+     * @throws CancellationException if the task was cancelled, to stop the parsing
+     */
+    private void reportProgress() {
+        if (isCancelled()) throw new CancellationException("Parsing cancelled");
+        val now = System.nanoTime();
+        if (now - lastProgressNanos < TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MILLIS)) return;
+        lastProgressNanos = now;
+
+        val progress = new Progress(readBytes, totalBytes, parsedRecords, now - startNanos);
+        if (totalBytes > 0) updateProgress(Math.min(readBytes, totalBytes), totalBytes);
+        if (progressListener != null && pendingProgress.getAndSet(progress) == null) {
+            Platform.runLater(() -> {
+                val latest = pendingProgress.getAndSet(null);
+                if (!isCancelled()) progressListener.accept(latest);
+            });
+        }
+    }
+
     /**
      * Creates and returns an {@link InputStream} to read the content of the file
      * associated with this task. The stream is wrapped with a {@link BufferedInputStream}
@@ -51,6 +195,76 @@ public class ParseFileTask<DATA> extends Task<DATA> {
         return new BufferedInputStream(Files.newInputStream(file));
     }
 
+    /**
+     * Schedules the notification of the listener on the JavaFX application thread.
+     * If a notification is already pending, the new range is merged into it.
+     */
+    private void publish(TableLikeData data, int from, int to) {
+        parsedRecords = to;
+        reportProgress();
+        if (listener == null) return;
+        publishedData = data;
+        final boolean schedule;
+        synchronized (pendingLock) {
+            schedule = pendingFrom < 0;
+            if (schedule) pendingFrom = from;
+            pendingData = data;
+            pendingTo = to;
+        }
+        if (schedule) Platform.runLater(this::flush);
+    }
+
+    private void flush() {
+        final TableLikeData data;
+        final int from;
+        final int to;
+        synchronized (pendingLock) {
+            data = pendingData;
+            from = pendingFrom;
+            to = pendingTo;
+            pendingData = null;
+            pendingFrom = -1;
+        }
+        if (!isCancelled()) listener.onRecords(data, from, to);
+    }
+
+    /**
+     * The progress of the parsing of a file
+     *
+     * @param bytes the number of bytes read, -1 if unknown (the file is parsed directly by the model)
+     * @param totalBytes the size of the file, -1 if unknown
+     * @param records the number of records parsed so far
+     * @param elapsedNanos the time spent parsing
+     */
+    public record Progress(long bytes, long totalBytes, int records, long elapsedNanos) {
+        /**
+         * @return the fraction of the file read, between 0 and 1, or -1 if unknown
+         */
+        public double fraction() {
+            if (bytes < 0 || totalBytes <= 0) return -1;
+            return Math.min(1, (double) bytes / totalBytes);
+        }
+
+        /**
+         * @return the number of bytes read per second, -1 if unknown
+         */
+        public double bytesPerSecond() {
+            if (bytes < 0 || elapsedNanos <= 0) return -1;
+            return bytes * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Estimates the time left assuming the rest of the file is read at the same speed
+         *
+         * @return the seconds left, -1 if unknown
+         */
+        public long remainingSeconds() {
+            val speed = bytesPerSecond();
+            if (speed <= 0 || totalBytes < 0) return -1;
+            return (long) Math.ceil(Math.max(0, totalBytes - bytes) / speed);
+        }
+    }
+
     @Override
     public String toString() {
         return "ParseFileTask{model=%s, file=%s}".formatted(model, file);
@@ -0,0 +1,111 @@
+package com.github.giamgiammi.StructuredFileViewer.ui.aggregation;
+
+import com.github.giamgiammi.StructuredFileViewer.App;
+import com.github.giamgiammi.StructuredFileViewer.aggregation.Aggregate;
+import com.github.giamgiammi.StructuredFileViewer.aggregation.Aggregation;
+import com.github.giamgiammi.StructuredFileViewer.aggregation.GroupBy;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.ChoiceWrapper;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+import lombok.NonNull;
+import lombok.val;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Dialog for choosing the columns to group the records of a table by and the values to compute for each group
+ */
+public class GroupByDialog extends Dialog<GroupBy> {
+    private final List<ChoiceWrapper<Integer>> columns;
+    private final List<ChoiceWrapper<Aggregate>> aggregates;
+    private final VBox aggregationRows = new VBox(5);
+
+    public GroupByDialog(Window owner, @NonNull TableLikeData data) {
+        initOwner(owner);
+
+        val bundle = App.getBundle();
+        setTitle(bundle.getString("group_by.title"));
+        setHeaderText(bundle.getString("group_by.header"));
+
+        val names = data.getColumnNames();
+        columns = IntStream.range(0, names.size())
+                .mapToObj(i -> new ChoiceWrapper<>(i, TextUtils.isEmpty(names.get(i))
+                        ? new MessageFormat(bundle.getString("table.column_n")).format(new Object[]{i + 1})
+                        : names.get(i)))
+                .toList();
+        aggregates = Arrays.stream(Aggregate.values())
+                .map(a -> new ChoiceWrapper<>(a, bundle.getString("aggregate." + a.name().toLowerCase(Locale.ROOT))))
+                .toList();
+
+        val grid = new GridPane(5, 5);
+
+        grid.add(new Label(bundle.getString("group_by.columns")), 0, 0);
+        val keys = new ListView<ChoiceWrapper<Integer>>();
+        keys.getItems().setAll(columns);
+        keys.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        keys.setPrefHeight(150);
+        grid.add(keys, 0, 1);
+
+        grid.add(new Label(bundle.getString("group_by.aggregates")), 0, 2);
+        grid.add(aggregationRows, 0, 3);
+        addAggregationRow(Aggregate.COUNT);
+
+        val add = new Button(bundle.getString("group_by.add"));
+        add.setOnAction(evt -> addAggregationRow(Aggregate.SUM));
+        grid.add(add, 0, 4);
+
+        getDialogPane().setContent(grid);
+
+        val okButton = new ButtonType(bundle.getString("label.ok"), ButtonBar.ButtonData.OK_DONE);
+        val cancelButton = new ButtonType(bundle.getString("label.cancel"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        getDialogPane().getButtonTypes().setAll(okButton, cancelButton);
+
+        setResultConverter(btn -> {
+            if (btn != okButton) return null;
+            val keyColumns = keys.getSelectionModel().getSelectedIndices().stream().sorted().toList();
+            val aggregations = aggregationRows.getChildren().stream()
+                    .map(HBox.class::cast)
+                    .map(this::getAggregation)
+                    .toList();
+            if (keyColumns.isEmpty() && aggregations.isEmpty()) return null;
+            return new GroupBy(data, keyColumns, aggregations);
+        });
+    }
+
+    /**
+     * Adds a row for choosing a function and its column
+     */
+    private void addAggregationRow(Aggregate aggregate) {
+        val function = new ComboBox<ChoiceWrapper<Aggregate>>();
+        function.getItems().setAll(aggregates);
+        function.getSelectionModel().select(aggregate.ordinal());
+
+        val column = new ComboBox<ChoiceWrapper<Integer>>();
+        column.getItems().setAll(columns);
+        if (!columns.isEmpty()) column.getSelectionModel().select(columns.size() - 1);
+        column.disableProperty().bind(function.valueProperty().map(f -> f.value() == Aggregate.COUNT));
+
+        val row = new HBox(5, function, column);
+        val remove = new Button(App.getBundle().getString("group_by.remove"));
+        remove.setOnAction(evt -> aggregationRows.getChildren().remove(row));
+        row.getChildren().add(remove);
+        aggregationRows.getChildren().add(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Aggregation getAggregation(HBox row) {
+        val function = (ComboBox<ChoiceWrapper<Aggregate>>) row.getChildren().get(0);
+        val column = (ComboBox<ChoiceWrapper<Integer>>) row.getChildren().get(1);
+        val aggregate = function.getValue().value();
+        return new Aggregation(aggregate, aggregate == Aggregate.COUNT || column.getValue() == null ? -1 : column.getValue().value());
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.giamgiammi.StructuredFileViewer.ui.csv;
 
 import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvBaseFormat;
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvEngine;
 import com.github.giamgiammi.StructuredFileViewer.model.csv.CsvSettings;
 import com.github.giamgiammi.StructuredFileViewer.model.csv.DuplicateHeaderModeChoice;
 import com.github.giamgiammi.StructuredFileViewer.model.csv.QuoteModeChoice;
@@ -65,6 +66,9 @@ public class CsvSettingsController implements Initializable, SettingsController<
     @FXML
     private TextField customHeaderNames;
 
+    @FXML
+    private ComboBox<CsvEngine> engine;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         baseFormatChoice.getItems().setAll(CsvBaseFormat.values());
@@ -115,6 +119,9 @@ public class CsvSettingsController implements Initializable, SettingsController<
         charset.setEditable(true);
         charset.getItems().setAll(TextUtils.commonCharsets());
         charset.getSelectionModel().select(0);
+
+        engine.getItems().setAll(CsvEngine.values());
+        engine.setValue(CsvEngine.STANDARD);
     }
 
     @Override
@@ -132,7 +139,8 @@ public class CsvSettingsController implements Initializable, SettingsController<
                 quoteMode.getValue() == null ? null : quoteMode.getValue().mode(),
                 skipHeaderRecord.isIndeterminate() ? null : skipHeaderRecord.isSelected(),
                 TextUtils.isEmpty(customHeaderNames.getText()) ? null : List.of(customHeaderNames.getText().split(",")),
-                Charset.forName(charset.getValue())
+                Charset.forName(charset.getValue()),
+                engine.getValue()
         );
     }
 
@@ -152,6 +160,7 @@ public class CsvSettingsController implements Initializable, SettingsController<
             skipHeaderRecord.setIndeterminate(true);
             customHeaderNames.setText(null);
             charset.setValue("UTF-8");
+            engine.setValue(CsvEngine.STANDARD);
         } else {
             baseFormatChoice.setValue(baseFormatChoice.getItems().stream().filter(choice -> choice.equals(settings.baseFormat())).findFirst().orElse(null));
             delimiter.setText(settings.delimiter());
@@ -193,6 +202,7 @@ public class CsvSettingsController implements Initializable, SettingsController<
             else
                 customHeaderNames.setText(null);
             charset.setValue(settings.charset().name());
+            engine.setValue(settings.engine() == null ? CsvEngine.STANDARD : settings.engine());
         }
     }
 }
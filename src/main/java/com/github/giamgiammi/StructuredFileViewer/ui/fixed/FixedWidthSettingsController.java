@@ -1,5 +1,6 @@
 package com.github.giamgiammi.StructuredFileViewer.ui.fixed;
 
+import com.github.giamgiammi.StructuredFileViewer.core.fixed.FixedWidthEngine;
 import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
 import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
 import com.github.giamgiammi.StructuredFileViewer.ui.inteface.SettingsController;
@@ -31,6 +32,9 @@ public class FixedWidthSettingsController implements SettingsController<FixedWid
     @FXML
     private TableView<FixedWidthColumn> table;
 
+    @FXML
+    private ComboBox<FixedWidthEngine> engine;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         val nameCol = (TableColumn<FixedWidthColumn, String>) table.getColumns().get(0);
@@ -58,6 +62,9 @@ public class FixedWidthSettingsController implements SettingsController<FixedWid
 
         charset.getItems().setAll(TextUtils.commonCharsets());
         charset.getSelectionModel().select(0);
+
+        engine.getItems().setAll(FixedWidthEngine.values());
+        engine.setValue(FixedWidthEngine.STANDARD);
     }
 
     public void handleAddCol() {
@@ -86,7 +93,7 @@ public class FixedWidthSettingsController implements SettingsController<FixedWid
         val columns = table.getItems().stream().toList();
         val recordEndsWithNewLine = this.recordEndsWithNewLine.isSelected();
         val charset = Charset.forName(this.charset.getSelectionModel().getSelectedItem());
-        return new FixedWidthSettings(columns, recordEndsWithNewLine, charset);
+        return new FixedWidthSettings(columns, recordEndsWithNewLine, charset, engine.getValue());
     }
 
     @Override
@@ -94,5 +101,6 @@ public class FixedWidthSettingsController implements SettingsController<FixedWid
         table.getItems().setAll(fixedWidthSettings.columns());
         recordEndsWithNewLine.setSelected(fixedWidthSettings.recordEndsWithNewLine());
         charset.getSelectionModel().select(fixedWidthSettings.charset().name());
+        engine.setValue(fixedWidthSettings.engine() == null ? FixedWidthEngine.STANDARD : fixedWidthSettings.engine());
     }
 }
@@ -1,4 +1,10 @@
 package com.github.giamgiammi.StructuredFileViewer.ui.inteface;
 
 public interface DataController {
-}
+    /**
+     * Releases the data shown by this controller, called when its tab is closed.
+     * The default implementation does nothing.
+     */
+    default void close() {
+    }
+}
\ No newline at end of file
@@ -4,10 +4,12 @@ import com.github.giamgiammi.StructuredFileViewer.App;
 import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
 import com.github.giamgiammi.StructuredFileViewer.model.LoadResult;
 import com.github.giamgiammi.StructuredFileViewer.model.TabData;
+import com.github.giamgiammi.StructuredFileViewer.task.FileFollower;
 import com.github.giamgiammi.StructuredFileViewer.task.ParseFileTask;
 import com.github.giamgiammi.StructuredFileViewer.task.ParseStringTask;
 import com.github.giamgiammi.StructuredFileViewer.ui.about.AboutDialog;
 import com.github.giamgiammi.StructuredFileViewer.ui.about.DebugInfoDialog;
+import com.github.giamgiammi.StructuredFileViewer.ui.aggregation.GroupByDialog;
 import com.github.giamgiammi.StructuredFileViewer.ui.exception.ExceptionAlert;
 import com.github.giamgiammi.StructuredFileViewer.ui.lang.ChangeLanguageDialog;
 import com.github.giamgiammi.StructuredFileViewer.ui.load.EditSettingsDialog;
@@ -15,14 +17,17 @@ import com.github.giamgiammi.StructuredFileViewer.ui.load.LoadFileDialog;
 import com.github.giamgiammi.StructuredFileViewer.ui.tab.CloseTabAlert;
 import com.github.giamgiammi.StructuredFileViewer.ui.table.TableDataController;
 import com.github.giamgiammi.StructuredFileViewer.utils.*;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +36,7 @@ import lombok.val;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +52,7 @@ import java.util.prefs.Preferences;
 public class MainViewController implements Initializable {
     private static final String SYSTEM_MENU_BAR_KEY = "system.menu.bar";
     private static final String CHECK_FOR_UPDATES_KEY = "check.for.updates";
+    private static final double MEGABYTE = 1024 * 1024;
 
     private static final BooleanProperty CHECK_FOR_UPADTE = new SimpleBooleanProperty(
             Preferences.userNodeForPackage(MainViewController.class).getBoolean(CHECK_FOR_UPDATES_KEY, false)
@@ -165,20 +172,45 @@ public class MainViewController implements Initializable {
         else task = new ParseStringTask<>(result.model(), result.fileContent());
 
         val name = result.file() != null ? result.file().getFileName().toString() : bundle.getString("label.pasted_content");
-        val tab = new Tab(name, new ProgressIndicator(ProgressIndicator.INDETERMINATE_PROGRESS));
-        tab.setOnCloseRequest(evt -> new CloseTabAlert(tabPane.getScene().getWindow(), tab.getText()).showAndWait()
-                .ifPresent(btn -> {
-                    if (btn.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
-                        tabDataMap.remove(tab);
-                    } else {
-                        evt.consume();
-                    }
-                }));
-        tabPane.getTabs().add(tab);
-        tabPane.getSelectionModel().select(tab);
+        val tab = addTab(name);
+        val status = new Label();
+        tab.setContent(loadingPane(task, status));
+        // a load still running when its tab is closed is not needed anymore
+        tab.setOnClosed(evt -> task.cancel());
+
+        val context = new TabData();
+        context.setModel(result.model());
+        context.setFile(result.file());
+        context.setFileContent(result.fileContent());
+
+        if (task instanceof ParseFileTask<?> fileTask) {
+            // show the first records while the rest of the file is still being parsed
+            fileTask.setListener((data, from, to) -> {
+                if (context.getController() instanceof TableDataController controller) {
+                    controller.recordsAppended();
+                    return;
+                }
+                showTable(tab, context, data, true);
+                if (context.getController() instanceof TableDataController controller) controller.setOnCancelLoading(task::cancel);
+            });
+            fileTask.setProgressListener(progress -> {
+                val text = formatProgress(progress);
+                status.setText(text);
+                if (context.getController() instanceof TableDataController controller) controller.setLoadingStatus(text);
+            });
+        }
+
+        task.setOnCancelled(evt -> {
+            log.info("Loading of {} cancelled", name);
+            // closing the controller also releases the records already loaded
+            val removed = tabDataMap.remove(tab);
+            if (removed != null && removed.getController() != null) removed.getController().close();
+            tab.setContent(new Label(bundle.getString("label.load_cancelled")));
+        });
 
         task.setOnFailed(evt -> {
             log.error("Failed to load file", task.getException());
+            tabDataMap.remove(tab);
             tab.setContent(new Label(bundle.getString("label.failed_load_file")));
             new ExceptionAlert(rootPane.getScene().getWindow(), task.getException()).showAndWait();
         });
@@ -190,19 +222,14 @@ public class MainViewController implements Initializable {
                 log.error("Failed to load file: null data");
                 tab.setContent(new Label(bundle.getString("label.failed_load_file")));
                 new ExceptionAlert(rootPane.getScene().getWindow(), new NullPointerException("Null data")).showAndWait();
+                return;
             }
 
-            val context = new TabData();
-            context.setModel(result.model());
-            context.setFile(result.file());
-            context.setFileContent(result.fileContent());
-            tabDataMap.put(tab, context);
-
-            if (data instanceof TableLikeData tableLikeData) {
-                tab.setContent(FXUtils.loadFXML(TableDataController.class, "table", controller -> {
-                    controller.setData(tableLikeData);
-                    context.setController(controller);
-                }));
+            if (task instanceof ParseFileTask<?> fileTask) context.setParsedBytes(fileTask.getParsedBytes());
+            if (context.getController() instanceof TableDataController controller) {
+                controller.setLoading(false);
+            } else if (data instanceof TableLikeData tableLikeData) {
+                showTable(tab, context, tableLikeData, false);
             } else {
                 log.error("Failed to load file: unexpected data type {}", data.getClass());
                 tab.setContent(new Label(bundle.getString("label.failed_load_file")));
@@ -213,15 +240,174 @@ public class MainViewController implements Initializable {
         FXUtils.start(task);
     }
 
+    /**
+     * Creates the content of a tab while its data is loaded, with the progress of the task and a button to cancel it
+     *
+     * @param task the task loading the data
+     * @param status the label showing the progress
+     */
+    private VBox loadingPane(Task<?> task, Label status) {
+        val indicator = new ProgressIndicator();
+        indicator.progressProperty().bind(task.progressProperty());
+        val cancelButton = new Button(bundle.getString("label.cancel_loading"));
+        cancelButton.setOnAction(evt -> task.cancel());
+        val pane = new VBox(8, indicator, status, cancelButton);
+        pane.setAlignment(Pos.CENTER);
+        return pane;
+    }
+
+    /**
+     * Describes the progress of the parsing of a file: the part read, the rows, the speed and the time left
+     */
+    private String formatProgress(ParseFileTask.Progress progress) {
+        if (progress.fraction() < 0) return new MessageFormat(bundle.getString("load.progress_records")).format(new Object[]{progress.records()});
+        return new MessageFormat(bundle.getString("load.progress")).format(new Object[]{
+                progress.fraction(),
+                progress.bytes() / MEGABYTE,
+                progress.totalBytes() / MEGABYTE,
+                progress.records(),
+                progress.bytesPerSecond() / MEGABYTE,
+                formatDuration(progress.remainingSeconds())
+        });
+    }
+
+    /**
+     * Formats a number of seconds as [h:]mm:ss, or ? if negative
+     */
+    private static String formatDuration(long seconds) {
+        if (seconds < 0) return "?";
+        if (seconds < 3600) return "%d:%02d".formatted(seconds / 60, seconds % 60);
+        return "%d:%02d:%02d".formatted(seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    /**
+     * Adds a new selected tab, showing a progress indicator until its content is set.
+     * Closing the tab asks for confirmation and closes the controller of its data.
+     *
+     * @param name the name of the tab
+     * @return the new tab
+     */
+    private Tab addTab(String name) {
+        val tab = new Tab(name, new ProgressIndicator(ProgressIndicator.INDETERMINATE_PROGRESS));
+        tab.setOnCloseRequest(evt -> new CloseTabAlert(tabPane.getScene().getWindow(), tab.getText()).showAndWait()
+                .ifPresent(btn -> {
+                    if (btn.getButtonData() == ButtonBar.ButtonData.OK_DONE) {
+                        val removed = tabDataMap.remove(tab);
+                        if (removed != null && removed.getFollower() != null) removed.getFollower().close();
+                        if (removed != null && removed.getController() != null) removed.getController().close();
+                    } else {
+                        evt.consume();
+                    }
+                }));
+        tabPane.getTabs().add(tab);
+        tabPane.getSelectionModel().select(tab);
+        return tab;
+    }
+
+    /**
+     * Shows the given data inside the tab
+     *
+     * @param tab the tab to use
+     * @param context the context of the tab
+     * @param data the data to show
+     * @param loading true if the data is still being loaded
+     */
+    private void showTable(Tab tab, TabData context, TableLikeData data, boolean loading) {
+        tabDataMap.put(tab, context);
+        tab.setContent(FXUtils.loadFXML(TableDataController.class, "table", controller -> {
+            controller.setLoading(loading);
+            controller.setData(data);
+            context.setController(controller);
+        }));
+    }
+
     /**
      * Handler for the edit settings data menu item
      */
     public void handleEditSettings() {
-        new EditSettingsDialog(rootPane.getScene().getWindow(),
-                tabDataMap.get(tabPane.getSelectionModel().getSelectedItem())).showAndWait()
+        val context = tabDataMap.get(tabPane.getSelectionModel().getSelectedItem());
+        // computed tabs, like the groups of another tab, have no settings
+        if (context == null || context.getModel() == null) return;
+        new EditSettingsDialog(rootPane.getScene().getWindow(), context).showAndWait()
                 .ifPresent(this::loadTab);
     }
 
+    /**
+     * Handler for the group by data menu item.
+     * Groups the records shown in the selected tab in background, and shows the groups in a new tab.
+     */
+    public void handleGroupBy() {
+        val source = tabPane.getSelectionModel().getSelectedItem();
+        val sourceContext = tabDataMap.get(source);
+        if (sourceContext == null || !(sourceContext.getController() instanceof TableDataController controller) || controller.getData() == null) return;
+
+        new GroupByDialog(rootPane.getScene().getWindow(), controller.getData()).showAndWait().ifPresent(groupBy -> {
+            val rows = controller.getMatchingRows();
+            // the groups are computed by the common pool, where the task thread is not interrupted
+            val cancelled = new AtomicBoolean();
+            val task = FXUtils.task("GroupBy", () -> groupBy.aggregate(rows, cancelled::get));
+            val name = new MessageFormat(bundle.getString("group_by.tab")).format(new Object[]{source.getText()});
+            val tab = addTab(name);
+            // closing the tab while grouping stops the task
+            tab.setOnClosed(evt -> {
+                cancelled.set(true);
+                task.cancel();
+            });
+
+            val context = new TabData();
+            task.setOnSucceeded(evt -> showTable(tab, context, task.getValue(), false));
+            task.setOnFailed(evt -> {
+                log.error("Failed to group records", task.getException());
+                tab.setContent(new Label(bundle.getString("group_by.failed")));
+                new ExceptionAlert(rootPane.getScene().getWindow(), task.getException()).showAndWait();
+            });
+            FXUtils.start(task);
+        });
+    }
+
+    /**
+     * Handler for the follow file data menu item.
+     * Starts adding to the selected tab the records appended to its file, or stops if already following it.
+     */
+    public void handleFollow() {
+        val context = tabDataMap.get(tabPane.getSelectionModel().getSelectedItem());
+        if (context == null || !(context.getController() instanceof TableDataController controller)) return;
+        if (context.getFollower() != null) {
+            stopFollowing(context, controller);
+            return;
+        }
+
+        val data = controller.getData();
+        if (context.getFile() == null || context.getParsedBytes() < 0 || data == null || !context.getModel().canParseAppended(data)) {
+            val alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.initOwner(rootPane.getScene().getWindow());
+            alert.setTitle(bundle.getString("follow.title"));
+            alert.setHeaderText(bundle.getString("follow.unsupported"));
+            alert.showAndWait();
+            return;
+        }
+
+        val follower = new FileFollower(context.getFile(), context.getModel(), data, context.getParsedBytes(),
+                (d, from, to) -> Platform.runLater(controller::recordsAppended));
+        follower.setOnFailed(e -> Platform.runLater(() -> {
+            if (context.getFollower() != follower) return;
+            stopFollowing(context, controller);
+            new ExceptionAlert(rootPane.getScene().getWindow(), e).showAndWait();
+        }));
+        context.setFollower(follower);
+        controller.setFollowing(true);
+        follower.start();
+    }
+
+    private void stopFollowing(TabData context, TableDataController controller) {
+        val follower = context.getFollower();
+        follower.close();
+        // following again continues from where it stopped
+        context.setParsedBytes(follower.getOffset());
+        context.setFollower(null);
+        controller.setFollowing(false);
+    }
+
     public void openFiles(@NonNull Path...files) {
         for (val file: files) {
             new LoadFileDialog(rootPane.getScene().getWindow(), file).showAndWait().ifPresent(this::loadTab);
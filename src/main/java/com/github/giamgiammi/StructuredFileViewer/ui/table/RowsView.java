@@ -0,0 +1,115 @@
+package com.github.giamgiammi.StructuredFileViewer.ui.table;
+
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import javafx.collections.ObservableListBase;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An observable list showing some records of the data, in the order given by their indexes.
+ *
+ * Only the indexes are kept (4 bytes per record), so it can show a sorted view of huge data,
+ * even when the records are created when accessed. Records can only be appended, through their index.
+ * A view of the first records of the data in order does not even keep their indexes, so that showing
+ * all the records takes the same memory regardless of their number; the indexes are only created
+ * if records are appended out of order.
+ *
+ * Thread safety:
+ * - Like every observable list shown in a table, it must only be used from the JavaFX Application Thread.
+ */
+final class RowsView extends ObservableListBase<TableLikeData.Record> implements RandomAccess {
+    private final TableLikeData data;
+    private List<TableLikeData.Record> records;
+    /**
+     * The indexes of the shown records, null if they are the first {@link #size} records of the data
+     */
+    private int[] rows;
+    private int size;
+
+    /**
+     * Creates a view of the first records of the data, in order
+     *
+     * @param data the data the records belong to
+     * @param size the number of records to show
+     */
+    RowsView(@NonNull TableLikeData data, int size) {
+        this.data = data;
+        this.records = data.getRecords();
+        this.size = size;
+    }
+
+    /**
+     * @param data the data the records belong to
+     * @param rows the indexes of the records to show, in order; the array is owned by the view afterwards
+     */
+    RowsView(@NonNull TableLikeData data, @NonNull int[] rows) {
+        this.data = data;
+        this.records = data.getRecords();
+        this.rows = rows;
+        this.size = rows.length;
+    }
+
+    @Override
+    public TableLikeData.Record get(int index) {
+        Objects.checkIndex(index, size);
+        val row = rows == null ? index : rows[index];
+        if (row >= records.size()) records = data.getRecords();
+        return records.get(row);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the indexes of the shown records in order, or null if they are the first records of the data
+     */
+    int[] rows() {
+        return rows == null ? null : Arrays.copyOf(rows, size);
+    }
+
+    /**
+     * Appends the records in {@code [from, to)}
+     */
+    void addRows(int from, int to) {
+        if (from >= to) return;
+        if (rows == null && from == size) {
+            beginChange();
+            nextAdd(size, to);
+            size = to;
+            endChange();
+            return;
+        }
+        ensureCapacity(size + to - from);
+        beginChange();
+        nextAdd(size, size + to - from);
+        for (int row = from; row < to; row++) rows[size++] = row;
+        endChange();
+    }
+
+    /**
+     * Appends the records whose indexes are in {@code indexes[from, to)}
+     */
+    void addRows(@NonNull int[] indexes, int from, int to) {
+        if (from >= to) return;
+        ensureCapacity(size + to - from);
+        beginChange();
+        nextAdd(size, size + to - from);
+        System.arraycopy(indexes, from, rows, size, to - from);
+        size += to - from;
+        endChange();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (rows == null) {
+            rows = new int[Math.max(capacity, 16)];
+            for (int i = 0; i < size; i++) rows[i] = i;
+        } else if (capacity > rows.length) rows = Arrays.copyOf(rows, Math.max(capacity, rows.length + (rows.length >> 1)));
+    }
+}
@@ -2,22 +2,30 @@ package com.github.giamgiammi.StructuredFileViewer.ui.table;
 
 import com.github.giamgiammi.StructuredFileViewer.App;
 import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.filters.ParallelFilter;
 import com.github.giamgiammi.StructuredFileViewer.filters.TableFilter;
 import com.github.giamgiammi.StructuredFileViewer.model.FilterType;
+import com.github.giamgiammi.StructuredFileViewer.search.CellSearch;
+import com.github.giamgiammi.StructuredFileViewer.search.SearchHits;
+import com.github.giamgiammi.StructuredFileViewer.sorting.RowSorter;
+import com.github.giamgiammi.StructuredFileViewer.sorting.SortKey;
+import com.github.giamgiammi.StructuredFileViewer.statistics.ColumnProfiler;
+import com.github.giamgiammi.StructuredFileViewer.statistics.ColumnStatistics;
 import com.github.giamgiammi.StructuredFileViewer.ui.exception.ExceptionAlert;
 import com.github.giamgiammi.StructuredFileViewer.ui.inteface.DataController;
 import com.github.giamgiammi.StructuredFileViewer.utils.FXUtils;
 import com.github.giamgiammi.StructuredFileViewer.utils.ListUtils;
 import com.github.giamgiammi.StructuredFileViewer.utils.QueryHistory;
 import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.ContextMenuEvent;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
@@ -28,6 +36,7 @@ import lombok.val;
 
 import java.net.URL;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.stream.IntStream;
@@ -39,15 +48,133 @@ public class TableDataController implements DataController, Initializable {
 
     private TableLikeData data;
 
+    /**
+     * The filter applied to the records currently shown, null if all records are shown
+     */
+    private TableFilter filter;
+
+    /**
+     * The query of {@link #filter}
+     */
+    private String filterQuery;
+
+    /**
+     * The indexes of the records matching {@link #filter} in ascending order, valid up to {@link #matchingCount}.
+     * Used to evaluate only the previous matches when a query is refined.
+     */
+    private int[] matchingRows;
+
+    /**
+     * Number of valid elements of {@link #matchingRows}
+     */
+    private int matchingCount;
+
+    /**
+     * Number of records of {@link #data} already taken into account for the shown items
+     */
+    private int coveredRows;
+
+    /**
+     * True while a background task is replacing the shown items
+     */
+    private boolean updating;
+
+    /**
+     * True while the data is still being loaded and new records might be appended to it
+     */
+    private boolean loading;
+
+    /**
+     * The progress of the loading shown next to the row count, null to show a generic text
+     */
+    private String loadingStatus;
+
+    /**
+     * Called to cancel the loading of the data, null if it cannot be cancelled
+     */
+    private Runnable onCancelLoading;
+
+    /**
+     * True while the records appended to the file are added to the data
+     */
+    private boolean following;
+
+    /**
+     * The task evaluating the last query, null if no query is being evaluated
+     */
+    private FilterTask filterTask;
+
+    /**
+     * The task filtering the records appended after {@link #coveredRows}, null if not running
+     */
+    private CatchUpTask catchUpTask;
+
+    /**
+     * Sorts the records of {@link #data}, keeping the ranks of the sorted columns between sorts
+     */
+    private RowSorter sorter;
+
+    /**
+     * The task sorting the shown records, null if no sort is running
+     */
+    private SortTask sortTask;
+
+    /**
+     * The statistics of each column, null until computed
+     */
+    private List<ColumnStatistics> statistics;
+
+    /**
+     * The task computing {@link #statistics}, null if not running
+     */
+    private StatisticsTask statisticsTask;
+
+    /**
+     * The hits of the last search in the shown items, null if no search was run on them
+     */
+    private SearchHits searchHits;
+
+    /**
+     * The text of {@link #searchHits}
+     */
+    private String searchText;
+
+    /**
+     * The task of the last search, null if no search is running
+     */
+    private FindTask findTask;
+
+    /**
+     * True while the shown items are replaced, so that the sort policy ignores the change
+     */
+    private boolean replacingItems;
+
+    /**
+     * The context menu of the cells, null until first requested
+     */
+    private CellMenu cellMenu;
+
     @FXML
     private BorderPane rootPane;
 
+    @FXML
+    private Label rowCountLabel;
+
+    @FXML
+    private Button cancelLoadingButton;
+
     @FXML
     private Button runQueryButton;
 
     @FXML
     private TextField queryTextField;
 
+    @FXML
+    private TextField findTextField;
+
+    @FXML
+    private Label findLabel;
+
     @FXML
     private TableView<TableLikeData.Record> tableView;
 
@@ -69,12 +196,108 @@ public class TableDataController implements DataController, Initializable {
             if (queryHistory.isUpdating()) return;
             queryHistory.add(newVal);
         });
+        rootPane.addEventFilter(KeyEvent.KEY_PRESSED, evt -> {
+            if (evt.isShortcutDown() && evt.getCode() == KeyCode.F) {
+                findTextField.requestFocus();
+                findTextField.selectAll();
+                evt.consume();
+            } else if (evt.getCode() == KeyCode.F3) {
+                if (evt.isShiftDown()) handleFindPrevious();
+                else handleFindNext();
+                evt.consume();
+            }
+        });
+        // sorting the items on the FX thread would freeze the UI on big data, they are sorted in background instead
+        tableView.setSortPolicy(table -> {
+            if (!replacingItems) sortItems();
+            return true;
+        });
     }
 
     public void setData(@NonNull TableLikeData data) {
         log.info("Loading table data: data={}", data);
         this.data = data;
+        this.sorter = new RowSorter(data);
         refreshData();
+        if (!loading) computeStatistics();
+    }
+
+    /**
+     * @return the data shown, null until set
+     */
+    public TableLikeData getData() {
+        return data;
+    }
+
+    /**
+     * Returns the indexes of the records matching the current filter, in ascending order
+     *
+     * @return a copy of the indexes, or null if no filter is applied
+     */
+    public int[] getMatchingRows() {
+        return filter == null ? null : Arrays.copyOf(matchingRows, matchingCount);
+    }
+
+    /**
+     * Set whether the data is still being loaded.
+     * While loading, {@link #recordsAppended()} should be called when new records are available.
+     *
+     * @param loading true if the data is still being loaded
+     */
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+        if (!loading) {
+            loadingStatus = null;
+            catchUp();
+            computeStatistics();
+        }
+        updateCancelLoadingButton();
+        updateRowCount();
+    }
+
+    /**
+     * Set the progress of the loading, shown while the data is still being loaded
+     *
+     * @param loadingStatus the progress, null to show a generic text
+     */
+    public void setLoadingStatus(String loadingStatus) {
+        this.loadingStatus = loadingStatus;
+        updateRowCount();
+    }
+
+    /**
+     * Set the action cancelling the loading, offered while the data is still being loaded
+     *
+     * @param onCancelLoading the action, null if the loading cannot be cancelled
+     */
+    public void setOnCancelLoading(Runnable onCancelLoading) {
+        this.onCancelLoading = onCancelLoading;
+        updateCancelLoadingButton();
+    }
+
+    private void updateCancelLoadingButton() {
+        val visible = loading && onCancelLoading != null;
+        cancelLoadingButton.setVisible(visible);
+        cancelLoadingButton.setManaged(visible);
+    }
+
+    /**
+     * Set whether the records appended to the file are being added to the data.
+     * While following, {@link #recordsAppended()} should be called when new records are available.
+     *
+     * @param following true if the file is being followed
+     */
+    public void setFollowing(boolean following) {
+        this.following = following;
+        updateRowCount();
+    }
+
+    /**
+     * Notifies the controller that new records have been appended to the data.
+     * The new records are filtered with the current filter and added to the table.
+     */
+    public void recordsAppended() {
+        catchUp();
     }
 
     private void resetColumns() {
@@ -132,52 +355,450 @@ public class TableDataController implements DataController, Initializable {
     }
 
     private void updateByFilter() {
-        rootPane.setDisable(true);
-        val oldContent = runQueryButton.getGraphic();
-        runQueryButton.setGraphic(new ProgressIndicator(ProgressIndicator.INDETERMINATE_PROGRESS));
-        val task = FXUtils.task("GetFiltreredRecords", this::getFilteredRecords);
+        cancelFilter();
+        cancelCatchUp();
+        cancelSort();
+        updating = true;
+        tableView.setDisable(true);
+        val query = queryTextField.getText();
+        val previous = filter == null ? null : new PreviousFilter(filterQuery, matchingRows, matchingCount, coveredRows);
+        val task = new FilterTask(query, previous);
+        filterTask = task;
+        val progress = new ProgressIndicator();
+        progress.progressProperty().bind(task.progressProperty());
+        runQueryButton.setGraphic(progress);
         task.setOnSucceeded(evt -> {
-            tableView.setItems(task.getValue());
-            rootPane.setDisable(false);
-            runQueryButton.setGraphic(oldContent);
+            if (filterDone(task)) applyFilterResult(task.getValue());
         });
         task.setOnFailed(evt -> {
             log.error("Failed to update table data by filter", task.getException());
+            if (!filterDone(task)) return;
             new ExceptionAlert(tableView.getScene().getWindow(), task.getException()).showAndWait();
-            rootPane.setDisable(false);
-            runQueryButton.setGraphic(oldContent);
+            updating = false;
+            catchUp();
         });
         FXUtils.start(task);
     }
 
-    private ObservableList<TableLikeData.Record> getFilteredRecords() {
-        val query = queryTextField.getText();
-        if (TextUtils.isBlank(query)) return FXCollections.observableArrayList(data.getRecords());
+    /**
+     * Cancels the evaluation of the last query, if still running.
+     * The caller is responsible for showing the right items afterwards.
+     */
+    private void cancelFilter() {
+        if (filterTask == null) return;
+        log.info("Cancelling {}", filterTask);
+        val task = filterTask;
+        filterDone(task);
+        task.cancel();
+    }
+
+    /**
+     * Restores the UI after a filter task ended, unless a newer filter task replaced it
+     *
+     * @param task the task that ended
+     * @return true if the task was the current one
+     */
+    private boolean filterDone(FilterTask task) {
+        if (filterTask != task) return false;
+        filterTask = null;
+        tableView.setDisable(false);
+        runQueryButton.setGraphic(null);
+        return true;
+    }
+
+    /**
+     * Filters the records of the data.
+     * The records are shown through a {@link RowsView} of their indexes, so that they are never copied:
+     * lazy records are only created for the visible cells, and showing all the records takes no memory per record.
+     *
+     * @param data the data to filter
+     * @param query the query, null or blank to show all the records
+     * @param previous the filter currently shown, null if none
+     * @param monitor the monitor of the filtering
+     * @return the result of the filtering
+     */
+    static FilterResult filterRecords(@NonNull TableLikeData data, String query, PreviousFilter previous, ParallelFilter.Monitor monitor) throws InterruptedException {
+        val records = data.getRecords();
+        if (TextUtils.isBlank(query)) {
+            val size = records.size();
+            return new FilterResult(null, null, null, new RowsView(data, size), size);
+        }
+
+        val filter = TableFilter.parse(query, data);
+        int[] candidates = null;
+        if (previous != null && TableFilter.isRefinement(previous.query(), query)) {
+            candidates = previous.candidates(records.size());
+            log.info("Query refines the previous one, testing {} records out of {}", candidates.length, records.size());
+        }
+        val rows = ParallelFilter.filter(filter, records, candidates, monitor);
+        // the view owns its indexes, the matching rows keep growing on their own
+        return new FilterResult(filter, query, rows, new RowsView(data, rows.clone()), records.size());
+    }
+
+    /**
+     * Shows the result of a filter and appends the records loaded in the meantime
+     */
+    private void applyFilterResult(FilterResult result) {
+        resetFind();
+        setItems(result.records());
+        filter = result.filter();
+        filterQuery = result.query();
+        matchingRows = result.rows();
+        matchingCount = result.rows() == null ? 0 : result.rows().length;
+        coveredRows = result.coveredRows();
+        updating = false;
+        catchUp();
+        updateRowCount();
+        if (!tableView.getSortOrder().isEmpty()) sortItems();
+    }
+
+    /**
+     * Replaces the shown items, without triggering a sort
+     */
+    private void setItems(RowsView items) {
+        replacingItems = true;
+        try {
+            tableView.setItems(items);
+        } finally {
+            replacingItems = false;
+        }
+    }
+
+    /**
+     * Sorts the shown records in background by the sort order of the table, cancelling the previous sort if running.
+     * The current items stay visible until the sorted ones replace them.
+     * Does nothing while a background task is replacing the shown items, since they will be sorted when done.
+     */
+    private void sortItems() {
+        cancelSort();
+        if (updating || data == null) return;
+        val keys = tableView.getSortOrder().stream()
+                .filter(col -> col.getUserData() instanceof Integer)
+                .map(col -> new SortKey((Integer) col.getUserData(), col.getSortType() == TableColumn.SortType.ASCENDING))
+                .toList();
+        val task = filter == null ? new SortTask(null, coveredRows, keys) : new SortTask(matchingRows, matchingCount, keys);
+        sortTask = task;
+        task.setOnSucceeded(evt -> {
+            if (sortDone(task)) applySort(task);
+        });
+        task.setOnFailed(evt -> {
+            log.error("Failed to sort table data", task.getException());
+            if (sortDone(task)) new ExceptionAlert(tableView.getScene().getWindow(), task.getException()).showAndWait();
+        });
+        FXUtils.start(task);
+    }
+
+    /**
+     * Cancels the running sort, if any; the shown items stay in their current order
+     */
+    private void cancelSort() {
+        if (sortTask == null) return;
+        log.info("Cancelling {}", sortTask);
+        val task = sortTask;
+        sortDone(task);
+        task.cancel();
+    }
+
+    /**
+     * @return true if the task was the current sort
+     */
+    private boolean sortDone(SortTask task) {
+        if (sortTask != task) return false;
+        sortTask = null;
+        return true;
+    }
+
+    /**
+     * Shows the sorted records, followed by the ones loaded while sorting
+     */
+    private void applySort(SortTask task) {
+        val view = new RowsView(data, task.getValue());
+        if (filter == null) view.addRows(task.count, coveredRows);
+        else view.addRows(matchingRows, task.count, matchingCount);
+        resetFind();
+        setItems(view);
+        updateRowCount();
+    }
+
+    /**
+     * Adds to the table the records appended to the data but not yet shown, applying the current filter.
+     * Does nothing while a background task is replacing the shown items, since it will call this method when done.
+     *
+     * Without a filter the records are added right away by index. Otherwise they are filtered in background
+     * by a {@link CatchUpTask}, and only their indexes are added on the FX thread; the records appended
+     * in the meantime are filtered by the next task, started when the previous one is done.
+     */
+    private void catchUp() {
+        if (updating || data == null || catchUpTask != null) return;
+        val records = data.getRecords();
+        if (records.size() <= coveredRows) return;
+
+        val columnCount = data.getColumnNames().size();
+        val shownColumns = tableView.getColumns().size() - 1;
+        if (shownColumns >= 0 && columnCount > shownColumns) {
+            tableView.getColumns().addAll(IntStream.range(shownColumns, columnCount).mapToObj(this::getTableColumn).toList());
+        }
+
+        if (filter != null) {
+            val task = new CatchUpTask(filter, coveredRows, records.size());
+            catchUpTask = task;
+            task.setOnSucceeded(evt -> {
+                if (catchUpDone(task)) applyCatchUp(task);
+            });
+            task.setOnFailed(evt -> {
+                log.error("Failed to filter appended records", task.getException());
+                if (catchUpDone(task)) new ExceptionAlert(tableView.getScene().getWindow(), task.getException()).showAndWait();
+            });
+            FXUtils.start(task);
+            return;
+        }
+        ((RowsView) tableView.getItems()).addRows(coveredRows, records.size());
+        coveredRows = records.size();
+        updateRowCount();
+    }
+
+    /**
+     * Adds the appended records matching the filter, then filters the ones appended in the meantime
+     */
+    private void applyCatchUp(CatchUpTask task) {
+        val rows = task.getValue();
+        val from = matchingCount;
+        if (matchingCount + rows.length > matchingRows.length) {
+            matchingRows = Arrays.copyOf(matchingRows, Math.max(matchingCount + rows.length, Math.max(16, matchingCount * 2)));
+        }
+        System.arraycopy(rows, 0, matchingRows, matchingCount, rows.length);
+        matchingCount += rows.length;
+        ((RowsView) tableView.getItems()).addRows(matchingRows, from, matchingCount);
+        coveredRows = task.to;
+        updateRowCount();
+        catchUp();
+    }
+
+    /**
+     * Cancels the filtering of the appended records, if running; they are filtered again by the next {@link #catchUp()}
+     */
+    private void cancelCatchUp() {
+        if (catchUpTask == null) return;
+        log.info("Cancelling {}", catchUpTask);
+        val task = catchUpTask;
+        catchUpDone(task);
+        task.cancel();
+    }
+
+    /**
+     * @return true if the task was the current filtering of the appended records
+     */
+    private boolean catchUpDone(CatchUpTask task) {
+        if (catchUpTask != task) return false;
+        catchUpTask = null;
+        return true;
+    }
+
+    /**
+     * Searches the text of the find field in all the cells of the shown items, in background.
+     * The first hit is selected as soon as it is found, the others can be reached while the search goes on.
+     */
+    private void startFind() {
+        resetFind();
+        val text = findTextField.getText();
+        if (TextUtils.isEmpty(text) || data == null) return;
+        val hits = new SearchHits();
+        val task = new FindTask(getShownRows(), tableView.getItems().size(), text, hits);
+        searchHits = hits;
+        searchText = text;
+        findTask = task;
+        task.setOnSucceeded(evt -> {
+            if (findDone(task)) updateFindLabel();
+        });
+        task.setOnFailed(evt -> {
+            log.error("Failed to search table data", task.getException());
+            if (findDone(task)) new ExceptionAlert(tableView.getScene().getWindow(), task.getException()).showAndWait();
+        });
+        updateFindLabel();
+        FXUtils.start(task);
+    }
+
+    /**
+     * Adds the hits found by a search, selecting the first one
+     */
+    private void hitsFound(FindTask task, long[] hits) {
+        if (findTask != task) return;
+        task.hits.add(hits);
+        if (task.hits.getCurrent() < 0 && task.hits.size() > 0) selectHit(task.hits.next(-1, 0));
+        updateFindLabel();
+    }
+
+    /**
+     * Cancels the running search, if any, and forgets the hits of the last one
+     */
+    private void resetFind() {
+        if (findTask != null) {
+            log.info("Cancelling {}", findTask);
+            val task = findTask;
+            findDone(task);
+            task.cancel();
+        }
+        searchHits = null;
+        searchText = null;
+        updateFindLabel();
+    }
+
+    /**
+     * @return true if the task was the current search
+     */
+    private boolean findDone(FindTask task) {
+        if (findTask != task) return false;
+        findTask = null;
+        return true;
+    }
 
-        val filter = TableFilter.parse(query, data.getColumnNames());
-        return FXCollections.observableArrayList(filter.filter(data.getRecords()));
+    /**
+     * Selects the next or previous hit from the focused cell, starting a new search if the text changed
+     */
+    private void moveToHit(boolean forward) {
+        if (searchHits == null || !findTextField.getText().equals(searchText)) {
+            startFind();
+            return;
+        }
+        if (searchHits.size() == 0) return;
+        val focused = tableView.getFocusModel().getFocusedCell();
+        val position = focused == null ? -1 : focused.getRow();
+        val column = focused != null && focused.getTableColumn() != null && focused.getTableColumn().getUserData() instanceof Integer index ? index : -1;
+        selectHit(forward ? searchHits.next(position, column) : searchHits.previous(position, column));
+        updateFindLabel();
+    }
+
+    /**
+     * Scrolls the table to the cell of a hit and focuses it
+     */
+    private void selectHit(long hit) {
+        val position = CellSearch.position(hit);
+        val column = tableView.getColumns().stream()
+                .filter(col -> Integer.valueOf(CellSearch.column(hit)).equals(col.getUserData()))
+                .findFirst().orElse(null);
+        tableView.scrollTo(position);
+        if (column != null) tableView.scrollToColumn(column);
+        tableView.getSelectionModel().clearAndSelect(position, column);
+        tableView.getFocusModel().focus(position, column);
+    }
+
+    private void updateFindLabel() {
+        if (searchHits == null) {
+            findLabel.setText(null);
+            return;
+        }
+        String text;
+        if (searchHits.size() == 0) text = findTask == null ? bundle.getString("find.no_hits") : "";
+        else text = new MessageFormat(bundle.getString("find.hits")).format(new Object[]{searchHits.getCurrent() + 1, searchHits.size()});
+        if (findTask != null) text = (text + " " + bundle.getString("find.searching")).trim();
+        findLabel.setText(text);
+    }
+
+    /**
+     * Returns the indexes of the shown records in the order of the table, for a background task
+     *
+     * @return a copy of the indexes, or null if the shown records are the first ones of the data, in order
+     */
+    private int[] getShownRows() {
+        return ((RowsView) tableView.getItems()).rows();
+    }
+
+    /**
+     * Computes the statistics of the columns in background, once the data is fully loaded
+     */
+    private void computeStatistics() {
+        if (data == null || statistics != null || statisticsTask != null) return;
+        val task = new StatisticsTask();
+        statisticsTask = task;
+        task.setOnSucceeded(evt -> {
+            statistics = task.getValue();
+            statisticsTask = null;
+        });
+        task.setOnFailed(evt -> {
+            // the statistics are only shown in the tooltips, no need to bother the user
+            log.error("Failed to compute column statistics", task.getException());
+            statisticsTask = null;
+        });
+        FXUtils.start(task);
+    }
+
+    /**
+     * Returns the text of the tooltip of a column header
+     */
+    private String getStatisticsText(int columnIndex) {
+        if (statistics == null || columnIndex >= statistics.size()) return bundle.getString("table.statistics.computing");
+        val stats = statistics.get(columnIndex);
+        val text = new StringBuilder(new MessageFormat(bundle.getString("table.statistics")).format(new Object[]{
+                stats.type(),
+                stats.count(),
+                stats.nulls(),
+                stats.distinct(),
+                stats.min() == null ? "" : shorten(stats.min()),
+                stats.max() == null ? "" : shorten(stats.max()),
+                stats.minLength(),
+                stats.maxLength()
+        }));
+        if (!stats.top().isEmpty()) {
+            text.append("\n\n").append(bundle.getString("table.statistics.top"));
+            val format = new MessageFormat(bundle.getString("table.statistics.top_value"));
+            for (val value : stats.top()) text.append('\n').append(format.format(new Object[]{shorten(value.value()), value.count()}));
+        }
+        if (stats.count() > stats.nulls()) {
+            text.append("\n\n").append(bundle.getString("table.statistics.lengths"));
+            val format = new MessageFormat(bundle.getString("table.statistics.length_bucket"));
+            val lengths = stats.lengths();
+            for (int i = 0; i < lengths.length; i++) {
+                if (lengths[i] == 0) continue;
+                text.append('\n').append(format.format(new Object[]{ColumnStatistics.bucketStart(i), ColumnStatistics.bucketEnd(i), lengths[i]}));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Shortens a value to be shown in a tooltip, on a single line
+     */
+    private static String shorten(String value) {
+        val line = CustomCell.singleLine(value);
+        return line.length() > 50 ? line.substring(0, 49) + "\u2026" : line;
+    }
+
+    private void updateRowCount() {
+        if (data == null) return;
+        String text;
+        if (filter == null) text = new MessageFormat(bundle.getString("table.row_count")).format(new Object[]{coveredRows});
+        else text = new MessageFormat(bundle.getString("table.row_count_filtered")).format(new Object[]{tableView.getItems().size(), coveredRows});
+        if (loading) text += " " + (loadingStatus == null ? bundle.getString("table.loading") : "(" + loadingStatus + ")");
+        if (following) text += " " + bundle.getString("table.following");
+        rowCountLabel.setText(text);
     }
 
     private void refreshData() {
+        cancelFilter();
+        cancelCatchUp();
+        cancelSort();
         rootPane.setDisable(true);
-        record TaskResult(List<TableColumn<TableLikeData.Record, Object>> columns, ObservableList<TableLikeData.Record> records) {}
+        updating = true;
+        queryTextField.setText(null);
+        record TaskResult(List<TableColumn<TableLikeData.Record, Object>> columns, FilterResult records) {}
         val task = FXUtils.task("LoadData", () -> {
-            queryTextField.setText(null);
             val columns = IntStream.range(0, data.getColumnNames().size())
                     .mapToObj(this::getTableColumn).toList();
             val indexColumn = new TableColumn<TableLikeData.Record, Object>("");
             indexColumn.setCellFactory(param -> new IndexCell());
-            val records = getFilteredRecords();
+            indexColumn.setSortable(false);
+            val records = filterRecords(data, null, null, null);
             return new TaskResult(ListUtils.concat(List.of(indexColumn), columns), records);
         });
         task.setOnSucceeded(evt -> {
             tableView.getColumns().setAll(task.getValue().columns);
-            tableView.setItems(task.getValue().records);
+            applyFilterResult(task.getValue().records);
             rootPane.setDisable(false);
         });
         task.setOnFailed(evt -> {
             log.error("Failed to load table data", task.getException());
             new ExceptionAlert(tableView.getScene().getWindow(), task.getException()).showAndWait();
+            updating = false;
             rootPane.setDisable(false);
         });
         FXUtils.start(task);
@@ -197,7 +818,14 @@ public class TableDataController implements DataController, Initializable {
     private TableColumn<TableLikeData.Record, Object> getTableColumn(int columnIndex) {
         var name = data.getColumnNames().get(columnIndex);
         if (TextUtils.isEmpty(name)) name = new MessageFormat(bundle.getString("table.column_n")).format(new Object[]{columnIndex + 1});
-        val col = new TableColumn<TableLikeData.Record, Object>(name);
+        val col = new TableColumn<TableLikeData.Record, Object>();
+        col.setUserData(columnIndex);
+        // the header is a label, so that it can show the statistics of the column in a tooltip
+        val header = new Label(name);
+        val tooltip = new Tooltip();
+        tooltip.setOnShowing(evt -> tooltip.setText(getStatisticsText(columnIndex)));
+        header.setTooltip(tooltip);
+        col.setGraphic(header);
         col.setCellValueFactory(cell -> {
             val value = cell.getValue().get(columnIndex);
             return new SimpleObjectProperty<>(value);
@@ -208,7 +836,7 @@ public class TableDataController implements DataController, Initializable {
         copy.setOnAction(evt -> {
             val clip = Clipboard.getSystemClipboard();
             val content = new ClipboardContent();
-            content.putString(col.getText());
+            content.putString(header.getText());
             clip.setContent(content);
         });
 
@@ -220,82 +848,284 @@ public class TableDataController implements DataController, Initializable {
         return col;
     }
 
+    @Override
+    public void close() {
+        cancelFilter();
+        cancelCatchUp();
+        cancelSort();
+        resetFind();
+        if (statisticsTask != null) {
+            log.info("Cancelling {}", statisticsTask);
+            statisticsTask.cancel();
+            statisticsTask = null;
+        }
+        if (data == null) return;
+        log.info("Closing table data: data={}", data);
+        data.close();
+    }
+
     public void handleRunQuery() {
         updateByFilter();
     }
 
+    public void handleFind() {
+        moveToHit(true);
+    }
+
+    public void handleFindNext() {
+        moveToHit(true);
+    }
+
+    public void handleFindPrevious() {
+        moveToHit(false);
+    }
+
+    public void handleCancelLoading() {
+        if (loading && onCancelLoading != null) onCancelLoading.run();
+    }
+
+    /**
+     * The result of filtering the data
+     *
+     * @param filter the filter applied, null if no filter was applied
+     * @param records the records matching the filter
+     * @param query the query of the filter, null if no filter was applied
+     * @param rows the indexes of the records matching the filter, null if no filter was applied
+     * @param coveredRows the number of records of the data that were filtered
+     */
+    record FilterResult(TableFilter filter, String query, int[] rows, RowsView records, int coveredRows) {}
+
+    /**
+     * The filter shown when a new query is run
+     *
+     * @param query the query of the filter
+     * @param rows the indexes of the records matching the filter, valid up to {@code rowCount}
+     * @param rowCount the number of valid indexes
+     * @param coveredRows the number of records of the data that were filtered
+     */
+    record PreviousFilter(String query, int[] rows, int rowCount, int coveredRows) {
+        /**
+         * Returns the indexes of the records that can match a refinement of the filter:
+         * the ones that matched it and the ones appended later
+         *
+         * @param size the current number of records
+         * @return the indexes in ascending order
+         */
+        int[] candidates(int size) {
+            val candidates = Arrays.copyOf(rows, rowCount + Math.max(0, size - coveredRows));
+            for (int i = coveredRows; i < size; i++) candidates[rowCount + i - coveredRows] = i;
+            return candidates;
+        }
+    }
+
+    /**
+     * Evaluates a query in background, reporting the progress of the filtering
+     */
     @RequiredArgsConstructor
+    private class FilterTask extends Task<FilterResult> implements ParallelFilter.Monitor {
+        private final String query;
+        private final PreviousFilter previous;
+
+        @Override
+        protected FilterResult call() throws Exception {
+            return filterRecords(data, query, previous, this);
+        }
+
+        @Override
+        public void progress(long done, long total) {
+            updateProgress(done, total);
+        }
+
+        @Override
+        public String toString() {
+            return "Task[GetFilteredRecords{%s}]".formatted(query);
+        }
+    }
+
+    /**
+     * Filters the records appended to the data in background
+     */
+    @RequiredArgsConstructor
+    private class CatchUpTask extends Task<int[]> implements ParallelFilter.Monitor {
+        private final TableFilter filter;
+        /**
+         * The index of the first record to filter
+         */
+        private final int from;
+        /**
+         * The index after the last record to filter
+         */
+        private final int to;
+
+        @Override
+        protected int[] call() throws Exception {
+            return ParallelFilter.filter(filter, data.getRecords(), IntStream.range(from, to).toArray(), this);
+        }
+
+        @Override
+        public void progress(long done, long total) {
+        }
+
+        @Override
+        public String toString() {
+            return "Task[CatchUpRecords{%d-%d}]".formatted(from, to);
+        }
+    }
+
+    /**
+     * Sorts the indexes of the shown records in background
+     */
+    @RequiredArgsConstructor
+    private class SortTask extends Task<int[]> {
+        /**
+         * The indexes of the shown records, null if all the records are shown
+         */
+        private final int[] rows;
+        /**
+         * The number of shown records when the sort started
+         */
+        private final int count;
+        private final List<SortKey> keys;
+
+        @Override
+        protected int[] call() {
+            return sorter.sort(rows, count, keys, this::isCancelled);
+        }
+
+        @Override
+        public String toString() {
+            return "Task[SortRecords{%s}]".formatted(keys);
+        }
+    }
+
+    /**
+     * Computes the statistics of the columns in background
+     */
+    private class StatisticsTask extends Task<List<ColumnStatistics>> {
+        @Override
+        protected List<ColumnStatistics> call() {
+            return ColumnProfiler.profile(data, this::isCancelled);
+        }
+
+        @Override
+        public String toString() {
+            return "Task[ColumnStatistics]";
+        }
+    }
+
+    /**
+     * Searches a text in the shown records in background, adding the hits on the FX thread as they are found
+     */
+    @RequiredArgsConstructor
+    private class FindTask extends Task<Integer> {
+        /**
+         * The indexes of the shown records, null if they are the first {@link #count} records of the data
+         */
+        private final int[] rows;
+        private final int count;
+        private final String text;
+        private final SearchHits hits;
+
+        @Override
+        protected Integer call() throws Exception {
+            return CellSearch.search(data, rows, count, text, (found, done, total) -> {
+                updateProgress(done, total);
+                if (found.length > 0) Platform.runLater(() -> hitsFound(this, found));
+            }, this::isCancelled);
+        }
+
+        @Override
+        public String toString() {
+            return "Task[FindText{%s}]".formatted(text);
+        }
+    }
+
+    /**
+     * The context menu shared by all the cells, filled for the cell it is shown on
+     */
+    private class CellMenu {
+        private final ContextMenu menu = new ContextMenu();
+        private final MenuItem copy = new MenuItem(bundle.getString("label.copy"));
+        private final SeparatorMenuItem copySeparator = new SeparatorMenuItem();
+        private final MenuItem filterEq = new MenuItem(bundle.getString("table.filter_eq"));
+        private final MenuItem filterContains = new MenuItem(bundle.getString("table.filter_contains"));
+        private final MenuItem filterDiff = new MenuItem(bundle.getString("table.filter_diff"));
+        private final MenuItem filterNull = new MenuItem(bundle.getString("table.filter_null"));
+        private int columnIndex;
+        private String value;
+
+        private CellMenu() {
+            copy.setOnAction(evt -> {
+                val clip = Clipboard.getSystemClipboard();
+                val content = new ClipboardContent();
+                content.putString(value);
+                clip.setContent(content);
+            });
+            filterEq.setOnAction(evt -> {
+                addFilter(columnIndex, FilterType.EQUALS, value);
+                updateByFilter();
+            });
+            filterContains.setOnAction(evt -> {
+                addFilter(columnIndex, FilterType.CONTAINS, value);
+                updateByFilter();
+            });
+            filterDiff.setOnAction(evt -> {
+                addFilter(columnIndex, FilterType.DIFFERS, value);
+                updateByFilter();
+            });
+            filterNull.setOnAction(evt -> {
+                addFilter(columnIndex, FilterType.EQUALS, null);
+                updateByFilter();
+            });
+            menu.getItems().setAll(copy, copySeparator, filterEq, filterContains, filterDiff, filterNull, new SeparatorMenuItem());
+            menu.getItems().addAll(getDefaultMenuItems());
+        }
+
+        private void show(CustomCell cell, ContextMenuEvent evt) {
+            columnIndex = cell.columnIndex;
+            value = cell.getItem() == null ? null : cell.getItem().toString();
+            val isNull = value == null;
+            copy.setVisible(!isNull);
+            copySeparator.setVisible(!isNull);
+            filterEq.setVisible(!isNull);
+            filterContains.setVisible(!isNull);
+            filterDiff.setVisible(!isNull);
+            filterNull.setVisible(isNull);
+            menu.show(cell, evt.getScreenX(), evt.getScreenY());
+        }
+    }
+
+    /**
+     * Shows the value of a cell as its text, without creating nodes on update.
+     * The context menu is shared by all the cells and created on the first request.
+     */
     private class CustomCell extends TableCell<TableLikeData.Record, Object> {
         private final int columnIndex;
 
+        private CustomCell(int columnIndex) {
+            this.columnIndex = columnIndex;
+            setOnContextMenuRequested(evt -> {
+                if (isEmpty()) return;
+                if (cellMenu == null) cellMenu = new CellMenu();
+                cellMenu.show(this, evt);
+                evt.consume();
+            });
+        }
+
         @Override
         protected void updateItem(Object obj, boolean empty) {
-            if (empty) {
-                setText(null);
-                setGraphic(null);
-                setContextMenu(null);
-            } else if (obj == null) {
-                setText(null);
-                setGraphic(null);
-
-                val filterNull = new MenuItem(bundle.getString("table.filter_null"));
-                filterNull.setOnAction(evt -> {
-                    addFilter(columnIndex, FilterType.EQUALS, null);
-                    updateByFilter();
-                });
-
-                val menu = new ContextMenu();
-                menu.getItems().add(filterNull);
-                menu.getItems().addAll(getDefaultMenuItems());
-                setContextMenu(menu);
-            } else if (obj instanceof String value) {
-                setText(null);
+            super.updateItem(obj, empty);
+            if (empty || obj == null) setText(null);
+            else if (obj instanceof String value) setText(singleLine(value));
+            else setText(obj.toString()); // type-specific view not implemented
+        }
 
-                val field = new TextField(value);
-                field.setEditable(false);
-                field.setPrefColumnCount(Math.min(value.length(), 100));
-
-                val copy = new MenuItem(bundle.getString("label.copy"));
-                copy.setOnAction(evt -> {
-                    val clip = Clipboard.getSystemClipboard();
-                    val content = new ClipboardContent();
-                    content.putString(value);
-                    clip.setContent(content);
-                });
-                val filterEq = new MenuItem(bundle.getString("table.filter_eq"));
-                filterEq.setOnAction(evt -> {
-                    addFilter(columnIndex, FilterType.EQUALS, value);
-                    updateByFilter();
-                });
-                val filterContains = new MenuItem(bundle.getString("table.filter_contains"));
-                filterContains.setOnAction(evt -> {
-                    addFilter(columnIndex, FilterType.CONTAINS, value);
-                    updateByFilter();
-                });
-                val filterDiff = new MenuItem(bundle.getString("table.filter_diff"));
-                filterDiff.setOnAction(evt -> {
-                    addFilter(columnIndex, FilterType.DIFFERS, value);
-                    updateByFilter();
-                });
-
-                val clearFilters = new MenuItem(bundle.getString("table.reset_filters"));
-                clearFilters.setOnAction(evt -> {
-                    clearFilters();
-                });
-                val reset = new MenuItem(bundle.getString("table.reset_columns"));
-                reset.setOnAction(evt -> resetColumns());
-
-                val menu = new ContextMenu();
-                menu.getItems().setAll(copy, new SeparatorMenuItem(), filterEq,
-                        filterContains, filterDiff, new SeparatorMenuItem(),
-                        clearFilters, reset);
-                field.setContextMenu(menu);
-
-                setGraphic(field);
-            } else {
-                // type-specific view not implemented
-                setText(obj.toString());
-            }
+        /**
+         * Replaces line breaks with spaces, so that every row has the same height
+         */
+        private static String singleLine(String value) {
+            if (value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+            return value.replace('\n', ' ').replace('\r', ' ');
         }
     }
 
@@ -6,6 +6,10 @@ public class AppProperty {
     public static final String URL = "app.url";
     public static final String TMP_DIR = "app.tmpdir";
     public static final String LOG_DIR = "app.logdir";
+    //Maximum size in megabytes of the snapshots of parsed files, 0 to disable them
+    public static final String SNAPSHOT_CACHE_SIZE = "app.snapshot_cache_size";
+    //Off-heap memory in megabytes for the values of the parsed tables, the rest is spilled to disk (default half the heap)
+    public static final String TABLE_MEMORY = "app.table_memory";
 
     //The following properties are set in the build script, are not guarantee to be not null
     //(and they are mpt used, for now)
@@ -1,5 +1,19 @@
 package com.github.giamgiammi.StructuredFileViewer.utils;
 
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
 public class TextUtils {
     /**
      * Escapes special characters in the given text, such as backslashes,
@@ -124,7 +138,7 @@ public class TextUtils {
         if (pattern == null) {
             return value == null;
         }
-        return value.contains(pattern);
+        return value != null && value.contains(pattern);
     }
 
     /**
@@ -138,6 +152,111 @@ public class TextUtils {
      *         or if both are {@code null}; otherwise {@code false}
      */
     public static boolean containsIgnoreCase(String pattern, String value) {
-        return contains(pattern == null ? null : pattern.toLowerCase(), value == null ? null : value.toLowerCase());
+        if (pattern == null) {
+            return value == null;
+        }
+        return containsLowerCase(pattern.toLowerCase(Locale.ROOT), value);
+    }
+
+    /**
+     * Checks whether the value, converted to lower case, contains the given lower case pattern.
+     * Values made only of ASCII characters are compared without allocating, so that the pattern
+     * can be converted once and tested against many values.
+     *
+     * @param lowerCasePattern the pattern, already converted to lower case with {@link Locale#ROOT}
+     * @param value the string in which to search for the pattern, may be {@code null}
+     * @return {@code true} if the value is not null and contains the pattern ignoring case
+     */
+    public static boolean containsLowerCase(@NonNull String lowerCasePattern, String value) {
+        if (value == null) return false;
+        val length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) return value.toLowerCase(Locale.ROOT).contains(lowerCasePattern);
+        }
+
+        val patternLength = lowerCasePattern.length();
+        outer:
+        for (int i = 0; i <= length - patternLength; i++) {
+            for (int j = 0; j < patternLength; j++) {
+                var c = value.charAt(i + j);
+                if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+                if (c != lowerCasePattern.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the given charset encodes ASCII characters as single bytes with their ASCII value
+     * and never uses bytes in the ASCII range as part of other characters.
+     * With such charsets, delimiters, quotes and new lines can be searched directly in the encoded bytes.
+     *
+     * @param charset the charset to check
+     * @return {@code true} if the charset is ASCII-compatible, otherwise {@code false}
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        if (charset == null) return false;
+        if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1)) return true;
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) return false;
+        val ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) ascii[i] = (byte) i;
+        return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    /**
+     * Returns the length of the whole lines at the start of some bytes encoded with an ASCII-compatible charset,
+     * that is the position after the last "\n", or after the last "\r" unless it is the last byte (a "\n" might follow).
+     *
+     * @param bytes the bytes
+     * @param length the number of valid bytes
+     * @return the length of the whole lines, 0 if there is none
+     */
+    public static int wholeLinesLength(byte @NonNull [] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n' || (bytes[i] == '\r' && i < length - 1)) return i + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the length of the whole lines at the start of a file encoded with an ASCII-compatible charset,
+     * like {@link #wholeLinesLength(byte[], int)}; the file is read backwards from the given size.
+     *
+     * @param file the file
+     * @param size the number of bytes of the file to consider
+     * @return the length of the whole lines, 0 if there is none
+     * @throws IOException if an I/O error occurs while reading the file, or if it is shorter than the given size
+     */
+    public static long wholeLinesLength(@NonNull Path file, long size) throws IOException {
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val buffer = ByteBuffer.allocate(8192);
+            for (long end = size; end > 0; ) {
+                val start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                    // read until the buffer is full
+                }
+                if (buffer.hasRemaining()) throw new EOFException("File %s shorter than %d bytes".formatted(file, size));
+                val bytes = buffer.array();
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (bytes[i] == '\n' || (bytes[i] == '\r' && start + i < size - 1)) return start + i + 1;
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether the given charset encodes every character as a single byte,
+     * so that a text can be split in the encoded bytes without decoding it.
+     *
+     * @param charset the charset to check
+     * @return {@code true} if the charset uses one byte for each character, otherwise {@code false}
+     */
+    public static boolean isSingleByte(Charset charset) {
+        if (charset == null || !charset.canEncode()) return false;
+        return charset.newEncoder().maxBytesPerChar() == 1 && charset.newDecoder().maxCharsPerByte() == 1;
     }
 }
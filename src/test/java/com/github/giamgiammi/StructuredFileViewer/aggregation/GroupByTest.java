@@ -0,0 +1,101 @@
+package com.github.giamgiammi.StructuredFileViewer.aggregation;
+
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GroupByTest {
+    private static final String[] STATUSES = {"OK", "KO", "PENDING"};
+
+    private static ColumnarTableData data(int count) {
+        val random = new Random(5);
+        val data = new ColumnarTableData(List.of("status", "customer", "amount"));
+        for (int i = 0; i < count; i++) data.append(new String[]{
+                STATUSES[random.nextInt(STATUSES.length)],
+                random.nextInt(50) == 0 ? null : "c" + random.nextInt(12),
+                random.nextInt(30) == 0 ? "n/a" : random.nextInt(1000) + "." + random.nextInt(10) + random.nextInt(10)
+        });
+        return data;
+    }
+
+    @Test
+    void aggregateTest() {
+        val data = data(200_000);
+        val rows = IntStream.range(0, data.size()).filter(i -> i % 5 != 0).toArray();
+        val groupBy = new GroupBy(data, List.of(1, 0), List.of(
+                new Aggregation(Aggregate.COUNT, -1),
+                new Aggregation(Aggregate.DISTINCT_COUNT, 2),
+                new Aggregation(Aggregate.SUM, 2),
+                new Aggregation(Aggregate.MIN, 2),
+                new Aggregation(Aggregate.MAX, 2)
+        ));
+        val result = groupBy.aggregate(rows, () -> false);
+
+        assertEquals(List.of("customer", "status", "count(*)", "count_distinct(amount)", "sum(amount)", "min(amount)", "max(amount)"),
+                result.getColumnNames());
+        // 12 customers and the missing one, by 3 statuses, sorted with the missing customer first
+        assertEquals(13 * 3, result.getRecords().size());
+        assertEquals(null, result.getRecords().getFirst().get(0));
+        assertEquals("c0", result.getRecords().get(3).get(0));
+        assertEquals("KO", result.getRecords().get(3).get(1));
+
+        long total = 0;
+        for (val group : result.getRecords()) {
+            long count = 0;
+            var sum = BigDecimal.ZERO;
+            // the amounts are not all numbers, so they are compared as strings
+            String min = null;
+            String max = null;
+            val distinct = new HashSet<String>();
+            for (val row : rows) {
+                if (!Objects.equals(data.get(1, row), group.get(0)) || !data.get(0, row).equals(group.get(1))) continue;
+                count++;
+                val amount = data.get(2, row);
+                distinct.add(amount);
+                if (min == null || amount.compareTo(min) < 0) min = amount;
+                if (max == null || amount.compareTo(max) > 0) max = amount;
+                if (!amount.equals("n/a")) sum = sum.add(new BigDecimal(amount));
+            }
+            total += count;
+            assertArrayEquals(new String[]{
+                    Long.toString(count), Integer.toString(distinct.size()), sum.toPlainString(), min, max
+            }, new String[]{
+                    (String) group.get(2), (String) group.get(3), (String) group.get(4), (String) group.get(5), (String) group.get(6)
+            });
+        }
+        assertEquals(rows.length, total);
+    }
+
+    @Test
+    void totalTest() {
+        val groupBy = new GroupBy(data(10), List.of(), List.of(new Aggregation(Aggregate.COUNT, -1), new Aggregation(Aggregate.AVG, 2)));
+        val empty = groupBy.aggregate(new int[0], () -> false);
+        assertEquals(1, empty.getRecords().size());
+        assertEquals("0", empty.getRecords().getFirst().get(0));
+        assertEquals(null, empty.getRecords().getFirst().get(1));
+
+        val data = new ColumnarTableData(List.of("n"));
+        // numbers with a huge exponent are not summed, their exact sum would take billions of digits
+        for (val value : new String[]{"1", "2", "x", null, "2.5", "1E999999999", "1e-999999999"}) data.append(new String[]{value});
+        val average = new GroupBy(data, List.of(), List.of(new Aggregation(Aggregate.AVG, 0))).aggregate(null, () -> false);
+        assertEquals("1.833333333333333", average.getRecords().getFirst().get(0));
+    }
+
+    @Test
+    void cancelTest() {
+        val groupBy = new GroupBy(data(100_000), List.of(0), List.of(new Aggregation(Aggregate.COUNT, -1)));
+        assertThrows(CancellationException.class, () -> groupBy.aggregate(null, () -> true));
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.giamgiammi.StructuredFileViewer.cache;
+
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvDataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+    @Test
+    void snapshotTest(@TempDir Path dir) throws Exception {
+        val data = new ColumnarTableData(List.of("id", "status", "text"));
+        for (int i = 0; i < 20_000; i++) {
+            data.append(new String[]{
+                    String.valueOf(i),
+                    i % 11 == 0 ? null : "S" + (i % 3),
+                    // multi-byte characters, surrogate pairs and unpaired surrogates
+                    i % 5 == 0 ? null : i % 5 == 1 ? "" : "r\u00e9cord " + i + " \ud83d\ude00" + (i % 7 == 0 ? "\ud800" : "")
+            });
+        }
+        // a record shorter than the others
+        data.append(new String[]{"last"});
+
+        val file = dir.resolve("data.snapshot");
+        SnapshotTableData.write(data, file, () -> false);
+        try (val snapshot = SnapshotTableData.open(file)) {
+            assertEquals(data.getColumnNames(), snapshot.getColumnNames());
+            assertEquals(data.getRecords().size(), snapshot.getRecords().size());
+            for (int i = 0; i < data.getRecords().size(); i++) {
+                for (int j = 0; j < 3; j++) {
+                    val expected = data.getRecords().get(i).get(j);
+                    // unpaired surrogates cannot be encoded
+                    val encoded = expected == null ? null : new String(expected.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+                    assertEquals(encoded, snapshot.getRecords().get(i).get(j), "row " + i);
+                }
+            }
+            for (int j = 0; j < 3; j++) assertEquals(data.columnType(j), snapshot.columnType(j));
+        }
+    }
+
+    @Test
+    void cacheTest(@TempDir Path dir) throws Exception {
+        val model = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings());
+        val files = IntStream.range(0, 3).mapToObj(i -> dir.resolve("file" + i + ".csv")).toList();
+        for (val file : files) Files.writeString(file, "a,b\n1,2\n".repeat(1000));
+        val cache = new SnapshotCache(dir.resolve("cache"), 12_000);
+
+        assertNull(cache.load(files.getFirst(), model));
+        cache.store(files.getFirst(), model, cache.key(files.getFirst(), model), model.parse(Files.readString(files.getFirst())));
+        try (val data = cache.load(files.getFirst(), model)) {
+            assertNotNull(data);
+            assertEquals(2000, data.getRecords().size());
+            assertEquals("2", data.getRecords().get(1999).get(1));
+        }
+
+        // a different setting or a changed file do not match the snapshot
+        val other = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings().toBuilder().delimiter(";").build());
+        assertNull(cache.load(files.getFirst(), other));
+        Files.writeString(files.getFirst(), "a,b\n3,4\n");
+        Files.setLastModifiedTime(files.getFirst(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertNull(cache.load(files.getFirst(), model));
+        assertEquals(0, snapshots(dir));
+
+        // the least recently used snapshot is evicted
+        for (val file : files) cache.store(file, model, cache.key(file, model), model.parse(Files.readString(file)));
+        assertEquals(1, snapshots(dir));
+        try (val data = cache.load(files.getLast(), model)) {
+            assertNotNull(data);
+        }
+        assertNull(cache.load(files.get(1), model));
+    }
+
+    @Test
+    void changedWhileParsingTest(@TempDir Path dir) throws Exception {
+        val model = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings());
+        val file = dir.resolve("file.csv");
+        Files.writeString(file, "a,b\n1,2\n");
+        val cache = new SnapshotCache(dir.resolve("cache"), 1 << 20);
+
+        // the file grows between the start of the parsing and the snapshot
+        val key = cache.key(file, model);
+        val data = model.parse(Files.readString(file));
+        Files.writeString(file, "3,4\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        cache.store(file, model, key, data);
+        assertNull(cache.load(file, model));
+
+        cache.store(file, model, cache.key(file, model), model.parse(Files.readString(file)));
+        try (val snapshot = cache.load(file, model)) {
+            assertNotNull(snapshot);
+            assertEquals(3, snapshot.getRecords().size());
+        }
+    }
+
+    private static long snapshots(Path dir) throws Exception {
+        try (val files = Files.list(dir.resolve("cache"))) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteCsvTokenizerTest {
+    private static final String[] VALUES = {
+            "a", "", " ", "text", "\"quoted\"", "\"multi\nline\"", "\"with \"\" quote\"", "\"a,b\"",
+            "in\"side", "\"\"", " \"spaced\nvalue\"", "\u00e8\u20ac\ud83d\ude00", "\"q\"\u2003", "\"\r\n\"",
+            "a value longer than a word", "\"a quoted value \"\"longer\"\" than a word\"", "\"spaced\"   "
+    };
+
+    @Test
+    void sameAsLibraryTest(@TempDir Path dir) throws Exception {
+        val random = new Random(42);
+        val text = new StringBuilder("h1,h2,h3\n");
+        for (int i = 0; i < 500; i++) {
+            val fields = 1 + random.nextInt(4);
+            for (int j = 0; j < fields; j++) {
+                if (j > 0) text.append(',');
+                text.append(VALUES[random.nextInt(VALUES.length)]);
+            }
+            text.append(random.nextInt(5) == 0 ? "\r\n" : random.nextInt(10) == 0 ? "\r" : "\n");
+            if (random.nextInt(20) == 0) text.append('\n');
+        }
+        text.append("last,");
+        val file = dir.resolve("test.csv");
+        Files.writeString(file, text);
+
+        val formats = List.of(
+                CSVFormat.DEFAULT,
+                CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).get(),
+                CSVFormat.DEFAULT.builder().setHeader("a", "b").get(),
+                CSVFormat.DEFAULT.builder().setIgnoreEmptyLines(false).setQuoteMode(QuoteMode.ALL_NON_NULL).get(),
+                CSVFormat.EXCEL.builder().setTrailingData(true).get()
+        );
+        for (val format : formats) {
+            val expected = parseWithLibrary(format, text.toString());
+            val data = new ByteCsvTokenizer(format, StandardCharsets.UTF_8).parse(file, Files.size(file), null);
+            assertEquals(expected.header(), data.getColumnNames(), "header of " + format);
+            assertEquals(expected.records().size(), data.getRecords().size(), "records of " + format);
+            for (int i = 0; i < expected.records().size(); i++) {
+                val record = expected.records().get(i);
+                val actual = new String[record.length];
+                for (int j = 0; j < record.length; j++) actual[j] = (String) data.getRecords().get(i).get(j);
+                assertArrayEquals(record, actual, "record " + i + " of " + format);
+            }
+        }
+    }
+
+    @Test
+    void quotesTest(@TempDir Path dir) throws Exception {
+        val file = dir.resolve("test.csv");
+        Files.writeString(file, "\"a\"b,c\n");
+        val tokenizer = new ByteCsvTokenizer(CSVFormat.DEFAULT, StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> tokenizer.parse(file, Files.size(file), null));
+
+        Files.writeString(file, "a,\"b\nc");
+        assertThrows(IOException.class, () -> tokenizer.parse(file, Files.size(file), null));
+        val lenient = new ByteCsvTokenizer(CSVFormat.DEFAULT.builder().setLenientEof(true).get(), StandardCharsets.UTF_8);
+        assertEquals("b\nc", lenient.parse(file, Files.size(file), null).getRecords().getFirst().get(1));
+    }
+
+    @Test
+    void unsupportedTest() {
+        assertFalse(ByteCsvTokenizer.isSupported(CSVFormat.DEFAULT, StandardCharsets.UTF_16));
+        assertFalse(ByteCsvTokenizer.isSupported(CSVFormat.DEFAULT, StandardCharsets.ISO_8859_1));
+        assertFalse(ByteCsvTokenizer.isSupported(CSVFormat.TDF, StandardCharsets.UTF_8));
+        assertFalse(ByteCsvTokenizer.isSupported(CSVFormat.MYSQL, StandardCharsets.UTF_8));
+        assertFalse(ByteCsvTokenizer.isSupported(CSVFormat.DEFAULT.builder().setDelimiter("||").get(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void matchesTest() {
+        val word = 0x2C00_2C2C_412C_0A41L;
+        val found = ByteCsvTokenizer.matches(word, ',' * 0x0101010101010101L);
+        assertEquals(2, Long.numberOfTrailingZeros(found) >>> 3);
+        assertEquals(0, ByteCsvTokenizer.matches(0x4141_4141_4141_4141L, ',' * 0x0101010101010101L));
+    }
+
+    private static Expected parseWithLibrary(CSVFormat format, String text) throws Exception {
+        try (val parser = format.parse(new StringReader(text))) {
+            val records = new ArrayList<String[]>();
+            for (val record : parser) records.add(record.values());
+            val header = new ArrayList<>(parser.getHeaderNames() == null ? List.of() : parser.getHeaderNames());
+            val width = records.stream().mapToInt(r -> r.length).max().orElse(0);
+            while (header.size() < width) header.add("");
+            return new Expected(header, records);
+        }
+    }
+
+    private record Expected(List<String> header, List<String[]> records) {}
+}
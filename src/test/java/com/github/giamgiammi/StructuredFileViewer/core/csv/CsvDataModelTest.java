@@ -0,0 +1,140 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import lombok.NonNull;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvDataModelTest {
+    @Test
+    void paddedColumnsTest() throws Exception {
+        val settings = new CsvDataModelFactory().getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .build();
+        val model = new CsvDataModelFactory().create(settings);
+
+        val data = model.parse("col1,col2\na,b\nc,d,e\n");
+
+        assertEquals(List.of("col1", "col2", ""), data.getColumnNames());
+        assertEquals(2, data.getRecords().size());
+        assertEquals("e", data.getRecords().get(1).get(2));
+        assertNull(data.getRecords().get(0).get(2));
+    }
+
+    @Test
+    void listenerTest() throws Exception {
+        val model = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings());
+        val rows = CsvDataModel.BATCH_SIZE * 2 + 10;
+        val text = new StringBuilder();
+        for (int i = 0; i < rows; i++) text.append(i).append(",value").append(i).append('\n');
+
+        val ranges = new ArrayList<int[]>();
+        val notified = new ArrayList<TableLikeData>();
+        val data = model.parse(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)), (d, from, to) -> {
+            notified.add(d);
+            ranges.add(new int[]{from, to});
+        });
+
+        assertEquals(rows, data.getRecords().size());
+        assertEquals(3, ranges.size());
+        int expectedFrom = 0;
+        for (val range : ranges) {
+            assertEquals(expectedFrom, range[0]);
+            expectedFrom = range[1];
+        }
+        assertEquals(rows, expectedFrom);
+        for (val d : notified) assertSame(data, d);
+        assertEquals("value" + (rows - 1), data.getRecords().get(rows - 1).get(1));
+    }
+
+    @Test
+    void mappedEngineTest(@TempDir Path dir) throws Exception {
+        // quoted new lines, a stray quote inside a value and records separated by \r only
+        val texts = List.of(
+                "col1,col2\na,\"multi\nline, \"\"quoted\"\"\"\r\n\nc,d,e\n\"\",last",
+                "col1,col2\na,b\"c\nd,e\nf,\"g\"\n",
+                "col1,col2\ra,b\r\rc,\"d\re\"\rf,g"
+        );
+        for (val text : texts) mappedEngineTest(dir, text);
+    }
+
+    private static void mappedEngineTest(Path dir, String text) throws Exception {
+        val file = dir.resolve("test.csv");
+        Files.writeString(file, text);
+
+        val settings = new CsvDataModelFactory().getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .engine(CsvEngine.MAPPED)
+                .build();
+        val model = new CsvDataModelFactory().create(settings);
+        val expected = model.parse(text);
+
+        assertTrue(model.canParseFile());
+        try (val data = model.parse(file, null)) {
+            assertTrue(data.hasLazyRecords());
+            assertEquals(expected.getColumnNames(), data.getColumnNames());
+            assertEquals(expected.getRecords().size(), data.getRecords().size(), text);
+            for (int row = 0; row < expected.getRecords().size(); row++) {
+                for (int col = 0; col <= expected.getColumnNames().size(); col++) {
+                    assertEquals(expected.getRecords().get(row).get(col), data.getRecords().get(row).get(col), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancelTest(@TempDir Path dir) throws Exception {
+        val text = new StringBuilder("col1,col2\n");
+        // big enough for several groups of the parallel engine
+        for (int i = 0; i < 200_000; i++) text.append(i).append(",value").append(i).append('\n');
+        val file = dir.resolve("test.csv");
+        Files.writeString(file, text);
+
+        for (val engine : CsvEngine.values()) {
+            val model = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings().toBuilder()
+                    .engine(engine)
+                    .build());
+            val notified = new AtomicInteger();
+            val listener = new ParseListener() {
+                @Override
+                public void onRecords(@NonNull TableLikeData data, int from, int to) {
+                    notified.incrementAndGet();
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    // the mapped engine publishes nothing, so it is cancelled right away
+                    return notified.get() > 0 || engine == CsvEngine.MAPPED;
+                }
+            };
+            assertThrows(CancellationException.class, () -> {
+                if (model.canParseFile()) {
+                    model.parse(file, listener);
+                } else {
+                    try (val stream = Files.newInputStream(file)) {
+                        model.parse(stream, listener);
+                    }
+                }
+            }, engine.name());
+            // the parsing stopped right after the first records
+            assertEquals(engine == CsvEngine.MAPPED ? 0 : 1, notified.get(), engine.name());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.giamgiammi.StructuredFileViewer.core.csv;
+
+import lombok.val;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelCsvParserTest {
+    private static final String[] VALUES = {
+            "a", "", " ", "text", "\"quoted\"", "\"multi\nline\"", "\"with \"\" quote\"", "\"a,b\"",
+            "in\"side", "\"\"", " \"spaced\nvalue\"", "\u2003\"unicode\nspace\"", "\"\r\n\""
+    };
+
+    @Test
+    void sameAsSequentialTest(@TempDir Path dir) throws Exception {
+        val random = new Random(42);
+        val text = new StringBuilder("h1,h2,h3\n");
+        for (int i = 0; i < 500; i++) {
+            val fields = 1 + random.nextInt(4);
+            for (int j = 0; j < fields; j++) {
+                if (j > 0) text.append(',');
+                text.append(VALUES[random.nextInt(VALUES.length)]);
+            }
+            text.append(random.nextInt(5) == 0 ? "\r\n" : "\n");
+            if (random.nextInt(20) == 0) text.append('\n');
+        }
+        val file = dir.resolve("test.csv");
+        Files.writeString(file, text);
+
+        val formats = List.of(
+                CSVFormat.DEFAULT,
+                CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).get(),
+                CSVFormat.DEFAULT.builder().setIgnoreSurroundingSpaces(true).setIgnoreEmptyLines(false).get(),
+                CSVFormat.EXCEL.builder().setTrailingData(true).get()
+        );
+        for (val format : formats) {
+            for (val chunkSize : new long[]{1, 7, 64, 1 << 20}) {
+                val expected = parseSequential(format, text.toString());
+                val data = new ParallelCsvParser(format, StandardCharsets.UTF_8, chunkSize).parse(file, Files.size(file), null);
+                assertEquals(expected.header(), data.getColumnNames(), "header of " + format);
+                assertEquals(expected.records().size(), data.getRecords().size(), "records of " + format);
+                for (int i = 0; i < expected.records().size(); i++) {
+                    val record = expected.records().get(i);
+                    val actual = new String[record.length];
+                    for (int j = 0; j < record.length; j++) actual[j] = (String) data.getRecords().get(i).get(j);
+                    assertArrayEquals(record, actual, "record " + i + " of " + format + " with chunks of " + chunkSize);
+                }
+            }
+        }
+    }
+
+    private static Expected parseSequential(CSVFormat format, String text) throws Exception {
+        try (val parser = format.parse(new StringReader(text))) {
+            val records = new ArrayList<String[]>();
+            for (val record : parser) records.add(record.values());
+            val header = new ArrayList<>(parser.getHeaderNames() == null ? List.of() : parser.getHeaderNames());
+            val width = records.stream().mapToInt(r -> r.length).max().orElse(0);
+            while (header.size() < width) header.add("");
+            return new Expected(header, records);
+        }
+    }
+
+    private record Expected(List<String> header, List<String[]> records) {}
+}
@@ -0,0 +1,163 @@
+package com.github.giamgiammi.StructuredFileViewer.core.fixed;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ParseListener;
+import com.github.giamgiammi.StructuredFileViewer.core.TableLikeData;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
+import com.github.giamgiammi.StructuredFileViewer.utils.TextUtils;
+import lombok.NonNull;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedWidthParserTest {
+    private static final String[] PIECES = {"a", "b", " ", "\t", "12", "\u00e8", "\r\n", "\n", "\r", "\u2028"};
+    private static final List<FixedWidthColumn> COLUMNS = List.of(
+            new FixedWidthColumn("c1", 3, true),
+            new FixedWidthColumn("c2", 5, false),
+            new FixedWidthColumn("c3", 4, true)
+    );
+
+    @Test
+    void sameAsScannerTest() throws Exception {
+        val random = new Random(7);
+        val text = new StringBuilder();
+        while (text.length() < 300_000) text.append(PIECES[random.nextInt(PIECES.length)]);
+
+        val charsets = new ArrayList<>(List.of(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, Charset.forName("windows-1252")));
+        if (Charset.isSupported("IBM037")) charsets.add(Charset.forName("IBM037"));
+        for (val charset : charsets) {
+            for (val newLine : new boolean[]{true, false}) {
+                val settings = new FixedWidthSettings(COLUMNS, newLine, charset, null);
+                // the expected records are parsed from the decoded text, as the original implementation did
+                val decoded = new String(text.toString().getBytes(charset), charset);
+                val expected = parseReference(settings, decoded);
+
+                val data = new FixedWidthDataModel(settings).parse(new ByteArrayInputStream(decoded.getBytes(charset)));
+                assertEquals(expected.size(), data.getRecords().size(), charset + " newLine=" + newLine);
+                for (int i = 0; i < expected.size(); i++) {
+                    val actual = new String[COLUMNS.size()];
+                    for (int j = 0; j < actual.length; j++) actual[j] = (String) data.getRecords().get(i).get(j);
+                    assertArrayEquals(expected.get(i), actual, "record " + i + " of " + charset + " newLine=" + newLine);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fileEnginesTest(@TempDir Path dir) throws Exception {
+        val random = new Random(11);
+        val text = new StringBuilder();
+        // the last record is truncated
+        while (text.length() < 100_000 + 5) text.append(PIECES[random.nextInt(PIECES.length)]);
+        val charset = StandardCharsets.ISO_8859_1;
+        val file = dir.resolve("data.txt");
+        Files.write(file, text.toString().getBytes(charset));
+
+        val settings = new FixedWidthSettings(COLUMNS, false, charset, null);
+        final TableLikeData expected;
+        try (val stream = Files.newInputStream(file)) {
+            expected = new FixedWidthDataModel(settings).parse(stream);
+        }
+        val parser = new FixedWidthParser(settings);
+        assertTrue(parser.isRandomAccess());
+
+        try (val mapped = new FixedWidthDataModel(settings.toBuilder().engine(FixedWidthEngine.MAPPED).build()).parse(file, null)) {
+            assertTrue(mapped.hasLazyRecords());
+            assertSameRecords(expected, mapped);
+        }
+        val notified = new int[1];
+        val parallel = parser.parse(file, Files.size(file), 100, (data, from, to) -> {
+            assertEquals(notified[0], from);
+            notified[0] = to;
+        });
+        assertEquals(expected.getRecords().size(), notified[0]);
+        assertSameRecords(expected, parallel);
+
+        assertFalse(new FixedWidthDataModel(settings.toBuilder().recordEndsWithNewLine(true).engine(FixedWidthEngine.MAPPED).build()).canParseFile());
+        assertFalse(new FixedWidthDataModel(settings.toBuilder().charset(StandardCharsets.UTF_8).engine(FixedWidthEngine.PARALLEL).build()).canParseFile());
+    }
+
+    @Test
+    void cancelTest(@TempDir Path dir) throws Exception {
+        val file = dir.resolve("data.txt");
+        Files.writeString(file, "abc12345wxyz".repeat(10_000), StandardCharsets.ISO_8859_1);
+        val parser = new FixedWidthParser(new FixedWidthSettings(COLUMNS, false, StandardCharsets.ISO_8859_1, null));
+        val notified = new AtomicInteger();
+        val listener = new ParseListener() {
+            @Override
+            public void onRecords(@NonNull TableLikeData data, int from, int to) {
+                notified.incrementAndGet();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return notified.get() > 0;
+            }
+        };
+
+        // the parsing stops right after the first records, with both engines
+        try (val stream = Files.newInputStream(file)) {
+            assertThrows(CancellationException.class, () -> parser.parse(stream, listener));
+        }
+        assertEquals(1, notified.get());
+        notified.set(0);
+        assertThrows(CancellationException.class, () -> parser.parse(file, Files.size(file), 100, listener));
+        assertEquals(1, notified.get());
+    }
+
+    private static void assertSameRecords(TableLikeData expected, TableLikeData actual) {
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertEquals(expected.getRecords().size(), actual.getRecords().size());
+        for (int i = 0; i < expected.getRecords().size(); i++) {
+            for (int j = 0; j < COLUMNS.size(); j++) {
+                assertEquals(expected.getRecords().get(i).get(j), actual.getRecords().get(i).get(j), "record " + i + " column " + j);
+            }
+        }
+    }
+
+    private static List<String[]> parseReference(FixedWidthSettings settings, String text) {
+        val lines = new ArrayList<String>();
+        if (settings.recordEndsWithNewLine()) {
+            try (val scanner = new Scanner(new StringReader(text))) {
+                while (scanner.hasNextLine()) lines.add(scanner.nextLine());
+            }
+        } else {
+            for (int i = 0; i < text.length(); i += 12) lines.add(text.substring(i, Math.min(text.length(), i + 12)));
+        }
+
+        val records = new ArrayList<String[]>();
+        for (val line : lines) {
+            val record = new String[settings.columns().size()];
+            int index = 0;
+            for (int i = 0; i < record.length; i++) {
+                val col = settings.columns().get(i);
+                var value = TextUtils.substring(line, index, index + col.length());
+                if (col.trim() && value != null) value = value.trim();
+                record[i] = value;
+                index += col.length();
+            }
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.giamgiammi.StructuredFileViewer.filters;
+
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelFilterTest {
+    private static SimpleTableData data(int count) {
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < count; i++) rows.add(new String[]{String.valueOf(i % 10), "v" + i});
+        return new SimpleTableData(List.of("mod", "value"), rows);
+    }
+
+    @Test
+    void sameAsSequentialTest() throws Exception {
+        val data = data(ParallelFilter.CHUNK_SIZE * 5 + 123);
+        val filter = TableFilter.parse("mod = '3' OR value LIKE '99' OR $0 = '7'", data);
+        val last = new AtomicLong();
+
+        val result = ParallelFilter.filter(filter, data.getRecords(), new ParallelFilter.Monitor() {
+            @Override
+            public void progress(long done, long total) {
+                last.accumulateAndGet(done, Math::max);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+        assertEquals(filter.filter(data.getRecords()), Arrays.stream(result).mapToObj(data.getRecords()::get).toList());
+        assertEquals(data.getRecords().size(), last.get());
+    }
+
+    @Test
+    void cancelTest() {
+        val data = data(ParallelFilter.CHUNK_SIZE * 3);
+        val filter = TableFilter.parse("mod = '3'", data);
+
+        assertThrows(CancellationException.class, () -> ParallelFilter.filter(filter, data.getRecords(), new ParallelFilter.Monitor() {
+            @Override
+            public void progress(long done, long total) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        }));
+    }
+}
@@ -1,12 +1,18 @@
 package com.github.giamgiammi.StructuredFileViewer.filters;
 
+import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersLexer;
+import com.github.giamgiammi.StructuredFileViewer.filters.generated.TableFiltersParser;
 import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
 import lombok.val;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableFilterTest {
     @Test
@@ -52,4 +58,46 @@ class TableFilterTest {
         ));
         assertEquals(expected.getRecords(), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void compiledTest() {
+        val data = new SimpleTableData(List.of("col1", "col2"), List.of(
+                new String[] {"a", "aaaa"},
+                new String[] {"b", null},
+                new String[] {"c", "ccccc"},
+                new String[] {"a", "12"},
+                new String[] {"d", "dd"}
+        ));
+        val queries = List.of(
+                "col1 = 'a' AND col2 = 'aaaa'",
+                "col1 = 'a' OR NOT (col2 = NULL OR col1 > 'c')",
+                "NOT (col1 = 'a' AND (col2 regex '[0-9]+' OR $0 > '4')) AND col1 <> 'b'",
+                "(col1 = 'a' OR col1 = 'b') AND (col2 <> NULL OR $0 = '2') AND NOT col1 = 'c'"
+        );
+        for (val query : queries) {
+            val compiled = TableFilter.parse(query, data);
+            assertTrue(compiled.getClass().isHidden(), query);
+            for (int i = 0; i < data.getRecords().size(); i++) {
+                val record = data.getRecords().get(i);
+                assertEquals(interpret(query, data).test(record, i), compiled.test(record, i), query + " on row " + i);
+            }
+        }
+    }
+
+    @Test
+    void refinementTest() {
+        assertTrue(TableFilter.isRefinement("col1 = 'a'", "col1 = 'a' AND $2 = NULL"));
+        assertTrue(TableFilter.isRefinement("col1 = 'a' OR col2 = 'b'", "(col1 = 'a' OR col2 = 'b') AND $1 <> 'c'"));
+        assertTrue(TableFilter.isRefinement("(a = 'x' AND b = 'y') AND c = 'z'", "c = 'z' AND ((b='y' AND a = 'x') AND d LIKE 'w')"));
+        assertFalse(TableFilter.isRefinement("col1 = 'a'", "col1 = 'a' OR col2 = 'b'"));
+        assertFalse(TableFilter.isRefinement("col1 = 'a' AND col2 = 'b'", "col1 = 'a'"));
+        assertFalse(TableFilter.isRefinement("col1 = 'a'", "NOT (col1 = 'a' AND col2 = 'b')"));
+        assertFalse(TableFilter.isRefinement("col1 = 'a'", "col1 = 'a' AND"));
+        assertFalse(TableFilter.isRefinement(null, "col1 = 'a'"));
+    }
+
+    private static TableFilter interpret(String query, SimpleTableData data) {
+        val parser = new TableFiltersParser(new CommonTokenStream(new TableFiltersLexer(CharStreams.fromString(query))));
+        return new TableFilterVisitor(data).visit(parser.expr());
+    }
+}
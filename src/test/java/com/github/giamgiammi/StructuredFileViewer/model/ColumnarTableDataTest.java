@@ -0,0 +1,267 @@
+package com.github.giamgiammi.StructuredFileViewer.model;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.filters.ParallelFilter;
+import com.github.giamgiammi.StructuredFileViewer.filters.TableFilter;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTableDataTest {
+    private static final String[] STATUSES = {"OK", "KO", "PENDING"};
+
+    private static List<String[]> rows(int count) {
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < count; i++) {
+            if (i % 1000 == 999) rows.add(new String[]{STATUSES[i % 3]});
+            else rows.add(new String[]{STATUSES[i % 3], "id" + i, i % 7 == 0 ? "x" : "y"});
+        }
+        return rows;
+    }
+
+    @Test
+    void valuesTest() {
+        val rows = rows(50_000);
+        val data = new ColumnarTableData(List.of("status"));
+        for (val row : rows) data.append(row);
+
+        assertEquals(List.of("status", "", ""), data.getColumnNames());
+        assertEquals(rows.size(), data.getRecords().size());
+        for (int i = 0; i < rows.size(); i++) {
+            val record = data.getRecords().get(i);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(j < rows.get(i).length ? rows.get(i)[j] : null, record.get(j));
+            }
+        }
+        assertNull(data.getRecords().get(0).get(3));
+    }
+
+    @Test
+    void filterTest() {
+        val rows = rows(20_000);
+        val data = new ColumnarTableData(List.of("status", "id", "flag"));
+        for (val row : rows) data.append(row);
+        val simple = new SimpleTableData(data.getColumnNames(), rows);
+
+        val queries = List.of(
+                "status = 'KO'",
+                "status <> 'KO' AND flag = 'x'",
+                "status = 'MISSING' OR flag = NULL",
+                "id = 'id42' OR id > 'id9998'",
+                "status ILIKE 'pend' AND flag <> NULL AND NOT flag LIKE 'y'"
+        );
+        for (val query : queries) {
+            val expected = TableFilter.parse(query, simple).filter(simple.getRecords());
+            val actual = TableFilter.parse(query, data).filter(data.getRecords());
+            assertEquals(expected.size(), actual.size(), query);
+            for (int i = 0; i < expected.size(); i++) {
+                for (int j = 0; j < 3; j++) assertEquals(expected.get(i).get(j), actual.get(i).get(j), query);
+            }
+        }
+    }
+
+    private static final ParallelFilter.Monitor MONITOR = new ParallelFilter.Monitor() {
+        @Override
+        public void progress(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    @Test
+    void indexTest() throws Exception {
+        val rows = rows(30_000);
+        val data = new ColumnarTableData(List.of("status", "id", "flag"));
+        val queries = List.of(
+                "status = 'KO'",
+                "status <> 'OK' AND flag = NULL",
+                "NOT status = 'PENDING' OR flag = 'x'",
+                "status = 'KO' AND id <> NULL AND id LIKE '99'",
+                "id = 'id42' OR status = 'MISSING'"
+        );
+        // the index is built on the first half and extended with the second one
+        for (val count : new int[]{rows.size() / 2, rows.size()}) {
+            for (int i = data.size(); i < count; i++) data.append(rows.get(i));
+            for (val query : queries) {
+                val filter = TableFilter.parse(query, data);
+                val expected = filter.filter(data.getRecords());
+                val actual = ParallelFilter.filter(filter, data.getRecords(), MONITOR);
+                assertEquals(expected, Arrays.stream(actual).mapToObj(data.getRecords()::get).toList(), query);
+            }
+        }
+    }
+
+    @Test
+    void ngramIndexTest() throws Exception {
+        val data = new ColumnarTableData(List.of("message"));
+        val queries = List.of(
+                "message LIKE 'Error 123'",
+                "message ILIKE 'ERROR 45'",
+                "message LIKE '\u00f3dulo 7'",
+                "message ILIKE 'M\u00d3DULO 9'",
+                "message ILIKE 'in m' AND NOT message LIKE 'Warn'",
+                "message LIKE 'missing'"
+        );
+        for (val count : new int[]{5_000, 20_000}) {
+            for (int i = data.size(); i < count; i++) {
+                data.append(new String[]{i % 100 == 0 ? null : (i % 3 == 0 ? "Warning " : "Error ") + i + " in M\u00f3dulo " + (i % 97)});
+            }
+            for (val query : queries) {
+                val filter = TableFilter.parse(query, data);
+                val expected = filter.filter(data.getRecords());
+                val actual = ParallelFilter.filter(filter, data.getRecords(), MONITOR);
+                assertEquals(expected, Arrays.stream(actual).mapToObj(data.getRecords()::get).toList(), query);
+            }
+        }
+        assertNull(data.rowsContaining(0, "ab", false, data.size()));
+        data.awaitIndexes();
+        // only the rows of the page not sealed yet are candidates
+        assertEquals(20_000 - 16_384, data.rowsContaining(0, "missing", false, data.size()).cardinality());
+    }
+
+    @Test
+    void ngramSelectivityTest() throws Exception {
+        val data = new ColumnarTableData(List.of("line"));
+        val levels = new String[]{"INFO", "DEBUG", "WARN"};
+        for (int i = 0; i < 100_000; i++) {
+            val message = i % 997 == 0
+                    ? "Connection timeout to db-" + (i % 7)
+                    : "Request " + (i * 7919 % 1_000_000) + " served in " + (i % 500) + " ms by worker-" + (i % 16);
+            data.append(new String[]{"2026-01-%02d 12:%02d:%02d %s %s".formatted(1 + i % 28, i % 60, i * 7 % 60, levels[i % 3], message)});
+        }
+        // no index before the pages are sealed and indexed, the rows are scanned
+        assertNull(new NgramIndex(row -> data.get(0, row)).rowsContaining("timeout", false, data.size()));
+        data.awaitIndexes();
+
+        val filter = TableFilter.parse("line ILIKE 'TIMEOUT to db'", data);
+        val candidates = data.rowsContaining(0, "timeout to db", true, data.size());
+        val expected = filter.filter(data.getRecords()).size();
+        assertEquals(expected, ParallelFilter.filter(filter, data.getRecords(), MONITOR).length);
+        assertTrue(candidates.cardinality() < data.size() / 5, "candidates " + candidates.cardinality());
+        assertTrue(candidates.cardinality() >= expected);
+        // common trigrams do not narrow the rows
+        assertNull(data.rowsContaining(0, "served in", false, data.size()));
+    }
+
+    @Test
+    void typedColumnsTest() throws Exception {
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < 40_000; i++) {
+            rows.add(new String[]{
+                    String.valueOf(i - 20_000),
+                    i % 50 == 0 ? null : (i % 3 == 0 ? String.valueOf(i % 1000) : (i % 1000) + "." + (i % 3 == 1 ? "5" : "25")),
+                    LocalDate.of(2020, 1, 1).plusDays(i).toString(),
+                    // a different format after the sample, stored as strings
+                    LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(i).format(ColumnType.TIMESTAMP_FORMATS.get(i < 30_000 ? 0 : 1)),
+                    i == 30_000 ? "N/A" : String.valueOf(i * 100_000L),
+                    i % 7 == 0 ? "-0.0" : "0." + i
+            });
+        }
+        val data = new ColumnarTableData(List.of("int", "decimal", "date", "timestamp", "late", "zero"));
+        for (val row : rows) data.append(row);
+
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = 0; j < rows.get(i).length; j++) assertEquals(rows.get(i)[j], data.get(j, i));
+        }
+        assertEquals(List.of(ColumnType.INTEGER, ColumnType.DECIMAL, ColumnType.DATE, ColumnType.TIMESTAMP, ColumnType.STRING, ColumnType.DECIMAL),
+                IntStream.range(0, 6).mapToObj(data::columnType).toList());
+
+        // the sample of the first records of the simple data has the same types
+        val simple = new SimpleTableData(data.getColumnNames(), rows);
+        val queries = List.of(
+                "int > '-5' AND int <= '10'",
+                "int < '-19990.5' OR int >= '19999'",
+                "decimal > '998' OR decimal < '1'",
+                "decimal >= '500.25' AND decimal <= '500.5'",
+                "decimal = '7' OR decimal = '8.50' OR decimal = '4.25' OR decimal = '4.250'",
+                "date >= '2129-06-15' OR date < '2020-01-03'",
+                "date > 'not a date' OR date = '2020-01-05'",
+                "timestamp >= '2026-01-20' AND timestamp < '2026-01-21T00:00:00.001'",
+                "zero < '0.1' AND NOT zero = '-0.0'",
+                "$0 <= '9' OR $0 > '39998'",
+                "int > decimal AND decimal <> NULL"
+        );
+        for (val query : queries) {
+            val expected = TableFilter.parse(query, simple).filter(simple.getRecords());
+            val actual = ParallelFilter.filter(TableFilter.parse(query, data), data.getRecords(), MONITOR);
+            assertEquals(expected.size(), actual.length, query);
+            for (int i = 0; i < actual.length; i++) assertEquals(expected.get(i).get(0), data.get(0, actual[i]), query);
+        }
+        assertEquals(10, TableFilter.parse("$0 <= '10'", data).filter(data.getRecords()).size());
+    }
+
+    @Test
+    void spillTest(@TempDir Path dir) throws Exception {
+        val budget = 512 * 1024;
+        val cache = new PageCache(dir, budget);
+        val rows = rows(200_000);
+        val data = new ColumnarTableData(List.of("status", "id", "flag"), cache);
+        // the ids alone take megabytes
+        for (val row : rows) {
+            data.append(row);
+            assertTrue(cache.getResident() <= budget);
+        }
+
+        // the spilled pages are read from the file, concurrently and in any order
+        IntStream.range(0, rows.size()).parallel().map(i -> rows.size() - 1 - i).forEach(i -> {
+            for (int j = 0; j < 3; j++) assertEquals(j < rows.get(i).length ? rows.get(i)[j] : null, data.get(j, i));
+        });
+        assertTrue(cache.getResident() <= budget);
+        val filter = TableFilter.parse("id LIKE 'id19999'", data);
+        assertEquals(filter.filter(data.getRecords()).size(), ParallelFilter.filter(filter, data.getRecords(), MONITOR).length);
+
+        // the blocks of the spilled pages fit the next pages of similar sizes
+        assertEquals(4096, PageCache.blockSize(1));
+        assertEquals(5 << 20, PageCache.blockSize((4 << 20) + 1));
+        assertEquals(5 << 20, PageCache.blockSize(5 << 20));
+        assertEquals(6 << 20, PageCache.blockSize((5 << 20) + 1));
+
+        data.close();
+        assertEquals(0, cache.getResident());
+        // the memory was released
+        assertThrows(IllegalStateException.class, () -> data.get(1, 0));
+        try (val files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void sharedBudgetTest(@TempDir Path dir) {
+        val budget = 512 * 1024;
+        val cache = new PageCache(dir, budget);
+        val rows = rows(100_000);
+        val first = new ColumnarTableData(List.of("status", "id", "flag"), cache);
+        val second = new ColumnarTableData(List.of("status", "id", "flag"), cache);
+        // the blocks of the pages spilled by a table are reused by the other one
+        for (val row : rows) {
+            first.append(row);
+            second.append(row);
+            assertTrue(cache.getResident() <= budget);
+        }
+
+        first.close();
+        assertTrue(cache.getResident() <= budget);
+        IntStream.range(0, rows.size()).parallel().forEach(i -> {
+            for (int j = 0; j < 3; j++) assertEquals(j < rows.get(i).length ? rows.get(i)[j] : null, second.get(j, i));
+        });
+        second.close();
+        assertEquals(0, cache.getResident());
+    }
+}
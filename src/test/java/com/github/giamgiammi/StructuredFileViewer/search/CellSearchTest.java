@@ -0,0 +1,71 @@
+package com.github.giamgiammi.StructuredFileViewer.search;
+
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CellSearchTest {
+    private static SimpleTableData data(int size) {
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < size; i++) {
+            rows.add(new String[]{String.valueOf(i), i % 1000 == 0 ? "Needle " + i : "hay", i % 5000 == 0 ? "NEEDLE" : null});
+        }
+        return new SimpleTableData(List.of("id", "a", "b"), rows);
+    }
+
+    @Test
+    void searchTest() throws Exception {
+        val data = data(100_000);
+        val hits = new SearchHits();
+        val calls = new ArrayList<Integer>();
+        val found = CellSearch.search(data, null, 100_000, "neEdle", (chunk, done, total) -> {
+            assertEquals(100_000, total);
+            calls.add(done);
+            hits.add(chunk);
+        }, () -> false);
+
+        assertEquals(120, found);
+        assertEquals(120, hits.size());
+        // the chunks are reported in order, so are the hits
+        assertEquals(calls.stream().sorted().toList(), calls);
+        assertEquals(100_000, calls.getLast());
+        for (int i = 1; i < hits.size(); i++) assertTrue(hits.get(i - 1) < hits.get(i));
+        assertEquals(CellSearch.hit(0, 1), hits.get(0));
+        assertEquals(CellSearch.hit(0, 2), hits.get(1));
+        assertEquals(CellSearch.hit(99_000, 1), hits.get(119));
+
+        // navigation from a cell, wrapping around
+        assertEquals(CellSearch.hit(1000, 1), hits.next(0, 2));
+        assertEquals(2, hits.getCurrent());
+        assertEquals(CellSearch.hit(1000, 1), hits.next(1000, -1));
+        assertEquals(CellSearch.hit(0, 2), hits.previous(1000, 1));
+        assertEquals(CellSearch.hit(0, 1), hits.next(99_500, 0));
+        assertEquals(CellSearch.hit(99_000, 1), hits.previous(0, 1));
+        assertEquals(CellSearch.hit(0, 1), hits.next(-1, 0));
+    }
+
+    @Test
+    void rowsTest() throws Exception {
+        val data = data(20_000);
+        // the records in reverse order
+        val rows = IntStream.range(0, 20_000).map(i -> 19_999 - i).toArray();
+        val hits = new SearchHits();
+        CellSearch.search(data, rows, 20_000, "needle 1000", (chunk, done, total) -> hits.add(chunk), () -> false);
+        assertEquals(List.of(CellSearch.hit(9_999, 1), CellSearch.hit(18_999, 1)),
+                List.of(hits.get(0), hits.get(1)));
+        assertEquals(2, hits.size());
+    }
+
+    @Test
+    void cancelTest() {
+        val data = data(100_000);
+        assertThrows(CancellationException.class, () -> CellSearch.search(data, null, 100_000, "x", (chunk, done, total) -> {}, () -> true));
+    }
+}
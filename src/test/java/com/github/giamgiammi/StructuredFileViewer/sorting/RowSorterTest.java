@@ -0,0 +1,71 @@
+package com.github.giamgiammi.StructuredFileViewer.sorting;
+
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowSorterTest {
+    private static SimpleTableData data(int count) {
+        val random = new Random(3);
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < count; i++) rows.add(new String[]{
+                random.nextInt(20) == 0 ? null : String.valueOf(random.nextInt(7) * 5),
+                "v" + random.nextInt(count),
+                random.nextBoolean() ? "a" : "b"
+        });
+        return new SimpleTableData(List.of("mod", "value", "ab"), rows);
+    }
+
+    @Test
+    void sameAsStableSortTest() {
+        val data = data(50_000);
+        val sorter = new RowSorter(data);
+        val subset = IntStream.range(0, data.getRecords().size()).filter(i -> i % 3 != 0).toArray();
+        val keyLists = List.of(
+                List.of(new SortKey(0, true)),
+                List.of(new SortKey(0, false)),
+                List.of(new SortKey(2, true), new SortKey(0, false), new SortKey(1, true)),
+                List.of(new SortKey(1, false)),
+                List.<SortKey>of()
+        );
+
+        for (val keys : keyLists) {
+            for (val rows : new int[][]{null, subset}) {
+                val count = rows == null ? data.getRecords().size() : rows.length;
+                val expected = (rows == null ? IntStream.range(0, count) : IntStream.of(rows)).boxed()
+                        .sorted(comparator(data, keys))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                assertArrayEquals(expected, sorter.sort(rows, count, keys, () -> false), keys.toString());
+            }
+        }
+    }
+
+    @Test
+    void cancelTest() {
+        val data = data(50_000);
+        assertThrows(CancellationException.class, () -> new RowSorter(data).sort(null, 50_000, List.of(new SortKey(1, true)), () -> true));
+    }
+
+    private static Comparator<Integer> comparator(SimpleTableData data, List<SortKey> keys) {
+        Comparator<Integer> comparator = (a, b) -> 0;
+        for (val key : keys) {
+            val type = data.columnType(key.column());
+            Comparator<Integer> column = (a, b) -> type.compare(
+                    (String) data.getRecords().get(a).get(key.column()),
+                    (String) data.getRecords().get(b).get(key.column()));
+            comparator = comparator.thenComparing(key.ascending() ? column : column.reversed());
+        }
+        return comparator;
+    }
+}
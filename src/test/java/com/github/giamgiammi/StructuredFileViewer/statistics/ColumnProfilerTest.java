@@ -0,0 +1,79 @@
+package com.github.giamgiammi.StructuredFileViewer.statistics;
+
+import com.github.giamgiammi.StructuredFileViewer.core.ColumnType;
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnProfilerTest {
+    @Test
+    void profileTest() {
+        val random = new Random(42);
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < 100_000; i++) {
+            // a few frequent values among many rare ones
+            val code = random.nextInt(10) < 6 ? "HOT" + random.nextInt(3) : "c" + random.nextInt(20_000);
+            rows.add(new String[]{String.valueOf(i - 500), i % 10 == 0 ? null : code, ""});
+        }
+        val data = new SimpleTableData(List.of("id", "code", "empty"), rows);
+        val statistics = ColumnProfiler.profile(data, () -> false);
+        assertEquals(3, statistics.size());
+
+        val id = statistics.get(0);
+        assertEquals(ColumnType.INTEGER, id.type());
+        assertEquals(100_000, id.count());
+        assertEquals(0, id.nulls());
+        assertEquals("-500", id.min());
+        assertEquals("99499", id.max());
+        assertEquals(1, id.minLength());
+        assertEquals(5, id.maxLength());
+        assertEquals(100_000, id.distinct(), 100_000 * 0.03);
+        assertEquals(100_000, Arrays.stream(id.lengths()).sum());
+
+        val code = statistics.get(1);
+        assertEquals(10_000, code.nulls());
+        val exact = rows.stream().map(row -> row[1]).filter(Objects::nonNull).distinct().count();
+        assertEquals(exact, code.distinct(), exact * 0.03);
+        val top = code.top().stream().limit(3).map(SpaceSaving.ValueCount::value).sorted().toList();
+        assertEquals(List.of("HOT0", "HOT1", "HOT2"), top);
+        for (val value : code.top().subList(0, 3)) {
+            val count = rows.stream().filter(row -> value.value().equals(row[1])).count();
+            assertTrue(value.count() >= count && value.count() - value.error() <= count, value.toString());
+        }
+
+        val empty = statistics.get(2);
+        assertEquals(1, empty.distinct());
+        assertEquals(100_000, empty.lengths()[0]);
+        assertEquals(List.of(new SpaceSaving.ValueCount("", 100_000, 0)), empty.top());
+    }
+
+    @Test
+    void hyperLogLogTest() {
+        val small = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) small.add("v" + (i % 37));
+        assertEquals(37, small.estimate(), 1);
+
+        val a = new HyperLogLog();
+        val b = new HyperLogLog();
+        for (int i = 0; i < 1_000_000; i++) (i % 2 == 0 ? a : b).add(String.valueOf(i));
+        a.merge(b);
+        assertEquals(1_000_000, a.estimate(), 1_000_000 * 0.03);
+    }
+
+    @Test
+    void cancelTest() {
+        val rows = new ArrayList<String[]>();
+        for (int i = 0; i < 10_000; i++) rows.add(new String[]{String.valueOf(i)});
+        val data = new SimpleTableData(List.of("id"), rows);
+        assertThrows(CancellationException.class, () -> ColumnProfiler.profile(data, () -> true));
+    }
+}
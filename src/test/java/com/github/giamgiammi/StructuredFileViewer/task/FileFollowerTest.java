@@ -0,0 +1,111 @@
+package com.github.giamgiammi.StructuredFileViewer.task;
+
+import com.github.giamgiammi.StructuredFileViewer.core.csv.CsvDataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.core.fixed.FixedWidthDataModelFactory;
+import com.github.giamgiammi.StructuredFileViewer.model.SimpleTableData;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthColumn;
+import com.github.giamgiammi.StructuredFileViewer.model.fixed.FixedWidthSettings;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFollowerTest {
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void csvTest(@TempDir Path dir) throws Exception {
+        val settings = new CsvDataModelFactory().getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .build();
+        val model = new CsvDataModelFactory().create(settings);
+        val file = dir.resolve("feed.csv");
+        Files.writeString(file, "id,name\n1,a\n");
+        val data = model.parse(Files.newInputStream(file));
+
+        val follower = new FileFollower(file, model, data, Files.size(file), (d, from, to) -> {});
+        assertEquals(0, follower.parseAppended());
+
+        // the last record is parsed once terminated
+        append(file, "2,b\n3,c");
+        assertEquals(1, follower.parseAppended());
+        append(file, "\n4,\"multi\nline\"\r\n");
+        assertEquals(2, follower.parseAppended());
+        assertEquals(Files.size(file), follower.getOffset());
+
+        val records = data.getRecords();
+        assertEquals(List.of("id", "name"), data.getColumnNames());
+        assertEquals(4, records.size());
+        assertEquals("c", records.get(2).get(1));
+        assertEquals("multi\nline", records.get(3).get(1));
+
+        Files.writeString(file, "id,name\n");
+        assertThrows(IOException.class, follower::parseAppended);
+    }
+
+    @Test
+    void fixedWidthTest(@TempDir Path dir) throws Exception {
+        val columns = List.of(new FixedWidthColumn("a", 2, true), new FixedWidthColumn("b", 2, true));
+        val model = new FixedWidthDataModelFactory().create(new FixedWidthSettings(columns, false, StandardCharsets.ISO_8859_1, null));
+        val file = dir.resolve("feed.txt");
+        Files.writeString(file, "a1b1", StandardCharsets.ISO_8859_1);
+        val data = model.parse(Files.newInputStream(file));
+
+        val latch = new CountDownLatch(2);
+        try (val follower = new FileFollower(file, model, data, Files.size(file), (d, from, to) -> {
+            for (int i = from; i < to; i++) latch.countDown();
+        })) {
+            follower.start();
+            append(file, "a2b2a3");
+            append(file, "b3");
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(3, data.getRecords().size());
+        assertEquals("b3", data.getRecords().get(2).get(1));
+    }
+
+    @Test
+    void partialRecordTest(@TempDir Path dir) throws Exception {
+        val settings = new CsvDataModelFactory().getDefaultSettings().toBuilder()
+                .skipHeaderRecord(true)
+                .build();
+        val model = new CsvDataModelFactory().create(settings);
+        val file = dir.resolve("feed.csv");
+        Files.writeString(file, "id,name\n1,a\r\n2,b");
+        // the last record is still being written, it is parsed by the follower once terminated
+        val length = model.wholeRecordsLength(file, Files.size(file));
+        assertEquals(13, length);
+        val data = model.parse(new CountingInputStream(Files.newInputStream(file), length, null));
+        assertEquals(1, data.getRecords().size());
+
+        val follower = new FileFollower(file, model, data, length, (d, from, to) -> {});
+        append(file, "c\n");
+        assertEquals(1, follower.parseAppended());
+        assertEquals("bc", data.getRecords().get(1).get(1));
+
+        val fixed = new FixedWidthDataModelFactory().create(new FixedWidthSettings(
+                List.of(new FixedWidthColumn("a", 2, true)), false, StandardCharsets.ISO_8859_1, null));
+        Files.writeString(file, "a1a2a", StandardCharsets.ISO_8859_1);
+        assertEquals(4, fixed.wholeRecordsLength(file, Files.size(file)));
+    }
+
+    @Test
+    void unsupportedTest() throws Exception {
+        val model = new CsvDataModelFactory().create(new CsvDataModelFactory().getDefaultSettings());
+        val data = new SimpleTableData(List.of("a"), List.of());
+        assertFalse(model.canParseAppended(data));
+        assertThrows(IllegalArgumentException.class, () -> new FileFollower(Path.of("x"), model, data, 0, (d, from, to) -> {}));
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.giamgiammi.StructuredFileViewer.task;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseFileTaskTest {
+    @Test
+    void progressTest() {
+        val progress = new ParseFileTask.Progress(25 << 20, 100 << 20, 1000, TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0.25, progress.fraction(), 1e-9);
+        assertEquals(5 << 20, progress.bytesPerSecond(), 1e-3);
+        assertEquals(15, progress.remainingSeconds());
+
+        val unknown = new ParseFileTask.Progress(-1, 100 << 20, 1000, TimeUnit.SECONDS.toNanos(5));
+        assertEquals(-1, unknown.fraction());
+        assertEquals(-1, unknown.bytesPerSecond());
+        assertEquals(-1, unknown.remainingSeconds());
+    }
+
+    @Test
+    void countingListenerTest() throws Exception {
+        val counts = new ArrayList<Long>();
+        try (val stream = new CountingInputStream(new ByteArrayInputStream(new byte[100]), counts::add)) {
+            stream.read();
+            stream.readNBytes(new byte[50], 0, 50);
+            stream.skip(9);
+            assertEquals(60, stream.getCount());
+        }
+        assertEquals(60L, counts.getLast());
+
+        // an exception of the listener stops the reader
+        try (val stream = new CountingInputStream(new ByteArrayInputStream(new byte[100]), count -> {
+            if (count > 10) throw new CancellationException("Stopped");
+        })) {
+            assertThrows(CancellationException.class, () -> stream.readNBytes(new byte[20], 0, 20));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.giamgiammi.StructuredFileViewer.ui.table;
+
+import com.github.giamgiammi.StructuredFileViewer.filters.ParallelFilter;
+import com.github.giamgiammi.StructuredFileViewer.model.ColumnarTableData;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableDataControllerTest {
+    private static final ParallelFilter.Monitor MONITOR = new ParallelFilter.Monitor() {
+        @Override
+        public void progress(long done, long total) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    @Test
+    void lazyRecordsTest() throws Exception {
+        val data = new ColumnarTableData(List.of("id", "status"));
+        for (int i = 0; i < 50_000; i++) data.append(new String[]{String.valueOf(i), i % 3 == 0 ? "OK" : "KO"});
+        assertTrue(data.hasLazyRecords());
+
+        // the records are created when shown, not copied
+        val all = TableDataController.filterRecords(data, null, null, null);
+        assertEquals(50_000, all.records().size());
+        assertEquals(50_000, all.coveredRows());
+        assertEquals("49999", all.records().get(49_999).get(0));
+        assertNotSame(all.records().get(0), all.records().get(0));
+        // all the records are shown without keeping their indexes
+        assertNull(all.records().rows());
+
+        val filtered = TableDataController.filterRecords(data, "$2 = 'OK'", null, MONITOR);
+        assertEquals(16_667, filtered.records().size());
+        assertEquals("3", filtered.records().get(1).get(0));
+        assertNotSame(filtered.records().get(1), filtered.records().get(1));
+
+        // records appended while loading are added by index
+        data.append(new String[]{"50000", "OK"});
+        all.records().addRows(50_000, 50_001);
+        assertEquals("50000", all.records().get(50_000).get(0));
+        assertNull(all.records().rows());
+
+        // the indexes are only created for records out of order
+        all.records().addRows(new int[]{7}, 0, 1);
+        assertEquals(50_002, all.records().rows().length);
+        assertEquals(50_000, all.records().rows()[50_000]);
+        assertEquals("7", all.records().get(50_001).get(0));
+    }
+}